@@ -0,0 +1,88 @@
+package com.ldaniels528.woozle;
+
+/**
+ * Batch axis-aligned bounding box (AABB) intersection kernel. Tests one
+ * box against a run of boxes held in struct-of-arrays form, and writes the
+ * positions of the boxes that overlap it into a caller-supplied array.
+ * <p>The loops are branch-free (the comparisons are combined with
+ * non-short-circuit operators, and each position is written unconditionally
+ * before the hit count is advanced), so the cost does not depend on how
+ * predictable the outcome is, and the JIT is free to unroll them.
+ * Edges that touch count as overlapping.</p>
+ * @author lawrence.daniels@gmail.com
+ */
+public final class AabbKernel {
+
+	/**
+	 * Private Constructor
+	 */
+	private AabbKernel() {
+		super();
+	}
+
+	/**
+	 * Finds the boxes (in the range [from, to)) that overlap the given box
+	 * @param minX the left edge of the given box
+	 * @param minY the top edge of the given box
+	 * @param maxX the right edge of the given box
+	 * @param maxY the bottom edge of the given box
+	 * @param minXs the left edges of the boxes
+	 * @param minYs the top edges of the boxes
+	 * @param maxXs the right edges of the boxes
+	 * @param maxYs the bottom edges of the boxes
+	 * @param from the first position to test (inclusive)
+	 * @param to the last position to test (exclusive)
+	 * @param hits the array receiving the positions of the overlapping
+	 * boxes; must have room for at least <tt>to - from</tt> elements
+	 * @return the number of overlapping boxes
+	 */
+	public static int overlaps( final double minX, final double minY,
+								final double maxX, final double maxY,
+								final double[] minXs, final double[] minYs,
+								final double[] maxXs, final double[] maxYs,
+								final int from, final int to,
+								final int[] hits ) {
+		int count = 0;
+		for( int n = from; n < to; n++ ) {
+			final boolean overlap = ( minX <= maxXs[n] ) & ( maxX >= minXs[n] ) &
+									( minY <= maxYs[n] ) & ( maxY >= minYs[n] );
+			hits[count] = n;
+			count += overlap ? 1 : 0;
+		}
+		return count;
+	}
+
+	/**
+	 * Finds the boxes (in the range [from, to)) that overlap the given box,
+	 * using 16.16 fixed-point (integer) bounds
+	 * @param minX the left edge of the given box
+	 * @param minY the top edge of the given box
+	 * @param maxX the right edge of the given box
+	 * @param maxY the bottom edge of the given box
+	 * @param minXs the left edges of the boxes
+	 * @param minYs the top edges of the boxes
+	 * @param maxXs the right edges of the boxes
+	 * @param maxYs the bottom edges of the boxes
+	 * @param from the first position to test (inclusive)
+	 * @param to the last position to test (exclusive)
+	 * @param hits the array receiving the positions of the overlapping
+	 * boxes; must have room for at least <tt>to - from</tt> elements
+	 * @return the number of overlapping boxes
+	 */
+	public static int overlaps( final int minX, final int minY,
+								final int maxX, final int maxY,
+								final int[] minXs, final int[] minYs,
+								final int[] maxXs, final int[] maxYs,
+								final int from, final int to,
+								final int[] hits ) {
+		int count = 0;
+		for( int n = from; n < to; n++ ) {
+			final boolean overlap = ( minX <= maxXs[n] ) & ( maxX >= minXs[n] ) &
+									( minY <= maxYs[n] ) & ( maxY >= minYs[n] );
+			hits[count] = n;
+			count += overlap ? 1 : 0;
+		}
+		return count;
+	}
+
+}
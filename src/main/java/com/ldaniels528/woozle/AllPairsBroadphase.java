@@ -0,0 +1,77 @@
+package com.ldaniels528.woozle;
+
+/**
+ * Brute-force broadphase; tests every pair of living entities,
+ * one entity at a time against the rest using the {@link AabbKernel batch kernel}
+ * @author lawrence.daniels@gmail.com
+ */
+public class AllPairsBroadphase implements Broadphase {
+	private int[] hits;
+
+	/**
+	 * Default Constructor
+	 */
+	public AllPairsBroadphase() {
+		this.hits = new int[ 64 ];
+	}
+
+	/* 
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.Broadphase#findPairs(com.ldaniels528.woozle.EntityWorld)
+	 */
+	public void findPairs( final EntityWorld world ) {
+		// get the bounds of the entities
+		final int count			= world.getEntityCount();
+		final boolean[] alive	= world.getAliveFlags();
+		final boolean fixed		= world.isFixedPoint();
+		if( hits.length < count ) {
+			hits = new int[ count ];
+		}
+		
+		// check each pair once
+		for( int a = 0; a < count; a++ ) {
+			if( alive[a] ) {
+				final int found = fixed ? findFixed( world, a, count ) : find( world, a, count );
+				for( int n = 0; n < found; n++ ) {
+					final int b = hits[n];
+					if( alive[b] ) {
+						world.collide( a, b );
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Finds the entities following the given entity whose bounds overlap it
+	 * @param world the given {@link EntityWorld world}
+	 * @param a the position of the given entity
+	 * @param count the number of entities
+	 * @return the number of overlapping entities
+	 */
+	private int find( final EntityWorld world, final int a, final int count ) {
+		final double[] minX	= world.getMinX();
+		final double[] minY	= world.getMinY();
+		final double[] maxX	= world.getMaxX();
+		final double[] maxY	= world.getMaxY();
+		return AabbKernel.overlaps( minX[a], minY[a], maxX[a], maxY[a], 
+				minX, minY, maxX, maxY, a + 1, count, hits );
+	}
+	
+	/**
+	 * Finds the entities following the given entity whose fixed-point bounds overlap it
+	 * @param world the given {@link EntityWorld world}
+	 * @param a the position of the given entity
+	 * @param count the number of entities
+	 * @return the number of overlapping entities
+	 */
+	private int findFixed( final EntityWorld world, final int a, final int count ) {
+		final int[] minX	= world.getFixedMinX();
+		final int[] minY	= world.getFixedMinY();
+		final int[] maxX	= world.getFixedMaxX();
+		final int[] maxY	= world.getFixedMaxY();
+		return AabbKernel.overlaps( minX[a], minY[a], maxX[a], maxY[a], 
+				minX, minY, maxX, maxY, a + 1, count, hits );
+	}
+
+}
@@ -0,0 +1,18 @@
+package com.ldaniels528.woozle;
+
+/**
+ * Represents a collision broadphase; a strategy for finding the pairs of
+ * entities whose bounds overlap, so that only those pairs are handed
+ * to the (more expensive) per-entity collision handlers.
+ * @author lawrence.daniels@gmail.com
+ */
+public interface Broadphase {
+
+	/**
+	 * Finds the candidate pairs within the given world, and passes
+	 * each pair to {@link EntityWorld#collide(int, int)}
+	 * @param world the given {@link EntityWorld world}
+	 */
+	void findPairs( EntityWorld world );
+
+}
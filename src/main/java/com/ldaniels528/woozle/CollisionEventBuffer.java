@@ -0,0 +1,70 @@
+package com.ldaniels528.woozle;
+
+import java.util.Arrays;
+
+/**
+ * Per-cycle buffer of the contacts found during collision detection.
+ * Each contact is recorded as a compact pair of entity positions in a
+ * flat int array; the contacts are handled once detection is complete,
+ * so that the detection loop itself has no side effects.
+ * @author lawrence.daniels@gmail.com
+ */
+class CollisionEventBuffer {
+	private int[] pairs;
+	private int size;
+
+	/**
+	 * Creates a new buffer
+	 * @param capacity the initial number of contacts
+	 */
+	public CollisionEventBuffer( final int capacity ) {
+		this.pairs = new int[ Math.max( capacity, 1 ) * 2 ];
+	}
+
+	/**
+	 * Records a contact between the entities at the given positions
+	 * @param indexA the position of the first entity
+	 * @param indexB the position of the second entity
+	 */
+	public void add( final int indexA, final int indexB ) {
+		if( size + 2 > pairs.length ) {
+			pairs = Arrays.copyOf( pairs, pairs.length * 2 );
+		}
+		pairs[size++] = indexA;
+		pairs[size++] = indexB;
+	}
+
+	/**
+	 * Returns the number of contacts recorded
+	 * @return the number of contacts recorded
+	 */
+	public int getCount() {
+		return size >> 1;
+	}
+
+	/**
+	 * Returns the position of the first entity of the given contact
+	 * @param event the given contact
+	 * @return the position of the first entity
+	 */
+	public int getIndexA( final int event ) {
+		return pairs[ event << 1 ];
+	}
+
+	/**
+	 * Returns the position of the second entity of the given contact
+	 * @param event the given contact
+	 * @return the position of the second entity
+	 */
+	public int getIndexB( final int event ) {
+		return pairs[ ( event << 1 ) + 1 ];
+	}
+
+	/**
+	 * Discards all recorded contacts
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+}
@@ -0,0 +1,248 @@
+package com.ldaniels528.woozle;
+
+import java.awt.*;
+
+/**
+ * This class is the base class for all entities
+ * within an {@link EntityWorld entity world}.
+ * @author lawrence.daniels@gmail.com
+ */
+public abstract class Entity {
+	protected double x,y;
+	protected double renderX, renderY;
+	protected double width;
+	protected double height;
+	private int fixedX, fixedY;
+	private int previousX, previousY;
+	private boolean alive;
+	int handle;
+
+	/**
+	 * Creates a new entity
+	 * @param x the given x-axis coordinate
+	 * @param y the given y-axis coordinate
+	 * @param width the width of the entity
+	 * @param height the height of the entity
+	 */
+	public Entity( final double x,
+				   final double y,
+				   final double width,
+				   final double height ) {
+		this.fixedX	= FixedPoint.toFixed( x );
+		this.fixedY	= FixedPoint.toFixed( y );
+		this.x		= FixedPoint.toDouble( fixedX );
+		this.y		= FixedPoint.toDouble( fixedY );
+		this.width	= width;
+		this.height	= height;
+		this.alive	= true;
+		this.handle	= -1;
+		snap();
+	}
+
+	/**
+	 * Handles the collision between this entity and the given entity
+	 * @param entity the given {@link Entity entity}
+	 */
+	public abstract void handleCollsion( Entity entity );
+
+	/**
+	 * Renders the entity onto the graphics context
+	 * @param g the given {@link Graphics2D graphics context}
+	 */
+	public abstract void render( Graphics2D g );
+
+	/**
+	 * Resets the entity to it's original position
+	 */
+	public abstract void reset();
+
+	/**
+	 * Updates the entity
+	 * @param ct the given cycle time
+	 */
+	public abstract void update( double ct );
+
+	/**
+	 * Causes the entity to die
+	 */
+	public void die() {
+		this.alive = false;
+	}
+
+	/**
+	 * Brings the entity back to life (e.g. when it is reused from a pool)
+	 */
+	protected void revive() {
+		this.alive = true;
+	}
+
+	/**
+	 * Returns the handle assigned by the owning {@link EntityWorld world}
+	 * @return the handle, or -1 if the entity doesn't belong to a world
+	 */
+	public int getHandle() {
+		return handle;
+	}
+
+	/**
+	 * Returns the x-axis coordinate
+	 * @return the x-axis coordinate
+	 */
+	public double getX() {
+		return x;
+	}
+
+	/**
+	 * Returns the y-axis coordinate
+	 * @return the y-axis coordinate
+	 */
+	public double getY() {
+		return y;
+	}
+
+	/**
+	 * Returns the x-axis coordinate in 16.16 fixed-point
+	 * @return the fixed-point x-axis coordinate
+	 */
+	public int getFixedX() {
+		return fixedX;
+	}
+
+	/**
+	 * Returns the y-axis coordinate in 16.16 fixed-point
+	 * @return the fixed-point y-axis coordinate
+	 */
+	public int getFixedY() {
+		return fixedY;
+	}
+
+	/**
+	 * Moves the entity to the given position (which is
+	 * rounded to the nearest fixed-point value); the
+	 * move is not interpolated when rendered
+	 * @param x the given x-axis coordinate
+	 * @param y the given y-axis coordinate
+	 */
+	public void setPosition( final double x, final double y ) {
+		setFixedPosition( FixedPoint.toFixed( x ), FixedPoint.toFixed( y ) );
+		snap();
+	}
+
+	/**
+	 * Moves the entity to the given 16.16 fixed-point position
+	 * @param fixedX the given fixed-point x-axis coordinate
+	 * @param fixedY the given fixed-point y-axis coordinate
+	 */
+	protected void setFixedPosition( final int fixedX, final int fixedY ) {
+		this.fixedX	= fixedX;
+		this.fixedY	= fixedY;
+		this.x		= FixedPoint.toDouble( fixedX );
+		this.y		= FixedPoint.toDouble( fixedY );
+	}
+
+	/**
+	 * Remembers the current position as the previous state;
+	 * called by the world at the start of each step
+	 */
+	void capturePrevious() {
+		previousX = fixedX;
+		previousY = fixedY;
+	}
+
+	/**
+	 * Computes the rendering position between the previous
+	 * and the current state
+	 * @param alpha the fraction of the way from the previous state
+	 * to the current state (0 &lt;= alpha &lt;= 1)
+	 */
+	void interpolate( final double alpha ) {
+		renderX = FixedPoint.toDouble( previousX ) + FixedPoint.toDouble( fixedX - previousX ) * alpha;
+		renderY = FixedPoint.toDouble( previousY ) + FixedPoint.toDouble( fixedY - previousY ) * alpha;
+	}
+
+	/**
+	 * Makes the current state the previous state as well,
+	 * so that the entity is rendered exactly where it is
+	 */
+	private void snap() {
+		previousX	= fixedX;
+		previousY	= fixedY;
+		renderX		= x;
+		renderY		= y;
+	}
+
+	/**
+	 * Moves the entity by the given 16.16 fixed-point distances
+	 * @param dx the given fixed-point x-axis distance
+	 * @param dy the given fixed-point y-axis distance
+	 */
+	protected void translate( final int dx, final int dy ) {
+		setFixedPosition( fixedX + dx, fixedY + dy );
+	}
+
+	/**
+	 * Indicates whether the entity is alive
+	 * @return true, if the entity is alive
+	 */
+	public boolean isAlive() {
+		return alive;
+	}
+
+	/**
+	 * Returns the width of the entity
+	 * @return the width of the entity
+	 */
+	public double getWidth() {
+		return width;
+	}
+
+	/**
+	 * Returns the height of the entity
+	 * @return the height of the entity
+	 */
+	public double getHeight() {
+		return height;
+	}
+
+	/**
+	 * Determines whether an intersection has occurred
+	 * between this entity and the given entity
+	 * @param entity the given {@link Entity entity}
+	 * @return true, if an intersection has occurred
+	 * between this entity and the given entity
+	 */
+	public boolean intersects( final Entity entity ) {
+		// get the dimensions for entity A
+		final double x1A = x - ( width / 2 );
+		final double y1A = y - ( height / 2 );
+		final double x2A = x1A + width;
+		final double y2A = y1A + height;
+
+		// get the dimensions for entity B
+		final double x1B = entity.x - ( entity.width / 2 );
+		final double y1B = entity.y - ( entity.height / 2 );
+		final double x2B = x1B + entity.width;
+		final double y2B = y1B + entity.height;
+
+		// do the rectangles overlap?
+		return ( x1A <= x2B ) && ( x2A >= x1B ) &&
+				( y1A <= y2B ) && ( y2A >= y1B );
+	}
+
+	/**
+	 * Determines whether the given (x,y) point intersects the entity
+	 * @param x the given x-axis coordinate
+	 * @param y the given y-axis coordinate
+	 * @return true, if the given (x,y) point intersects the entity
+	 */
+	public boolean intersects( final double x, final double y ) {
+		// get the dimensions for entity A
+		final double x1 = this.x - ( width / 2 );
+		final double y1 = this.y - ( height / 2 );
+		final double x2 = x1 + width;
+		final double y2 = y1 + height;
+		return ( x >= x1 ) && ( x <= x2 ) &&
+					( y >= y1 ) && ( y <= y2 );
+	}
+
+}
@@ -0,0 +1,89 @@
+package com.ldaniels528.woozle;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free multiple-producer, single-consumer queue of structural
+ * changes (additions and removals) requested of an {@link EntityWorld world}.
+ * Any thread may post a command; only the thread that owns the world
+ * may drain them.
+ * @author lawrence.daniels@gmail.com
+ */
+class EntityCommandQueue {
+	// command types
+	static final int ADD	= 0;
+	static final int REMOVE	= 1;
+	static final int CLEAR	= 2;
+
+	// internal fields
+	private final AtomicReference<Node> head;
+	private Node tail;
+
+	/**
+	 * Default Constructor
+	 */
+	public EntityCommandQueue() {
+		final Node stub	= new Node( CLEAR, null );
+		this.head		= new AtomicReference<Node>( stub );
+		this.tail		= stub;
+	}
+
+	/**
+	 * Posts a command to the queue (may be called from any thread)
+	 * @param command the given command type
+	 * @param entity the given {@link Entity entity}
+	 */
+	public void offer( final int command, final Entity entity ) {
+		final Node node = new Node( command, entity );
+		final Node prev = head.getAndSet( node );
+		prev.next = node;
+	}
+
+	/**
+	 * Indicates whether commands are waiting to be applied
+	 * @return true, if one or more commands are waiting
+	 */
+	public boolean isEmpty() {
+		return tail.next == null;
+	}
+
+	/**
+	 * Applies all pending commands to the given world (owner thread only)
+	 * @param world the given {@link EntityWorld world}
+	 */
+	public void drain( final EntityWorld world ) {
+		Node next;
+		while( ( next = tail.next ) != null ) {
+			// apply the command
+			switch( next.command ) {
+				case ADD:		world.insert( next.entity ); break;
+				case REMOVE:	world.delete( next.entity ); break;
+				case CLEAR:		world.clear(); break;
+			}
+
+			// the node becomes the new stub
+			next.entity	= null;
+			tail		= next;
+		}
+	}
+
+	/**
+	 * Represents a queued command
+	 */
+	private static class Node {
+		private final int command;
+		private Entity entity;
+		private volatile Node next;
+
+		/**
+		 * Creates a new command node
+		 * @param command the given command type
+		 * @param entity the given {@link Entity entity}
+		 */
+		public Node( final int command, final Entity entity ) {
+			this.command	= command;
+			this.entity		= entity;
+		}
+	}
+
+}
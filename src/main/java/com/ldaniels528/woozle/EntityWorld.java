@@ -0,0 +1,679 @@
+package com.ldaniels528.woozle;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+
+/**
+ * Represents a virtual world of {@link Entity entities}. The world is
+ * owned by the thread that updates and renders it (the game loop); the
+ * entities are kept in dense arrays, and the data needed for collision
+ * detection (bounds and alive flags) is stored in parallel primitive
+ * arrays. Each entity is also assigned a stable integer handle, which
+ * survives the swap-removal of other entities.
+ * <p>Other threads (e.g. the AWT event thread) never touch the arrays;
+ * their additions and removals are posted to a lock-free command queue,
+ * which the owner applies at the start of each cycle.</p>
+ * @author lawrence.daniels@gmail.com
+ */
+public class EntityWorld {
+	// the default number of entities
+	private static final int MAX_ENTITIES = 300;
+
+	// pending structural changes
+	private final EntityCommandQueue commands;
+
+	// contacts and side effects of the current cycle
+	private final CollisionEventBuffer contacts;
+	private final TickEffects effects;
+	private final ThreadLocal<TickEffects> partitionEffects;
+
+	// dense struct-of-arrays storage (indexed by position)
+	private Entity[] entities;
+	private boolean[] alive;
+	private double[] minX;
+	private double[] minY;
+	private double[] maxX;
+	private double[] maxY;
+	private int count;
+
+	// 16.16 fixed-point bounds (indexed by position; deterministic mode only)
+	private int[] fixedMinX;
+	private int[] fixedMinY;
+	private int[] fixedMaxX;
+	private int[] fixedMaxY;
+
+	// handle to position mapping
+	private int[] indices;
+	private int[] freeHandles;
+	private int freeCount;
+	private int handleLimit;
+	private int modificationCount;
+
+	// the number of pairs handed to the narrowphase
+	private long collisionChecks;
+
+	// internal fields
+	private final Random random;
+	private UpdateSystem updateSystem;
+	private Broadphase broadphase;
+	private boolean fixedPoint;
+
+	/**
+	 * Default Constructor
+	 */
+	public EntityWorld() {
+		this( MAX_ENTITIES );
+	}
+
+	/**
+	 * Creates a new world
+	 * @param capacity the initial entity capacity
+	 */
+	public EntityWorld( final int capacity ) {
+		this.commands			= new EntityCommandQueue();
+		this.contacts			= new CollisionEventBuffer( 64 );
+		this.effects			= new TickEffects();
+		this.partitionEffects	= new ThreadLocal<TickEffects>();
+		this.updateSystem		= new SerialUpdateSystem();
+		this.broadphase			= new AllPairsBroadphase();
+		this.fixedPoint			= FixedPoint.ENABLED;
+		this.random				= new Random( fixedPoint ? FixedPoint.SEED : System.nanoTime() );
+		allocate( Math.max( capacity, 1 ) );
+	}
+
+	/**
+	 * Adds the given entity (may be called from any thread)
+	 * @param entity the given {@link Entity entity}
+	 */
+	public void add( final Entity entity ) {
+		commands.offer( EntityCommandQueue.ADD, entity );
+	}
+
+	/**
+	 * Adds the given collection of entities (may be called from any thread)
+	 * @param entities the given {@link Collection collection} of {@link Entity entities}
+	 */
+	public void addAll( final Collection<? extends Entity> entities ) {
+		for( final Entity entity : entities ) {
+			commands.offer( EntityCommandQueue.ADD, entity );
+		}
+	}
+
+	/**
+	 * Adds the given array of entities (may be called from any thread)
+	 * @param entities the given array of {@link Entity entities}
+	 */
+	public void addAll( final Entity[] entities ) {
+		for( final Entity entity : entities ) {
+			commands.offer( EntityCommandQueue.ADD, entity );
+		}
+	}
+
+	/**
+	 * Removes the given entity (may be called from any thread)
+	 * @param entity the given {@link Entity entity}
+	 */
+	public void remove( final Entity entity ) {
+		commands.offer( EntityCommandQueue.REMOVE, entity );
+	}
+
+	/**
+	 * Removes all entities from the world (may be called from any thread)
+	 */
+	public void removeAllEntities() {
+		commands.offer( EntityCommandQueue.CLEAR, null );
+	}
+
+	/**
+	 * Applies the pending additions and removals, and returns the
+	 * array of entities. Only the first {@link #getEntityCount()}
+	 * elements of the array are valid. (Owner thread only)
+	 * @return the array of entities
+	 */
+	public Entity[] getEntities() {
+		commands.drain( this );
+		return entities;
+	}
+
+	/**
+	 * Returns the number of entities in the world
+	 * @return the number of entities in the world
+	 */
+	public int getEntityCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the entity associated to the given handle
+	 * @param handle the given handle
+	 * @return the {@link Entity entity} or <tt>null</tt> if the handle is not in use
+	 */
+	public Entity getEntity( final int handle ) {
+		if( handle < 0 || handle >= handleLimit || indices[handle] == -1 ) {
+			return null;
+		}
+		return entities[ indices[handle] ];
+	}
+
+	/**
+	 * Resets all living entities
+	 */
+	public void resetEntities() {
+		// get the entities
+		final Entity[] entities = getEntities();
+
+		// reset all living entities
+		for( int n = 0; n < count; n++ ) {
+			if( entities[n].isAlive() ) {
+				entities[n].reset();
+			}
+		}
+	}
+
+	/**
+	 * Updates the world
+	 * @param ct the given cycle time
+	 */
+	public void update( final double ct ) {
+		// apply the pending additions and removals
+		commands.drain( this );
+
+		// remember where the entities were
+		for( int n = 0; n < count; n++ ) {
+			entities[n].capturePrevious();
+		}
+
+		// update all entities
+		updateSystem.update( this, ct );
+
+		// capture the new bounds
+		updateBounds();
+
+		// check for collisions
+		broadphase.findPairs( this );
+
+		// handle the contacts found
+		handleContacts();
+
+		// remove dead entities
+		removeDeadEntities();
+
+		// apply the side effects of the cycle
+		effects.apply();
+	}
+
+	/**
+	 * Computes the rendering positions of the entities, between their
+	 * states before and after the most recent update. (Owner thread only)
+	 * @param alpha the fraction of the way from the previous state
+	 * to the current state (0 &lt;= alpha &lt;= 1)
+	 */
+	public void interpolate( final double alpha ) {
+		for( int n = 0; n < count; n++ ) {
+			entities[n].interpolate( alpha );
+		}
+	}
+
+	/**
+	 * Queues the given action to be executed at the end of the current cycle
+	 * @param action the given {@link Runnable action}
+	 */
+	public void defer( final Runnable action ) {
+		getEffects().defer( action );
+	}
+
+	/**
+	 * Queues a sound to be played at the end of the current cycle
+	 * @param soundKey the given sound key
+	 */
+	public void playSound( final Object soundKey ) {
+		getEffects().playSound( soundKey );
+	}
+
+	/**
+	 * Adjusts the player's score at the end of the current cycle
+	 * @param delta the given delta
+	 */
+	public void adjustScore( final int delta ) {
+		getEffects().adjustScore( delta );
+	}
+
+	/**
+	 * Returns the side effects collector for the calling thread; during
+	 * a parallel update this is the buffer of the partition being updated
+	 * @return the {@link TickEffects effects}
+	 */
+	public TickEffects getEffects() {
+		final TickEffects buffer = partitionEffects.get();
+		return ( buffer != null ) ? buffer : effects;
+	}
+
+	/**
+	 * Checks for a collision between the entities at the given
+	 * positions, and records the contact if there is one. This
+	 * method is called by the {@link Broadphase broadphase} for
+	 * each pair of overlapping bounds; the contacts are handled
+	 * once all pairs have been checked.
+	 * @param indexA the position of the first entity
+	 * @param indexB the position of the second entity
+	 */
+	public void collide( final int indexA, final int indexB ) {
+		collisionChecks++;
+		// deterministic mode uses integer math only
+		if( fixedPoint ) {
+			if( ( fixedMinX[indexA] <= fixedMaxX[indexB] ) && ( fixedMaxX[indexA] >= fixedMinX[indexB] ) &&
+				( fixedMinY[indexA] <= fixedMaxY[indexB] ) && ( fixedMaxY[indexA] >= fixedMinY[indexB] ) ) {
+				contacts.add( indexA, indexB );
+			}
+		}
+		else {
+			final Entity entityA = entities[indexA];
+			final Entity entityB = entities[indexB];
+			if( entityA.intersects( entityB ) ) {
+				contacts.add( indexA, indexB );
+			}
+		}
+	}
+
+	/**
+	 * Indicates whether deterministic physics is enabled; if so, collisions
+	 * are detected using the entities' 16.16 fixed-point positions
+	 * @return true, if deterministic physics is enabled
+	 */
+	public boolean isFixedPoint() {
+		return fixedPoint;
+	}
+
+	/**
+	 * Enables or disables deterministic physics; enabling it
+	 * also reseeds the world's random number generator
+	 * @param fixedPoint indicates whether deterministic physics is enabled
+	 */
+	public void setFixedPoint( final boolean fixedPoint ) {
+		this.fixedPoint = fixedPoint;
+		if( fixedPoint ) {
+			random.setSeed( FixedPoint.SEED );
+		}
+		updateBounds();
+	}
+
+	/**
+	 * Returns the world's random number generator; entities must use
+	 * this generator (rather than {@link Randomizer}) so that
+	 * deterministic runs can be replayed
+	 * @return the {@link Random random number generator}
+	 */
+	public Random getRandom() {
+		return random;
+	}
+
+	/**
+	 * Returns the number of pairs of entities that have been
+	 * checked for collisions since the world was created
+	 * @return the number of collision checks
+	 */
+	public long getCollisionChecks() {
+		return collisionChecks;
+	}
+
+	/**
+	 * Returns the current broadphase
+	 * @return the {@link Broadphase broadphase}
+	 */
+	public Broadphase getBroadphase() {
+		return broadphase;
+	}
+
+	/**
+	 * Sets the broadphase used to find colliding pairs
+	 * @param broadphase the given {@link Broadphase broadphase}
+	 */
+	public void setBroadphase( final Broadphase broadphase ) {
+		this.broadphase = broadphase;
+	}
+
+	/**
+	 * Returns the current update system
+	 * @return the {@link UpdateSystem update system}
+	 */
+	public UpdateSystem getUpdateSystem() {
+		return updateSystem;
+	}
+
+	/**
+	 * Sets the system used to update the entities
+	 * @param updateSystem the given {@link UpdateSystem update system}
+	 */
+	public void setUpdateSystem( final UpdateSystem updateSystem ) {
+		this.updateSystem = updateSystem;
+	}
+
+	/**
+	 * Immediately inserts the given entity, bypassing the command
+	 * queue. (Owner thread only; must not be called while the
+	 * entities are being updated or checked for collisions)
+	 * @param entity the given {@link Entity entity}
+	 */
+	protected void spawn( final Entity entity ) {
+		insert( entity );
+	}
+
+	/**
+	 * Called after the given entity has been removed from the world;
+	 * allows subclasses to recycle it
+	 * @param entity the given {@link Entity entity}
+	 */
+	protected void entityRemoved( final Entity entity ) {
+		// may be overridden
+	}
+
+	/**
+	 * Directs the side effects of the calling thread to the given buffer
+	 * @param buffer the given {@link TickEffects buffer}
+	 */
+	void enterPartition( final TickEffects buffer ) {
+		partitionEffects.set( buffer );
+	}
+
+	/**
+	 * Directs the side effects of the calling thread back to the world
+	 */
+	void exitPartition() {
+		partitionEffects.remove();
+	}
+
+	/**
+	 * Returns the number of structural changes (insertions and
+	 * removals) that have been applied to the dense arrays
+	 * @return the modification count
+	 */
+	int getModificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * Returns the handle to position mapping; unused handles map to -1
+	 * @return the positions (indexed by handle)
+	 */
+	int[] getHandleIndices() {
+		return indices;
+	}
+
+	/**
+	 * Returns the number of handles issued (the upper bound of the handle range)
+	 * @return the number of handles issued
+	 */
+	int getHandleLimit() {
+		return handleLimit;
+	}
+
+	/**
+	 * Returns the fixed-point left edges (indexed by position; deterministic mode only)
+	 * @return the fixed-point left edges
+	 */
+	int[] getFixedMinX() {
+		return fixedMinX;
+	}
+
+	/**
+	 * Returns the fixed-point top edges (indexed by position; deterministic mode only)
+	 * @return the fixed-point top edges
+	 */
+	int[] getFixedMinY() {
+		return fixedMinY;
+	}
+
+	/**
+	 * Returns the fixed-point right edges (indexed by position; deterministic mode only)
+	 * @return the fixed-point right edges
+	 */
+	int[] getFixedMaxX() {
+		return fixedMaxX;
+	}
+
+	/**
+	 * Returns the fixed-point bottom edges (indexed by position; deterministic mode only)
+	 * @return the fixed-point bottom edges
+	 */
+	int[] getFixedMaxY() {
+		return fixedMaxY;
+	}
+
+	/**
+	 * Returns the alive flags (indexed by position)
+	 * @return the alive flags
+	 */
+	boolean[] getAliveFlags() {
+		return alive;
+	}
+
+	/**
+	 * Returns the left edges (indexed by position)
+	 * @return the left edges
+	 */
+	double[] getMinX() {
+		return minX;
+	}
+
+	/**
+	 * Returns the top edges (indexed by position)
+	 * @return the top edges
+	 */
+	double[] getMinY() {
+		return minY;
+	}
+
+	/**
+	 * Returns the right edges (indexed by position)
+	 * @return the right edges
+	 */
+	double[] getMaxX() {
+		return maxX;
+	}
+
+	/**
+	 * Returns the bottom edges (indexed by position)
+	 * @return the bottom edges
+	 */
+	double[] getMaxY() {
+		return maxY;
+	}
+
+	/**
+	 * Inserts the given entity into the dense arrays
+	 * @param entity the given {@link Entity entity}
+	 */
+	void insert( final Entity entity ) {
+		// is the entity already in the world?
+		if( entity.handle != -1 ) {
+			return;
+		}
+
+		// grow the arrays if necessary
+		if( count == entities.length ) {
+			allocate( entities.length * 2 );
+		}
+
+		// reuse a free handle, or issue a new one
+		final int handle = ( freeCount > 0 ) ? freeHandles[--freeCount] : handleLimit++;
+
+		// append the entity
+		final int index		= count++;
+		entity.handle		= handle;
+		entities[index]		= entity;
+		indices[handle]		= index;
+		modificationCount++;
+		updateBounds( index );
+	}
+
+	/**
+	 * Removes the given entity from the dense arrays
+	 * @param entity the given {@link Entity entity}
+	 */
+	void delete( final Entity entity ) {
+		final int handle = entity.handle;
+		if( handle != -1 && handle < handleLimit ) {
+			final int index = indices[handle];
+			if( index != -1 && entities[index] == entity ) {
+				swapRemove( index );
+			}
+		}
+	}
+
+	/**
+	 * Removes all entities from the dense arrays
+	 */
+	void clear() {
+		for( int n = 0; n < count; n++ ) {
+			final Entity entity = entities[n];
+			entity.handle	= -1;
+			entities[n]		= null;
+			entityRemoved( entity );
+		}
+		count		= 0;
+		freeCount	= 0;
+		handleLimit	= 0;
+		modificationCount++;
+	}
+
+	/**
+	 * Allows the entities of each contact recorded during this cycle to
+	 * handle the collision; contacts involving an entity that has died
+	 * (from an earlier contact) are ignored
+	 */
+	private void handleContacts() {
+		final int total = contacts.getCount();
+		for( int n = 0; n < total; n++ ) {
+			final int indexA = contacts.getIndexA( n );
+			final int indexB = contacts.getIndexB( n );
+			final Entity entityA = entities[indexA];
+			final Entity entityB = entities[indexB];
+			if( entityA.isAlive() && entityB.isAlive() ) {
+				// allow each entity to handle the collision
+				entityA.handleCollsion( entityB );
+				entityB.handleCollsion( entityA );
+
+				// the entities may have moved (or died)
+				updateBounds( indexA );
+				updateBounds( indexB );
+			}
+		}
+		contacts.clear();
+	}
+
+	/**
+	 * Captures the bounds of all entities
+	 */
+	private void updateBounds() {
+		for( int n = 0; n < count; n++ ) {
+			updateBounds( n );
+		}
+	}
+
+	/**
+	 * Captures the bounds of the entity at the given position
+	 * @param index the given position
+	 */
+	private void updateBounds( final int index ) {
+		final Entity entity = entities[index];
+		minX[index]		= entity.x - ( entity.width / 2 );
+		minY[index]		= entity.y - ( entity.height / 2 );
+		maxX[index]		= minX[index] + entity.width;
+		maxY[index]		= minY[index] + entity.height;
+		alive[index]	= entity.isAlive();
+
+		// capture the fixed-point bounds
+		if( fixedPoint ) {
+			final int width		= FixedPoint.toFixed( entity.width );
+			final int height	= FixedPoint.toFixed( entity.height );
+			fixedMinX[index]	= entity.getFixedX() - ( width >> 1 );
+			fixedMinY[index]	= entity.getFixedY() - ( height >> 1 );
+			fixedMaxX[index]	= fixedMinX[index] + width;
+			fixedMaxY[index]	= fixedMinY[index] + height;
+		}
+	}
+
+	/**
+	 * Removes the entities that have died during this cycle
+	 */
+	private void removeDeadEntities() {
+		// walk backwards, so that each swapped-in entity has already been checked
+		for( int n = count - 1; n >= 0; n-- ) {
+			if( !entities[n].isAlive() ) {
+				swapRemove( n );
+			}
+		}
+	}
+
+	/**
+	 * Removes the entity at the given position by moving
+	 * the last entity into its place
+	 * @param index the given position
+	 */
+	private void swapRemove( final int index ) {
+		// release the handle
+		final Entity entity = entities[index];
+		indices[entity.handle]		= -1;
+		freeHandles[freeCount++]	= entity.handle;
+		entity.handle				= -1;
+
+		// move the last entity into the hole
+		final int last = --count;
+		if( index != last ) {
+			final Entity moved	= entities[last];
+			entities[index]		= moved;
+			alive[index]		= alive[last];
+			minX[index]			= minX[last];
+			minY[index]			= minY[last];
+			maxX[index]			= maxX[last];
+			maxY[index]			= maxY[last];
+			fixedMinX[index]	= fixedMinX[last];
+			fixedMinY[index]	= fixedMinY[last];
+			fixedMaxX[index]	= fixedMaxX[last];
+			fixedMaxY[index]	= fixedMaxY[last];
+			indices[moved.handle] = index;
+		}
+		entities[last] = null;
+		modificationCount++;
+
+		// allow the entity to be recycled
+		entityRemoved( entity );
+	}
+
+	/**
+	 * (Re-)allocates the storage arrays
+	 * @param capacity the given capacity
+	 */
+	private void allocate( final int capacity ) {
+		if( entities == null ) {
+			entities	= new Entity[ capacity ];
+			alive		= new boolean[ capacity ];
+			minX		= new double[ capacity ];
+			minY		= new double[ capacity ];
+			maxX		= new double[ capacity ];
+			maxY		= new double[ capacity ];
+			fixedMinX	= new int[ capacity ];
+			fixedMinY	= new int[ capacity ];
+			fixedMaxX	= new int[ capacity ];
+			fixedMaxY	= new int[ capacity ];
+			indices		= new int[ capacity ];
+			freeHandles	= new int[ capacity ];
+		}
+		else {
+			entities	= Arrays.copyOf( entities, capacity );
+			alive		= Arrays.copyOf( alive, capacity );
+			minX		= Arrays.copyOf( minX, capacity );
+			minY		= Arrays.copyOf( minY, capacity );
+			maxX		= Arrays.copyOf( maxX, capacity );
+			maxY		= Arrays.copyOf( maxY, capacity );
+			fixedMinX	= Arrays.copyOf( fixedMinX, capacity );
+			fixedMinY	= Arrays.copyOf( fixedMinY, capacity );
+			fixedMaxX	= Arrays.copyOf( fixedMaxX, capacity );
+			fixedMaxY	= Arrays.copyOf( fixedMaxY, capacity );
+			indices		= Arrays.copyOf( indices, capacity );
+			freeHandles	= Arrays.copyOf( freeHandles, capacity );
+		}
+	}
+
+}
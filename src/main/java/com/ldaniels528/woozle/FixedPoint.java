@@ -0,0 +1,87 @@
+package com.ldaniels528.woozle;
+
+/**
+ * 16.16 fixed-point arithmetic. Entity positions and velocities are
+ * kept in this format so that the physics is computed with integer math,
+ * and therefore produces bit-identical results on every JVM and every run.
+ * Every fixed-point value is exactly representable as a double, so the
+ * positions mirrored into doubles (for rendering) lose nothing.
+ * @author lawrence.daniels@gmail.com
+ */
+public final class FixedPoint {
+	// the number of fractional bits
+	public static final int FRACTION_BITS = 16;
+
+	// the fixed-point value of one
+	public static final int ONE = 1 << FRACTION_BITS;
+
+	// indicates whether deterministic (fixed-point, fixed-step) physics is enabled
+	public static final boolean ENABLED = Boolean.getBoolean( "woozle.physics.fixed" );
+
+	// the random seed used when deterministic physics is enabled
+	public static final long SEED = Long.getLong( "woozle.physics.seed", 528L );
+
+	/**
+	 * Private Constructor
+	 */
+	private FixedPoint() {
+		super();
+	}
+
+	/**
+	 * Converts the given value to fixed-point (rounding to the nearest fraction)
+	 * @param value the given value
+	 * @return the fixed-point value
+	 */
+	public static int toFixed( final double value ) {
+		return (int)Math.round( value * ONE );
+	}
+
+	/**
+	 * Converts the given integer value to fixed-point
+	 * @param value the given value
+	 * @return the fixed-point value
+	 */
+	public static int toFixed( final int value ) {
+		return value << FRACTION_BITS;
+	}
+
+	/**
+	 * Converts the given fixed-point value to a double (exactly)
+	 * @param value the given fixed-point value
+	 * @return the double value
+	 */
+	public static double toDouble( final int value ) {
+		return value / (double)ONE;
+	}
+
+	/**
+	 * Converts the given fixed-point value to an integer (rounding down)
+	 * @param value the given fixed-point value
+	 * @return the integer value
+	 */
+	public static int toInt( final int value ) {
+		return value >> FRACTION_BITS;
+	}
+
+	/**
+	 * Multiplies the given fixed-point values
+	 * @param a the given multiplicand
+	 * @param b the given multiplier
+	 * @return the fixed-point product
+	 */
+	public static int multiply( final int a, final int b ) {
+		return (int)( ( (long)a * b ) >> FRACTION_BITS );
+	}
+
+	/**
+	 * Divides the given fixed-point values
+	 * @param a the given dividend
+	 * @param b the given divisor
+	 * @return the fixed-point quotient
+	 */
+	public static int divide( final int a, final int b ) {
+		return (int)( ( (long)a << FRACTION_BITS ) / b );
+	}
+
+}
@@ -0,0 +1,94 @@
+package com.ldaniels528.woozle;
+
+/**
+ * Converts wall-clock time into a whole number of fixed-length
+ * simulation steps. The time left over from each call carries over
+ * to the next, so the simulation advances at a constant rate
+ * no matter how long each frame takes to render; the left over
+ * fraction of a step is used to interpolate the rendered positions.
+ * <p>The step rate may be lowered (e.g. -Dwoozle.physics.rate=15) to
+ * save CPU; each step then covers proportionally more cycle time.</p>
+ * @author lawrence.daniels@gmail.com
+ */
+public class FixedStepClock {
+	// the number of units of cycle time per second
+	public static final int BASE_RATE = 30;
+
+	// the default number of steps per second
+	private static final int RATE = Integer.getInteger( "woozle.physics.rate", BASE_RATE );
+
+	// the most steps taken at once (after a long stall, time is dropped)
+	private static final int MAX_STEPS = 5;
+
+	// internal fields
+	private final long stepNanos;
+	private final double cycleTime;
+	private long lastTime;
+	private long accumulator;
+
+	/**
+	 * Default Constructor
+	 */
+	public FixedStepClock() {
+		this( RATE );
+	}
+
+	/**
+	 * Creates a new clock
+	 * @param rate the number of steps per second
+	 */
+	public FixedStepClock( final int rate ) {
+		this.stepNanos	= 1000000000L / rate;
+		this.cycleTime	= (double)BASE_RATE / rate;
+		reset();
+	}
+
+	/**
+	 * Returns the cycle time covered by each step
+	 * @return the cycle time of a step
+	 */
+	public double getCycleTime() {
+		return cycleTime;
+	}
+
+	/**
+	 * Restarts the clock, discarding any accumulated time
+	 */
+	public void reset() {
+		this.lastTime		= System.nanoTime();
+		this.accumulator	= 0;
+	}
+
+	/**
+	 * Accumulates the time elapsed since the previous call,
+	 * and returns the number of whole steps that have elapsed
+	 * @return the number of steps to simulate
+	 */
+	public int advance() {
+		// accumulate the elapsed time
+		final long now = System.nanoTime();
+		accumulator += now - lastTime;
+		lastTime = now;
+
+		// determine the number of whole steps
+		int steps = (int)( accumulator / stepNanos );
+		if( steps > MAX_STEPS ) {
+			steps		= MAX_STEPS;
+			accumulator	= 0;
+		}
+		else {
+			accumulator -= steps * stepNanos;
+		}
+		return steps;
+	}
+
+	/**
+	 * Returns the fraction of a step that has accumulated
+	 * but not yet been simulated
+	 * @return the fraction of a step (0 &lt;= alpha &lt; 1)
+	 */
+	public double getAlpha() {
+		return (double)accumulator / stepNanos;
+	}
+
+}
@@ -0,0 +1,108 @@
+package com.ldaniels528.woozle;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registry of named metrics, shared between all mini-games: gauges (the
+ * latest value of a measurement, e.g. the depth of the AI's last search)
+ * and counters (running totals). Metrics are named with dotted paths,
+ * e.g. <tt>othello.ai.depth</tt>.
+ * <p>Metrics are published from any thread, and read as a
+ * {@link #snapshot() snapshot}; nothing is kept but the latest values.</p>
+ * @author lawrence.daniels@gmail.com
+ */
+public class MetricsRegistry {
+	// singleton instance
+	private static final MetricsRegistry instance = new MetricsRegistry();
+
+	// internal fields
+	private final ConcurrentMap<String, Object> gauges;
+	private final ConcurrentMap<String, AtomicLong> counters;
+
+	/**
+	 * Default Constructor
+	 */
+	public MetricsRegistry() {
+		this.gauges		= new ConcurrentHashMap<String, Object>();
+		this.counters	= new ConcurrentHashMap<String, AtomicLong>();
+	}
+
+	/**
+	 * Returns the shared metrics registry instance
+	 * @return the shared metrics registry instance
+	 */
+	public static MetricsRegistry getInstance() {
+		return instance;
+	}
+
+	/**
+	 * Sets the given gauge
+	 * @param name the name of the gauge
+	 * @param value the latest value (a number or a string)
+	 */
+	public void setGauge( final String name, final Object value ) {
+		gauges.put( name, value );
+	}
+
+	/**
+	 * Returns the value of the given gauge
+	 * @param name the name of the gauge
+	 * @return the latest value, or <tt>null</tt> if the gauge was never set
+	 */
+	public Object getGauge( final String name ) {
+		return gauges.get( name );
+	}
+
+	/**
+	 * Adds the given amount to the given counter
+	 * @param name the name of the counter
+	 * @param delta the amount to add
+	 * @return the new total
+	 */
+	public long increment( final String name, final long delta ) {
+		AtomicLong counter = counters.get( name );
+		if( counter == null ) {
+			final AtomicLong created = new AtomicLong();
+			counter = counters.putIfAbsent( name, created );
+			if( counter == null ) {
+				counter = created;
+			}
+		}
+		return counter.addAndGet( delta );
+	}
+
+	/**
+	 * Returns the total of the given counter
+	 * @param name the name of the counter
+	 * @return the total, or zero if the counter was never incremented
+	 */
+	public long getCount( final String name ) {
+		final AtomicLong counter = counters.get( name );
+		return ( counter != null ) ? counter.get() : 0;
+	}
+
+	/**
+	 * Returns a copy of every metric, sorted by name
+	 * @return the mapping of names to latest values (or totals)
+	 */
+	public Map<String, Object> snapshot() {
+		final Map<String, Object> snapshot = new TreeMap<String, Object>( gauges );
+		for( final Map.Entry<String, AtomicLong> entry : counters.entrySet() ) {
+			snapshot.put( entry.getKey(), entry.getValue().get() );
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Removes all metrics
+	 */
+	public void clear() {
+		gauges.clear();
+		counters.clear();
+	}
+
+}
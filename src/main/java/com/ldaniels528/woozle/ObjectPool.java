@@ -0,0 +1,146 @@
+package com.ldaniels528.woozle;
+
+import java.util.Arrays;
+
+/**
+ * Represents a pool of reusable objects; used for short-lived
+ * entities (e.g. projectiles) so that creating and destroying
+ * them doesn't produce garbage once the pool has warmed up.
+ * @author lawrence.daniels@gmail.com
+ */
+public class ObjectPool<T> {
+	private final Factory<T> factory;
+	private Object[] available;
+	private int availableCount;
+	private int created;
+	private int inUse;
+	private int highWaterMark;
+	private long acquisitions;
+	private long misses;
+
+	/**
+	 * Creates a new object pool
+	 * @param factory the given {@link Factory factory}
+	 * @param initialSize the number of objects to create up front
+	 */
+	public ObjectPool( final Factory<T> factory, final int initialSize ) {
+		this.factory	= factory;
+		this.available	= new Object[ Math.max( initialSize, 1 ) ];
+
+		// pre-populate the pool
+		for( int n = 0; n < initialSize; n++ ) {
+			available[availableCount++] = factory.create();
+			created++;
+		}
+	}
+
+	/**
+	 * Retrieves an object from the pool; creating a new
+	 * one only if the pool is exhausted
+	 * @return the object
+	 */
+	@SuppressWarnings("unchecked")
+	public T acquire() {
+		// track the usage
+		acquisitions++;
+		if( ++inUse > highWaterMark ) {
+			highWaterMark = inUse;
+		}
+
+		// is an object available?
+		if( availableCount > 0 ) {
+			final T object = (T)available[--availableCount];
+			available[availableCount] = null;
+			return object;
+		}
+
+		// the pool is exhausted
+		misses++;
+		created++;
+		return factory.create();
+	}
+
+	/**
+	 * Returns the given object to the pool
+	 * @param object the given object
+	 */
+	public void release( final T object ) {
+		if( availableCount == available.length ) {
+			available = Arrays.copyOf( available, available.length * 2 );
+		}
+		available[availableCount++] = object;
+		inUse--;
+	}
+
+	/**
+	 * Returns the number of objects created by the pool
+	 * @return the number of objects created by the pool
+	 */
+	public int getCapacity() {
+		return created;
+	}
+
+	/**
+	 * Returns the number of objects waiting in the pool
+	 * @return the number of objects waiting in the pool
+	 */
+	public int getAvailable() {
+		return availableCount;
+	}
+
+	/**
+	 * Returns the number of objects currently checked out
+	 * @return the number of objects currently checked out
+	 */
+	public int getInUse() {
+		return inUse;
+	}
+
+	/**
+	 * Returns the highest number of objects checked out at once
+	 * @return the highest number of objects checked out at once
+	 */
+	public int getHighWaterMark() {
+		return highWaterMark;
+	}
+
+	/**
+	 * Returns the total number of acquisitions
+	 * @return the total number of acquisitions
+	 */
+	public long getAcquisitions() {
+		return acquisitions;
+	}
+
+	/**
+	 * Returns the number of acquisitions that required a new object
+	 * @return the number of acquisitions that required a new object
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/* 
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		return String.format( "inUse = %d, available = %d, capacity = %d, highWater = %d, misses = %d/%d", 
+				inUse, availableCount, created, highWaterMark, misses, acquisitions );
+	}
+
+	/**
+	 * Creates the objects managed by an {@link ObjectPool object pool}
+	 * @author lawrence.daniels@gmail.com
+	 */
+	public static interface Factory<T> {
+
+		/**
+		 * Creates a new object
+		 * @return the new object
+		 */
+		T create();
+
+	}
+
+}
@@ -0,0 +1,147 @@
+package com.ldaniels528.woozle;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Updates the entities of a world in parallel. The dense entity array
+ * is split into fixed-size partitions, which are updated by the tasks
+ * of a {@link ForkJoinPool fork/join pool}. Each partition collects
+ * its side effects into its own {@link TickEffects buffer}; the buffers
+ * are merged in partition order once all tasks are complete, so the
+ * outcome is the same as a serial update regardless of how the work
+ * was scheduled.
+ * <p>Entities updated by this system must only modify themselves;
+ * anything else must go through the world's {@link EntityWorld#defer(Runnable) deferred}
+ * effects.</p>
+ * @author lawrence.daniels@gmail.com
+ */
+public class ParallelUpdateSystem implements UpdateSystem {
+	// the default number of entities per partition
+	private static final int PARTITION_SIZE = 512;
+
+	// internal fields
+	private final ForkJoinPool pool;
+	private final int partitionSize;
+	private TickEffects[] buffers;
+
+	/**
+	 * Default Constructor
+	 */
+	public ParallelUpdateSystem() {
+		this( ForkJoinPool.commonPool(), PARTITION_SIZE );
+	}
+
+	/**
+	 * Creates a new parallel update system
+	 * @param pool the given {@link ForkJoinPool fork/join pool}
+	 * @param partitionSize the number of entities per partition
+	 */
+	public ParallelUpdateSystem( final ForkJoinPool pool, final int partitionSize ) {
+		this.pool			= pool;
+		this.partitionSize	= partitionSize;
+		this.buffers		= new TickEffects[0];
+	}
+
+	/* 
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.UpdateSystem#update(com.ldaniels528.woozle.EntityWorld, double)
+	 */
+	public void update( final EntityWorld world, final double ct ) {
+		// get the array of entities
+		final Entity[] entities = world.getEntities();
+		final int count = world.getEntityCount();
+
+		// is the world too small to split?
+		if( ( count < partitionSize * 2 ) || ( pool.getParallelism() < 2 ) ) {
+			for( int n = 0; n < count; n++ ) {
+				entities[n].update( ct );
+			}
+			return;
+		}
+
+		// prepare a buffer for each partition
+		final int partitions = ( count + partitionSize - 1 ) / partitionSize;
+		if( buffers.length < partitions ) {
+			final TickEffects[] expanded = new TickEffects[ partitions ];
+			System.arraycopy( buffers, 0, expanded, 0, buffers.length );
+			for( int n = buffers.length; n < partitions; n++ ) {
+				expanded[n] = new TickEffects();
+			}
+			buffers = expanded;
+		}
+
+		// update the partitions
+		pool.invoke( new UpdateTask( world, entities, count, ct, 0, partitions ) );
+
+		// merge the side effects in partition order
+		for( int n = 0; n < partitions; n++ ) {
+			buffers[n].drainTo( world.getEffects() );
+		}
+	}
+
+	/**
+	 * Updates a range of partitions
+	 * @author lawrence.daniels@gmail.com
+	 */
+	@SuppressWarnings("serial")
+	private class UpdateTask extends RecursiveAction {
+		private final EntityWorld world;
+		private final Entity[] entities;
+		private final int count;
+		private final double ct;
+		private final int first;
+		private final int last;
+
+		/**
+		 * Creates a new update task
+		 * @param world the given {@link EntityWorld world}
+		 * @param entities the given array of {@link Entity entities}
+		 * @param count the number of entities
+		 * @param ct the given cycle time
+		 * @param first the first partition (inclusive)
+		 * @param last the last partition (exclusive)
+		 */
+		public UpdateTask( final EntityWorld world,
+						   final Entity[] entities,
+						   final int count,
+						   final double ct,
+						   final int first,
+						   final int last ) {
+			this.world		= world;
+			this.entities	= entities;
+			this.count		= count;
+			this.ct			= ct;
+			this.first		= first;
+			this.last		= last;
+		}
+
+		/* 
+		 * (non-Javadoc)
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		protected void compute() {
+			// split the range in two?
+			if( last - first > 1 ) {
+				final int middle = ( first + last ) >>> 1;
+				invokeAll( new UpdateTask( world, entities, count, ct, first, middle ),
+						   new UpdateTask( world, entities, count, ct, middle, last ) );
+				return;
+			}
+
+			// update the entities of the partition
+			final int start	= first * partitionSize;
+			final int end	= Math.min( start + partitionSize, count );
+			world.enterPartition( buffers[first] );
+			try {
+				for( int n = start; n < end; n++ ) {
+					entities[n].update( ct );
+				}
+			}
+			finally {
+				world.exitPartition();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,24 @@
+package com.ldaniels528.woozle;
+
+/**
+ * Updates each entity in turn on the calling thread
+ * @author lawrence.daniels@gmail.com
+ */
+public class SerialUpdateSystem implements UpdateSystem {
+
+	/* 
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.UpdateSystem#update(com.ldaniels528.woozle.EntityWorld, double)
+	 */
+	public void update( final EntityWorld world, final double ct ) {
+		// get the array of entities
+		final Entity[] entities = world.getEntities();
+		final int count = world.getEntityCount();
+		
+		// update all entities
+		for( int n = 0; n < count; n++ ) {
+			entities[n].update( ct );
+		}
+	}
+
+}
@@ -0,0 +1,146 @@
+package com.ldaniels528.woozle;
+
+import java.util.Arrays;
+
+/**
+ * Sort-and-sweep broadphase along the x-axis. The entity handles are
+ * kept in an array ordered by the left edges of their bounds; since the
+ * entities move only a little from one cycle to the next, the array is
+ * almost sorted at the start of each cycle, and an insertion sort puts
+ * it back in order in close to linear time. The sweep then only tests
+ * entities whose x-extents overlap.
+ * <p>The order is patched (rather than rebuilt) when entities are added
+ * to or removed from the world: stale handles are dropped and new ones
+ * are appended, to be sorted into place by the insertion sort.</p>
+ * @author lawrence.daniels@gmail.com
+ */
+public class SweepAndPruneBroadphase implements Broadphase {
+	// handles ordered by left edge, and their left edges
+	private int[] order;
+	private double[] keys;
+	private int size;
+
+	// used to detect new handles when patching the order
+	private int[] marks;
+	private int stamp;
+
+	// the world (and version of it) the order was built for
+	private EntityWorld world;
+	private int modificationCount;
+
+	/**
+	 * Default Constructor
+	 */
+	public SweepAndPruneBroadphase() {
+		this.order	= new int[ 64 ];
+		this.keys	= new double[ 64 ];
+		this.marks	= new int[ 64 ];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.Broadphase#findPairs(com.ldaniels528.woozle.EntityWorld)
+	 */
+	public void findPairs( final EntityWorld world ) {
+		// bring the order in line with the world's entities
+		if( ( world != this.world ) || ( world.getModificationCount() != modificationCount ) ) {
+			synchronize( world );
+		}
+
+		// get the bounds of the entities
+		final int[] indices		= world.getHandleIndices();
+		final boolean[] alive	= world.getAliveFlags();
+		final double[] minX		= world.getMinX();
+		final double[] minY		= world.getMinY();
+		final double[] maxX		= world.getMaxX();
+		final double[] maxY		= world.getMaxY();
+
+		// capture the left edges, and restore the order
+		for( int n = 0; n < size; n++ ) {
+			keys[n] = minX[ indices[ order[n] ] ];
+		}
+		insertionSort();
+
+		// sweep from left to right
+		for( int i = 0; i < size; i++ ) {
+			final int a = indices[ order[i] ];
+			for( int j = i + 1; ( j < size ) && alive[a] && ( keys[j] <= maxX[a] ); j++ ) {
+				final int b = indices[ order[j] ];
+				if( alive[b] && ( minY[a] <= maxY[b] ) && ( maxY[a] >= minY[b] ) ) {
+					world.collide( a, b );
+				}
+			}
+		}
+	}
+
+	/**
+	 * Restores the order of the handles by their left edges
+	 */
+	private void insertionSort() {
+		for( int i = 1; i < size; i++ ) {
+			final double key	= keys[i];
+			final int handle	= order[i];
+			int j = i - 1;
+			while( ( j >= 0 ) && ( keys[j] > key ) ) {
+				keys[j + 1]		= keys[j];
+				order[j + 1]	= order[j];
+				j--;
+			}
+			keys[j + 1]		= key;
+			order[j + 1]	= handle;
+		}
+	}
+
+	/**
+	 * Patches the order after entities have been added to or removed from the world
+	 * @param world the given {@link EntityWorld world}
+	 */
+	private void synchronize( final EntityWorld world ) {
+		// a different world starts from scratch
+		if( world != this.world ) {
+			this.world	= world;
+			this.size	= 0;
+		}
+
+		// get the handle mapping
+		final int[] indices		= world.getHandleIndices();
+		final int handleLimit	= world.getHandleLimit();
+
+		// make sure there's enough room
+		final int count = world.getEntityCount();
+		if( order.length < count ) {
+			final int capacity = Math.max( count, order.length * 2 );
+			order	= Arrays.copyOf( order, capacity );
+			keys	= new double[ capacity ];
+		}
+		if( marks.length < handleLimit ) {
+			marks = Arrays.copyOf( marks, Math.max( handleLimit, marks.length * 2 ) );
+		}
+
+		// start a new generation of marks
+		if( ++stamp == Integer.MAX_VALUE ) {
+			Arrays.fill( marks, 0 );
+			stamp = 1;
+		}
+
+		// drop the handles that are no longer in use (keeping the order of the rest)
+		int kept = 0;
+		for( int n = 0; n < size; n++ ) {
+			final int handle = order[n];
+			if( ( handle < handleLimit ) && ( indices[handle] != -1 ) && ( marks[handle] != stamp ) ) {
+				marks[handle]	= stamp;
+				order[kept++]	= handle;
+			}
+		}
+
+		// append the handles issued since the last cycle
+		for( int handle = 0; handle < handleLimit; handle++ ) {
+			if( ( indices[handle] != -1 ) && ( marks[handle] != stamp ) ) {
+				order[kept++] = handle;
+			}
+		}
+		size = kept;
+		modificationCount = world.getModificationCount();
+	}
+
+}
@@ -0,0 +1,109 @@
+package com.ldaniels528.woozle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the side effects (sounds, score changes and deferred actions)
+ * produced while a world is being updated, so that they can be applied
+ * in a deterministic order once the update is complete.
+ * @author lawrence.daniels@gmail.com
+ */
+public class TickEffects {
+	private final List<Object> sounds;
+	private final List<Runnable> actions;
+	private int score;
+
+	/**
+	 * Default Constructor
+	 */
+	public TickEffects() {
+		this.sounds		= new ArrayList<Object>();
+		this.actions	= new ArrayList<Runnable>();
+	}
+
+	/**
+	 * Queues the given action
+	 * @param action the given {@link Runnable action}
+	 */
+	public void defer( final Runnable action ) {
+		actions.add( action );
+	}
+
+	/**
+	 * Queues a sound by the sound key; each sound is played
+	 * at most once per cycle, however many times it is queued
+	 * @param soundKey the given sound key
+	 */
+	public void playSound( final Object soundKey ) {
+		if( !sounds.contains( soundKey ) ) {
+			sounds.add( soundKey );
+		}
+	}
+
+	/**
+	 * Adjusts the pending score by the given delta
+	 * @param delta the given delta
+	 */
+	public void adjustScore( final int delta ) {
+		score += delta;
+	}
+
+	/**
+	 * Indicates whether no effects have been collected
+	 * @return true, if no effects have been collected
+	 */
+	public boolean isEmpty() {
+		return sounds.isEmpty() && actions.isEmpty() && ( score == 0 );
+	}
+
+	/**
+	 * Moves the effects collected by this instance onto the end of the given effects
+	 * @param effects the given {@link TickEffects effects}
+	 */
+	public void drainTo( final TickEffects effects ) {
+		for( int n = 0; n < sounds.size(); n++ ) {
+			effects.playSound( sounds.get( n ) );
+		}
+		effects.actions.addAll( actions );
+		effects.score += score;
+		clear();
+	}
+
+	/**
+	 * Applies the collected effects: the score is adjusted,
+	 * the sounds are played, and then the actions are executed
+	 */
+	public void apply() {
+		// adjust the score
+		if( score != 0 ) {
+			SharedGameData.getInstance().adjustScore( score );
+			score = 0;
+		}
+
+		// play the sounds
+		if( !sounds.isEmpty() ) {
+			final SoundManager soundManager = SoundManager.getInstance();
+			for( int n = 0; n < sounds.size(); n++ ) {
+				soundManager.play( sounds.get( n ) );
+			}
+			sounds.clear();
+		}
+
+		// execute the actions (which may queue further actions)
+		for( int n = 0; n < actions.size(); n++ ) {
+			actions.get( n ).run();
+		}
+		actions.clear();
+	}
+
+	/**
+	 * Discards all collected effects
+	 */
+	public void clear() {
+		sounds.clear();
+		actions.clear();
+		score = 0;
+	}
+
+}
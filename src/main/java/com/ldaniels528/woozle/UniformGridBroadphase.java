@@ -0,0 +1,143 @@
+package com.ldaniels528.woozle;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid broadphase; each living entity is binned into the
+ * cells its bounds overlap (using a counting sort into flat arrays),
+ * and only the entities sharing a cell are tested against each other.
+ * A pair sharing several cells is only reported by the cell containing
+ * the top-left corner of their overlap.
+ * @author lawrence.daniels@gmail.com
+ */
+public class UniformGridBroadphase implements Broadphase {
+	// the default cell size
+	private static final double CELL_SIZE = 64;
+
+	// internal fields
+	private final double cellSize;
+	private int[] cellStart;
+	private int[] cellFill;
+	private int[] items;
+
+	/**
+	 * Default Constructor
+	 */
+	public UniformGridBroadphase() {
+		this( CELL_SIZE );
+	}
+
+	/**
+	 * Creates a new grid broadphase
+	 * @param cellSize the width and height of each cell
+	 */
+	public UniformGridBroadphase( final double cellSize ) {
+		this.cellSize	= cellSize;
+		this.cellStart	= new int[ 1 ];
+		this.cellFill	= new int[ 1 ];
+		this.items		= new int[ 64 ];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.Broadphase#findPairs(com.ldaniels528.woozle.EntityWorld)
+	 */
+	public void findPairs( final EntityWorld world ) {
+		// get the bounds of the entities
+		final int count			= world.getEntityCount();
+		final boolean[] alive	= world.getAliveFlags();
+		final double[] minX		= world.getMinX();
+		final double[] minY		= world.getMinY();
+		final double[] maxX		= world.getMaxX();
+		final double[] maxY		= world.getMaxY();
+
+		// determine the extents of the living entities
+		double left = Double.MAX_VALUE, top = Double.MAX_VALUE;
+		double right = -Double.MAX_VALUE, bottom = -Double.MAX_VALUE;
+		int living = 0;
+		for( int n = 0; n < count; n++ ) {
+			if( alive[n] ) {
+				if( minX[n] < left ) left = minX[n];
+				if( minY[n] < top ) top = minY[n];
+				if( maxX[n] > right ) right = maxX[n];
+				if( maxY[n] > bottom ) bottom = maxY[n];
+				living++;
+			}
+		}
+		if( living < 2 ) {
+			return;
+		}
+
+		// size the grid (widening the cells if the extents are huge)
+		final double extent = Math.max( right - left, bottom - top );
+		final double size = Math.max( Math.max( cellSize, extent / ( living * 4 ) ),
+									  Math.sqrt( ( right - left ) * ( bottom - top ) / ( living * 4 ) ) );
+		final double scale = 1d / size;
+		final int columns	= (int)( ( right - left ) * scale ) + 1;
+		final int rows		= (int)( ( bottom - top ) * scale ) + 1;
+		final int cells		= columns * rows;
+		if( cellStart.length < cells + 1 ) {
+			cellStart	= new int[ cells + 1 ];
+			cellFill	= new int[ cells + 1 ];
+		}
+
+		// count the entities per cell
+		Arrays.fill( cellStart, 0, cells + 1, 0 );
+		for( int n = 0; n < count; n++ ) {
+			if( alive[n] ) {
+				final int c0 = (int)( ( minX[n] - left ) * scale ), c1 = (int)( ( maxX[n] - left ) * scale );
+				final int r0 = (int)( ( minY[n] - top ) * scale ), r1 = (int)( ( maxY[n] - top ) * scale );
+				for( int r = r0; r <= r1; r++ ) {
+					for( int c = c0; c <= c1; c++ ) {
+						cellStart[ r * columns + c + 1 ]++;
+					}
+				}
+			}
+		}
+
+		// compute the starting offset of each cell
+		for( int cell = 0; cell < cells; cell++ ) {
+			cellStart[cell + 1] += cellStart[cell];
+		}
+		final int total = cellStart[cells];
+		if( items.length < total ) {
+			items = new int[ Math.max( total, items.length * 2 ) ];
+		}
+
+		// bin the entities
+		System.arraycopy( cellStart, 0, cellFill, 0, cells );
+		for( int n = 0; n < count; n++ ) {
+			if( alive[n] ) {
+				final int c0 = (int)( ( minX[n] - left ) * scale ), c1 = (int)( ( maxX[n] - left ) * scale );
+				final int r0 = (int)( ( minY[n] - top ) * scale ), r1 = (int)( ( maxY[n] - top ) * scale );
+				for( int r = r0; r <= r1; r++ ) {
+					for( int c = c0; c <= c1; c++ ) {
+						items[ cellFill[ r * columns + c ]++ ] = n;
+					}
+				}
+			}
+		}
+
+		// test the entities sharing each cell
+		for( int cell = 0; cell < cells; cell++ ) {
+			final int end = cellStart[cell + 1];
+			for( int i = cellStart[cell]; i < end; i++ ) {
+				final int a = items[i];
+				for( int j = i + 1; ( j < end ) && alive[a]; j++ ) {
+					final int b = items[j];
+					if( alive[b] &&
+						( minX[a] <= maxX[b] ) && ( maxX[a] >= minX[b] ) &&
+						( minY[a] <= maxY[b] ) && ( maxY[a] >= minY[b] ) ) {
+						// only the cell containing the corner of the overlap reports the pair
+						final int c = (int)( ( Math.max( minX[a], minX[b] ) - left ) * scale );
+						final int r = (int)( ( Math.max( minY[a], minY[b] ) - top ) * scale );
+						if( r * columns + c == cell ) {
+							world.collide( a, b );
+						}
+					}
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,17 @@
+package com.ldaniels528.woozle;
+
+/**
+ * Represents the system responsible for advancing the
+ * {@link Entity entities} of a world by a single cycle.
+ * @author lawrence.daniels@gmail.com
+ */
+public interface UpdateSystem {
+
+	/**
+	 * Updates all entities within the given world
+	 * @param world the given {@link EntityWorld world}
+	 * @param ct the given cycle time
+	 */
+	void update( EntityWorld world, double ct );
+
+}
@@ -1,8 +1,10 @@
 package com.ldaniels528.woozle.breakout;
 
-import com.ldaniels528.woozle.Randomizer;
+import com.ldaniels528.woozle.Entity;
+import com.ldaniels528.woozle.FixedPoint;
 
 import java.awt.*;
+import java.util.Random;
 
 import static com.ldaniels528.woozle.GameDisplayPane.BOARD_HEIGHT;
 import static com.ldaniels528.woozle.GameDisplayPane.BOARD_WIDTH;
@@ -14,15 +16,19 @@ import static java.awt.Color.WHITE;
  * @author lawrence.daniels@gmail.com
  */
 class Ball extends Entity {
-	private static final double INITIAL_SPEED 	=  4;
-	private static final double MAXIMUM_SPEED 	= 12;
-	private static final double SPEED_INCREMENT	=  0.075;
+	// speeds and boundaries (in 16.16 fixed-point)
+	private static final int INITIAL_SPEED 		= FixedPoint.toFixed( 4 );
+	private static final int MAXIMUM_SPEED 		= FixedPoint.toFixed( 12 );
+	private static final int SPEED_INCREMENT	= FixedPoint.toFixed( 0.075 );
+	private static final int EAST_WALL			= FixedPoint.toFixed( BOARD_WIDTH );
+	private static final int SOUTH_WALL			= FixedPoint.toFixed( BOARD_HEIGHT );
 	private int size;
 	private final BreakOutPlayingField playingField;
+	private final Runnable outOfBounds;
 	private Direction direction;
 	private double initialX;
 	private double initialY;
-	private double speed;
+	private int speed;
 	
 	/**
 	 * Creates a new ball instance
@@ -38,14 +44,19 @@ class Ball extends Entity {
 		this.initialX		= x;
 		this.initialY		= y;
 		this.playingField	= playingField;
-		this.direction 		= getRandomDirection( NE, NW );
+		this.direction 		= getRandomDirection( playingField.getRandom(), NE, NW );
 		this.speed			= INITIAL_SPEED;
 		this.size			= size;
+		this.outOfBounds	= new Runnable() {
+			public void run() {
+				playingField.outOfBounds();
+			}
+		};
 	}
 	
 	/* 
 	 * (non-Javadoc)
-	 * @see com.ldaniels528.woozle.breakout.Entity#handleCollsion(com.ldaniels528.woozle.breakout.Entity)
+	 * @see com.ldaniels528.woozle.Entity#handleCollsion(com.ldaniels528.woozle.Entity)
 	 */
 	public void handleCollsion( final Entity entity ) {
 		// redirect the ball's bearing
@@ -71,12 +82,12 @@ class Ball extends Entity {
 	
 	/* 
 	 * (non-Javadoc)
-	 * @see com.ldaniels528.woozle.breakout.Entity#render(java.awt.Graphics2D)
+	 * @see com.ldaniels528.woozle.Entity#render(java.awt.Graphics2D)
 	 */
 	public void render( final Graphics2D g ) {
 		// compute the center
-		final int cx = (int)x;
-		final int cy = (int)y;
+		final int cx = (int)renderX;
+		final int cy = (int)renderY;
 		
 		// draw the ball
 		g.setColor( WHITE );
@@ -85,24 +96,23 @@ class Ball extends Entity {
 	
 	/* 
 	 * (non-Javadoc)
-	 * @see com.ldaniels528.woozle.breakout.Entity#reset()
+	 * @see com.ldaniels528.woozle.Entity#reset()
 	 */
 	@Override
 	public void reset() {
-		this.x 			= initialX;
-		this.y			= initialY;
 		this.speed		= INITIAL_SPEED;
-		this.direction 	= getRandomDirection( NE, NW );
+		this.direction 	= getRandomDirection( playingField.getRandom(), NE, NW );
+		setPosition( initialX, initialY );
 	}
 	
 	/* 
 	 * (non-Javadoc)
-	 * @see com.ldaniels528.woozle.breakout.Entity#update(double)
+	 * @see com.ldaniels528.woozle.Entity#update(double)
 	 */
 	public void update( final double ct ) {
 		// compute the delta values
-		final double dx = speed * ct;
-		final double dy = speed * ct;
+		final int dx = FixedPoint.multiply( speed, FixedPoint.toFixed( ct ) );
+		final int dy = dx;
 		
 		// move the ball
 		switch( direction ) {
@@ -118,19 +128,18 @@ class Ball extends Entity {
 	 * @param dx the delta X value
 	 * @param dy the delta Y value
 	 */
-	private void moveNorthEast( final double dx, final double dy ) {
+	private void moveNorthEast( final int dx, final int dy ) {
 		// if the east wall is hit ..
-		if( x + dx >= BOARD_WIDTH ) {
+		if( getFixedX() + dx >= EAST_WALL ) {
 			direction = NW; 
 		}
 		// if the north wall is hit ..
-		if( y - dx <= 0 ) {
+		if( getFixedY() - dy <= 0 ) {
 			direction = SE; 
 		}
 		// move forward
 		else {
-			x += dx;
-			y -= dy;
+			translate( dx, -dy );
 		}
 	}
 	
@@ -139,19 +148,18 @@ class Ball extends Entity {
 	 * @param dx the delta X value
 	 * @param dy the delta Y value
 	 */
-	private void moveNorthWest( final double dx, final double dy ) {
+	private void moveNorthWest( final int dx, final int dy ) {
 		// if the west wall is hit ..
-		if( x - dx <= 0 ) {
+		if( getFixedX() - dx <= 0 ) {
 			direction = NE; 
 		}
 		// if the north wall is hit ..
-		if( y - dx <= 0 ) {
+		if( getFixedY() - dy <= 0 ) {
 			direction = SW;
 		}
 		// move forward
 		else {
-			x -= dx;
-			y -= dy;
+			translate( -dx, -dy );
 		}
 	}
 	
@@ -160,19 +168,18 @@ class Ball extends Entity {
 	 * @param dx the delta X value
 	 * @param dy the delta Y value
 	 */
-	private void moveSouthEast( final double dx, final double dy ) {
+	private void moveSouthEast( final int dx, final int dy ) {
 		// if the east wall is hit ..
-		if( x + dx >= BOARD_WIDTH ) {
+		if( getFixedX() + dx >= EAST_WALL ) {
 			direction = SW;
 		}
 		// if the south wall is hit ..
-		if( y + dx >= BOARD_HEIGHT ) {
-			playingField.outOfBounds();
+		if( getFixedY() + dy >= SOUTH_WALL ) {
+			playingField.defer( outOfBounds );
 		}
 		// move forward
 		else {
-			x += dx;
-			y += dy;
+			translate( dx, dy );
 		}
 	}
 	
@@ -181,29 +188,29 @@ class Ball extends Entity {
 	 * @param dx the delta X value
 	 * @param dy the delta Y value
 	 */
-	private void moveSouthWest( final double dx, final double dy ) {
+	private void moveSouthWest( final int dx, final int dy ) {
 		// if the west wall is hit ..
-		if( x - dx <= 0 ) {
+		if( getFixedX() - dx <= 0 ) {
 			direction = SE; 
 		}
 		// if the south wall is hit ..
-		if( y + dx >= BOARD_HEIGHT ) {
-			playingField.outOfBounds();
+		if( getFixedY() + dy >= SOUTH_WALL ) {
+			playingField.defer( outOfBounds );
 		}
 		// move forward
 		else {
-			x -= dx;
-			y += dy;
+			translate( -dx, dy );
 		}
 	}
 	
 	/** 
 	 * Returns a random direction
+	 * @param random the given {@link Random random number generator}
 	 * @param directions the array of {@link Direction directions} available for return
 	 * @return the random {@link Direction direction}
 	 */
-	private static Direction getRandomDirection( final Direction... directions ) {
-		final int index = Randomizer.getInstance().nextInt( Integer.MAX_VALUE ) % directions.length;
+	private static Direction getRandomDirection( final Random random, final Direction... directions ) {
+		final int index = random.nextInt( Integer.MAX_VALUE ) % directions.length;
 		return directions[ index ];
 	}
 
@@ -1,6 +1,6 @@
 package com.ldaniels528.woozle.breakout;
 
-import com.ldaniels528.woozle.SoundManager;
+import com.ldaniels528.woozle.Entity;
 
 import java.awt.*;
 
@@ -11,6 +11,7 @@ import java.awt.*;
 class Block extends Entity implements Scoreable {
 	private final BreakOutPlayingField playingField;
 	private final Color color;
+	private final int points;
 
 	/** 
 	 * Creates a new block
@@ -19,24 +20,29 @@ class Block extends Entity implements Scoreable {
 	 * @param y the given y-axis coordinate
 	 * @param width the given width of the block
 	 * @param height the given height of the block
+	 * @param color the given color of the block
+	 * @param points the number of points scored for the block
 	 */
 	public Block( final BreakOutPlayingField playingField, 
 				  final double x, 
 				  final double y, 
 				  final double width,
-				  final double height, final Color color ) {
+				  final double height, 
+				  final Color color,
+				  final int points ) {
 		super( x, y, width, height );
 		this.playingField	= playingField;
 		this.color 			= color;
+		this.points			= points;
 	}
 
 	/* 
 	 * (non-Javadoc)
-	 * @see com.ldaniels528.woozle.breakout.Entity#handleCollsion(com.ldaniels528.woozle.breakout.Entity)
+	 * @see com.ldaniels528.woozle.Entity#handleCollsion(com.ldaniels528.woozle.Entity)
 	 */
 	@Override
 	public void handleCollsion( final Entity entity ) {
-		SoundManager.getInstance().play( BreakOutSoundKeys.BOUNCE );
+		playingField.playSound( BreakOutSoundKeys.BOUNCE );
 		playingField.score( this );
 		playingField.blockDied();
 		die();
@@ -44,17 +50,17 @@ class Block extends Entity implements Scoreable {
 
 	/* 
 	 * (non-Javadoc)
-	 * @see com.ldaniels528.woozle.breakout.Entity#render(java.awt.Graphics2D)
+	 * @see com.ldaniels528.woozle.Entity#render(java.awt.Graphics2D)
 	 */
 	@Override
 	public void render( final Graphics2D g ) {
 		g.setColor( color );
-		g.fill3DRect( (int)x, (int)y, (int)width, (int)height, true );
+		g.fill3DRect( (int)renderX, (int)renderY, (int)width, (int)height, true );
 	}
 	
 	/* 
 	 * (non-Javadoc)
-	 * @see com.ldaniels528.woozle.breakout.Entity#reset()
+	 * @see com.ldaniels528.woozle.Entity#reset()
 	 */
 	@Override
 	public void reset() {
@@ -63,7 +69,7 @@ class Block extends Entity implements Scoreable {
 
 	/* 
 	 * (non-Javadoc)
-	 * @see com.ldaniels528.woozle.breakout.Entity#update(double)
+	 * @see com.ldaniels528.woozle.Entity#update(double)
 	 */
 	@Override
 	public void update( final double ct ) {
@@ -75,7 +81,7 @@ class Block extends Entity implements Scoreable {
 	 * @see com.ldaniels528.woozle.breakout.Scoreable#getScorePoints()
 	 */
 	public int getScorePoints() {
-		return 5;
+		return points;
 	}
 
 }
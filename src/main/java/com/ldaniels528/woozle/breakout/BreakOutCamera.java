@@ -1,6 +1,7 @@
 package com.ldaniels528.woozle.breakout;
 
 import com.ldaniels528.woozle.Camera;
+import com.ldaniels528.woozle.Entity;
 import com.ldaniels528.woozle.GameDisplayPane;
 import com.ldaniels528.woozle.SharedGameData;
 
@@ -64,8 +65,9 @@ class BreakOutCamera extends Camera {
 		
 		// render the entities
 		final Entity[] entities = playingField.getEntities();
-		for( final Entity entity : entities ) {
-			entity.render( offScreen );
+		final int count = playingField.getEntityCount();
+		for( int n = 0; n < count; n++ ) {
+			entities[n].render( offScreen );
 		}
 		
 		// render the messages
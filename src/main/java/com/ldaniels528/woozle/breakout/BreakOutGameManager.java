@@ -14,6 +14,8 @@ import static java.awt.Color.WHITE;
 public class BreakOutGameManager extends GameManager {
 	private final BreakOutPlayingField playingField;
 	private final BreakOutCamera camera;
+	private final FixedStepClock clock;
+	private boolean levelPrefetched;
 	
 	/**
 	 * Creates a new game manager instance
@@ -22,6 +24,7 @@ public class BreakOutGameManager extends GameManager {
 	public BreakOutGameManager( final GameDisplayPane displayPane ) {
 		this.playingField	= new BreakOutPlayingField( this );
 		this.camera			= new BreakOutCamera( displayPane );
+		this.clock			= new FixedStepClock();
 		
 		// load the audio samples
 		soundManager.loadAudioSample( 	"/breakout/audio/bounce.wav", 		BreakOutSoundKeys.BOUNCE );
@@ -49,10 +52,15 @@ public class BreakOutGameManager extends GameManager {
 				camera.setMessage( new InGameMessage( "Get Ready!", WHITE, 2000 ) );
 				break;
 				
+			case PLAYING:
+				clock.reset();
+				break;
+				
 			case LEVEL_CHANGE:
 				camera.setMessage( new InGameMessage( "Great Job!", WHITE, 2000 ) );
 				SharedGameData.getInstance().levelUp();
 				playingField.setupLevel();
+				levelPrefetched = false;
 				break;
 				
 			case LEVEL_RESET:
@@ -161,10 +169,22 @@ public class BreakOutGameManager extends GameManager {
 	 * Handles the "Playing" game state
 	 */
 	private void handleGamePlaying() {
+		// deterministic physics advances in whole, fixed-length steps,
+		// and is rendered part of the way between the last two steps
+		if( playingField.isFixedPoint() ) {
+			for( int steps = clock.advance(); ( steps > 0 ) && ( gameState == GameState.PLAYING ); steps-- ) {
+				playingField.update( clock.getCycleTime() );
+			}
+			playingField.interpolate( clock.getAlpha() );
+			camera.renderScene( this, playingField );
+			return;
+		}
+		
 		// capture the start time
 		final long startTime = System.currentTimeMillis();
 		
 		// render the scene
+		playingField.interpolate( 1 );
 		camera.renderScene( this, playingField );
 		
 		// capture the rendering time
@@ -180,6 +200,12 @@ public class BreakOutGameManager extends GameManager {
 	 * Handles the 'Level Change' game state
 	 */
 	private void handleLevelChange() {
+		// decode the following level during the pause (not in the frame that started it)
+		if( !levelPrefetched ) {
+			playingField.prefetchLevel( SharedGameData.getInstance().getLevel() + 1 );
+			levelPrefetched = true;
+		}
+		
 		if( System.currentTimeMillis() - gameStateChangeTime >= 2000 ) {
 			changeGameState( GameState.STARTING );
 		}
@@ -0,0 +1,184 @@
+package com.ldaniels528.woozle.breakout;
+
+import java.awt.*;
+import java.nio.ByteBuffer;
+
+import static com.ldaniels528.woozle.CustomColors.LIGHT_GREEN;
+import static com.ldaniels528.woozle.GameDisplayPane.BOARD_WIDTH;
+import static java.awt.Color.*;
+
+/**
+ * Represents the block layout of a Break-Out level. A layout is a grid
+ * of cells, each of which is either empty or holds a block of one of the
+ * {@link #PALETTE palette} colors.
+ * <p>Binary form (big-endian): columns, rows, block width, block height,
+ * top offset and points per block as 16-bit values, followed by one byte
+ * per cell (row by row); 0 is an empty cell, otherwise the palette index
+ * plus one.</p>
+ * @author lawrence.daniels@gmail.com
+ */
+class BreakOutLevel {
+	// the block colors
+	public static final Color[] PALETTE = new Color[] {
+		MAGENTA, ORANGE, YELLOW, LIGHT_GREEN, GREEN,
+	};
+
+	// the size of the header of the binary form
+	public static final int HEADER_SIZE = 12;
+
+	// internal fields
+	private final int columns;
+	private final int rows;
+	private final int blockWidth;
+	private final int blockHeight;
+	private final int top;
+	private final int points;
+	private final byte[] cells;
+
+	/**
+	 * Creates a new level layout
+	 * @param columns the number of block columns
+	 * @param rows the number of block rows
+	 * @param blockWidth the width of each block
+	 * @param blockHeight the height of each block
+	 * @param top the distance from the top of the screen to the first block
+	 * @param points the number of points scored per block
+	 * @param cells the cells of the grid (row by row)
+	 */
+	public BreakOutLevel( final int columns,
+						  final int rows,
+						  final int blockWidth,
+						  final int blockHeight,
+						  final int top,
+						  final int points,
+						  final byte[] cells ) {
+		this.columns		= columns;
+		this.rows			= rows;
+		this.blockWidth		= blockWidth;
+		this.blockHeight	= blockHeight;
+		this.top			= top;
+		this.points			= points;
+		this.cells			= cells;
+	}
+
+	/**
+	 * Creates a layout that fills the width of the board,
+	 * with the block colors repeating from column to column
+	 * @param rows the number of block rows
+	 * @param blockWidth the width of each block
+	 * @param blockHeight the height of each block
+	 * @param top the distance from the top of the screen to the first block
+	 * @param points the number of points scored per block
+	 * @return the {@link BreakOutLevel level layout}
+	 */
+	public static BreakOutLevel createGrid( final int rows,
+											final int blockWidth,
+											final int blockHeight,
+											final int top,
+											final int points ) {
+		final int columns = BOARD_WIDTH / blockWidth;
+		final byte[] cells = new byte[ columns * rows ];
+		for( int row = 0, n = 0; row < rows; row++ ) {
+			for( int col = 0; col < columns; col++ ) {
+				cells[n++] = (byte)( ( col % PALETTE.length ) + 1 );
+			}
+		}
+		return new BreakOutLevel( columns, rows, blockWidth, blockHeight, top, points, cells );
+	}
+
+	/**
+	 * Returns the built-in layouts (used when no level pack is available)
+	 * @return the built-in {@link BreakOutLevel level layouts}
+	 */
+	public static BreakOutLevel[] createDefaultLevels() {
+		return new BreakOutLevel[] {
+			createGrid( 10, 50, 25, 25, 5 ),
+			createGrid(  6, 25, 15, 25, 5 ),
+			createGrid(  8, 25, 10, 25, 5 )
+		};
+	}
+
+	/**
+	 * Decodes a layout from the current position of the given buffer
+	 * @param buffer the given {@link ByteBuffer buffer}
+	 * @return the {@link BreakOutLevel level layout}
+	 */
+	public static BreakOutLevel decode( final ByteBuffer buffer ) {
+		// read the header
+		final int columns		= buffer.getShort() & 0xFFFF;
+		final int rows			= buffer.getShort() & 0xFFFF;
+		final int blockWidth	= buffer.getShort() & 0xFFFF;
+		final int blockHeight	= buffer.getShort() & 0xFFFF;
+		final int top			= buffer.getShort() & 0xFFFF;
+		final int points		= buffer.getShort() & 0xFFFF;
+
+		// read the cells
+		final byte[] cells = new byte[ columns * rows ];
+		buffer.get( cells );
+		return new BreakOutLevel( columns, rows, blockWidth, blockHeight, top, points, cells );
+	}
+
+	/**
+	 * Encodes the layout into the given buffer
+	 * @param buffer the given {@link ByteBuffer buffer}
+	 */
+	public void encode( final ByteBuffer buffer ) {
+		buffer.putShort( (short)columns );
+		buffer.putShort( (short)rows );
+		buffer.putShort( (short)blockWidth );
+		buffer.putShort( (short)blockHeight );
+		buffer.putShort( (short)top );
+		buffer.putShort( (short)points );
+		buffer.put( cells );
+	}
+
+	/**
+	 * Returns the size of the binary form of the layout
+	 * @return the size in bytes
+	 */
+	public int getEncodedSize() {
+		return HEADER_SIZE + cells.length;
+	}
+
+	/**
+	 * Returns the number of blocks in the layout
+	 * @return the number of blocks
+	 */
+	public int getBlockCount() {
+		int count = 0;
+		for( final byte cell : cells ) {
+			if( cell != 0 ) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Creates the blocks described by the layout
+	 * @param playingField the given {@link BreakOutPlayingField playing field}
+	 * @return an array of {@link Block blocks}
+	 */
+	public Block[] createBlocks( final BreakOutPlayingField playingField ) {
+		// create the blocks array
+		final Block[] blocks = new Block[ getBlockCount() ];
+
+		// create the blocks
+		for( int row = 0, n = 0, cell = 0; row < rows; row++ ) {
+			for( int col = 0; col < columns; col++, cell++ ) {
+				final int color = cells[cell] & 0xFF;
+				if( color != 0 ) {
+					blocks[n++] = new Block( playingField,
+											 col * blockWidth,
+											 row * blockHeight + top,
+											 blockWidth-1,
+											 blockHeight-1,
+											 PALETTE[ ( color - 1 ) % PALETTE.length ],
+											 points );
+				}
+			}
+		}
+		return blocks;
+	}
+
+}
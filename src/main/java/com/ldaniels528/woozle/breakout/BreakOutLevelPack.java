@@ -0,0 +1,238 @@
+package com.ldaniels528.woozle.breakout;
+
+import com.ldaniels528.woozle.Logger;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * Represents a pack of Break-Out {@link BreakOutLevel level layouts}.
+ * The pack is read either from the local file ($USER_HOME/WooZle.levels)
+ * or from the Java Archive (JAR); files are memory-mapped, so only the
+ * pages of the levels actually played are ever read. Layouts are decoded
+ * lazily, and only the most recently used ones are kept.
+ * <p>Binary form (big-endian): the magic number 'WZLV', the format version
+ * and the number of levels (16-bit), a table holding the offset of each
+ * level (32-bit), followed by the levels themselves.</p>
+ * @author lawrence.daniels@gmail.com
+ */
+class BreakOutLevelPack {
+	public static final String PACK_NAME = "WooZle.levels";
+	private static final int MAGIC		= 0x575A4C56; // WZLV
+	private static final int VERSION	= 1;
+	private static final int CACHE_SIZE	= 4;
+
+	// internal fields
+	private final ByteBuffer buffer;
+	private final int levelCount;
+	private final Map<Integer, BreakOutLevel> cache;
+
+	/**
+	 * Creates a new level pack
+	 * @param buffer the given {@link ByteBuffer buffer} containing the pack
+	 * @throws IOException if the buffer does not contain a level pack
+	 */
+	public BreakOutLevelPack( final ByteBuffer buffer )
+	throws IOException {
+		this.buffer = buffer;
+
+		// verify the header
+		if( buffer.getInt( 0 ) != MAGIC ) {
+			throw new IOException( "Not a level pack" );
+		}
+		if( buffer.getShort( 4 ) != VERSION ) {
+			throw new IOException( format( "Unsupported level pack version %d", buffer.getShort( 4 ) ) );
+		}
+		this.levelCount = buffer.getShort( 6 ) & 0xFFFF;
+		if( levelCount == 0 ) {
+			throw new IOException( "The level pack is empty" );
+		}
+
+		// keep only the most recently used layouts
+		this.cache = new LinkedHashMap<Integer, BreakOutLevel>( CACHE_SIZE * 2, 0.75f, true ) {
+			private static final long serialVersionUID = 1L;
+
+			protected boolean removeEldestEntry( final Map.Entry<Integer, BreakOutLevel> eldest ) {
+				return size() > CACHE_SIZE;
+			}
+		};
+	}
+
+	/**
+	 * Loads the level pack either locally ($USER_HOME/WooZle.levels)
+	 * or from the Java Archive (JAR)
+	 * @return the {@link BreakOutLevelPack level pack}
+	 * @throws IOException
+	 */
+	public static BreakOutLevelPack load()
+	throws IOException {
+		// is there a local file?
+		final File localFile = getLocalPackFile();
+		if( localFile.exists() ) {
+			return new BreakOutLevelPack( map( localFile ) );
+		}
+
+		// map the resource if it's a plain file, otherwise read it
+		final URL url = BreakOutLevelPack.class.getResource( format( "/breakout/data/%s", PACK_NAME ) );
+		if( url == null ) {
+			throw new FileNotFoundException( PACK_NAME );
+		}
+		if( "file".equals( url.getProtocol() ) ) {
+			try {
+				return new BreakOutLevelPack( map( new File( url.toURI() ) ) );
+			}
+			catch( final URISyntaxException e ) {
+				throw new IOException( e.getMessage() );
+			}
+		}
+		return new BreakOutLevelPack( read( url.openStream() ) );
+	}
+
+	/**
+	 * Returns the number of levels in the pack
+	 * @return the number of levels
+	 */
+	public int getLevelCount() {
+		return levelCount;
+	}
+
+	/**
+	 * Returns the layout of the given level; levels beyond
+	 * the end of the pack repeat the last layout
+	 * @param level the given level number (starting at 1)
+	 * @return the {@link BreakOutLevel level layout}
+	 */
+	public BreakOutLevel getLevel( final int level ) {
+		final int index = Math.max( 0, Math.min( level, levelCount ) - 1 );
+		BreakOutLevel layout = cache.get( index );
+		if( layout == null ) {
+			final ByteBuffer view = buffer.duplicate();
+			view.position( buffer.getInt( 8 + index * 4 ) );
+			layout = BreakOutLevel.decode( view );
+			cache.put( index, layout );
+		}
+		return layout;
+	}
+
+	/**
+	 * Decodes the layout of the given level ahead of time,
+	 * so that setting up the level costs nothing
+	 * @param level the given level number (starting at 1)
+	 */
+	public void prefetch( final int level ) {
+		getLevel( level );
+	}
+
+	/**
+	 * Writes the given layouts as a level pack
+	 * @param levels the given {@link BreakOutLevel level layouts}
+	 * @param out the given {@link OutputStream output stream}
+	 * @throws IOException
+	 */
+	public static void write( final BreakOutLevel[] levels, final OutputStream out )
+	throws IOException {
+		// compute the size of the pack
+		final int tableSize = 8 + levels.length * 4;
+		int size = tableSize;
+		for( final BreakOutLevel level : levels ) {
+			size += level.getEncodedSize();
+		}
+
+		// write the header and offset table
+		final ByteBuffer buffer = ByteBuffer.allocate( size );
+		buffer.putInt( MAGIC );
+		buffer.putShort( (short)VERSION );
+		buffer.putShort( (short)levels.length );
+		int offset = tableSize;
+		for( final BreakOutLevel level : levels ) {
+			buffer.putInt( offset );
+			offset += level.getEncodedSize();
+		}
+
+		// write the levels
+		for( final BreakOutLevel level : levels ) {
+			level.encode( buffer );
+		}
+		out.write( buffer.array() );
+	}
+
+	/**
+	 * Returns the local level pack file
+	 * @return the local level pack {@link File file}
+	 */
+	public static File getLocalPackFile() {
+		return new File( format( "%s%s%s",
+				System.getProperty( "user.home" ),
+				File.separator,
+				PACK_NAME ) );
+	}
+
+	/**
+	 * Memory-maps the given file
+	 * @param file the given {@link File file}
+	 * @return the {@link MappedByteBuffer mapped buffer}
+	 * @throws IOException
+	 */
+	private static MappedByteBuffer map( final File file )
+	throws IOException {
+		final RandomAccessFile raf = new RandomAccessFile( file, "r" );
+		try {
+			final FileChannel channel = raf.getChannel();
+			return channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+		}
+		finally {
+			// the mapping remains valid after the file is closed
+			raf.close();
+		}
+	}
+
+	/**
+	 * Reads the given stream into a buffer
+	 * @param in the given {@link InputStream input stream}
+	 * @return the {@link ByteBuffer buffer}
+	 * @throws IOException
+	 */
+	private static ByteBuffer read( final InputStream in )
+	throws IOException {
+		try {
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			final byte[] block = new byte[ 4096 ];
+			int count;
+			while( ( count = in.read( block ) ) != -1 ) {
+				out.write( block, 0, count );
+			}
+			return ByteBuffer.wrap( out.toByteArray() );
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Generates the default level pack
+	 * @param args the given command line arguments: [output file]
+	 * @throws IOException
+	 */
+	public static void main( final String[] args )
+	throws IOException {
+		final File file = ( args.length > 0 ) ? new File( args[0] ) : getLocalPackFile();
+		final OutputStream out = new FileOutputStream( file );
+		try {
+			final BreakOutLevel[] levels = BreakOutLevel.createDefaultLevels();
+			write( levels, out );
+			Logger.info( "Wrote %d levels to '%s'\n", levels.length, file.getAbsolutePath() );
+		}
+		finally {
+			out.close();
+		}
+	}
+
+}
@@ -1,46 +1,34 @@
 package com.ldaniels528.woozle.breakout;
 
+import com.ldaniels528.woozle.EntityWorld;
 import com.ldaniels528.woozle.GameState;
+import com.ldaniels528.woozle.Logger;
 import com.ldaniels528.woozle.SharedGameData;
 
-import java.awt.*;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
 
-import static com.ldaniels528.woozle.CustomColors.LIGHT_GREEN;
 import static com.ldaniels528.woozle.GameDisplayPane.BOARD_HEIGHT;
 import static com.ldaniels528.woozle.GameDisplayPane.BOARD_WIDTH;
 import static com.ldaniels528.woozle.GameState.GAME_OVER;
 import static com.ldaniels528.woozle.GameState.OUT_OF_BOUNDS;
-import static java.awt.Color.*;
 
 /**
  * This class represents the virtual playing field for Break-Out
  * @author lawrence.daniels@gmail.com
  */
-class BreakOutPlayingField {
+class BreakOutPlayingField extends EntityWorld {
 	// the maximum number of entities
 	private static final int MAX_ENTITIES = 300;
 	
-	// the distance from the top of the screen to the first block
-	private static final int OFFSET = 25;
-	
-	// the block colors
-	private static final Color[] COLORS = new Color[] {
-		MAGENTA, ORANGE, YELLOW, LIGHT_GREEN, GREEN,  
-	};
-	
 	// internal fields
 	private final BreakOutGameManager gameManager;
 	private final SharedGameData gameData;
-	private final Set<Entity> entitySet;
-	private final Set<Entity> addQueue;
-	private final Set<Entity> removeQueue;
 	private final Paddle paddle;
 	private final Ball ball;
-	private Entity[] entityCache;
-	private boolean dirtyCache;
+	private final Runnable levelCompleted;
+	private final BreakOutLevelPack levels;
 	private int spareBalls;
 	private int blockCount;
 
@@ -48,69 +36,34 @@ class BreakOutPlayingField {
 	 * Default Constructor
 	 */
 	public BreakOutPlayingField( final BreakOutGameManager gameManager ) {
+		super( MAX_ENTITIES );
 		this.gameManager	= gameManager;
-		this.entitySet		= new HashSet<Entity>( MAX_ENTITIES );
-		this.addQueue		= new HashSet<Entity>( MAX_ENTITIES );
-		this.removeQueue	= new HashSet<Entity>( MAX_ENTITIES );
 		this.gameData		= SharedGameData.getInstance();
-		this.paddle 		= new Paddle( BOARD_WIDTH / 2.0, BOARD_HEIGHT - 20, 100, 15 );
+		this.paddle 		= new Paddle( this, BOARD_WIDTH / 2.0, BOARD_HEIGHT - 20, 100, 15 );
 		this.ball			= new Ball( this, BOARD_WIDTH / 2.0, BOARD_HEIGHT - 40, 20 );
 		this.spareBalls		= 3;
-		this.dirtyCache		= true;
-	}
-	
-	/**
-	 * Adds the given entity
-	 * @param entity the given {@link Entity entity}
-	 */
-	public void add( final Entity entity ) {
-		synchronized( addQueue ) {
-			addQueue.add( entity );
-			this.dirtyCache = true;
-		}
-	}
-	
-	/**
-	 * Adds the given array of entities
-	 * @param entities the given array of {@link Entity entities}
-	 */
-	public void addAll( final Entity[] entities ) {
-		synchronized( addQueue ) {
-			addQueue.addAll( Arrays.asList( entities ) );
-			this.dirtyCache = true;
-		}
+		this.levels			= loadLevels();
+		this.levelCompleted	= new Runnable() {
+			public void run() {
+				gameManager.changeGameState( GameState.LEVEL_CHANGE );
+			}
+		};
 	}
 	
 	/**
-	 * Removes the given entity
-	 * @param entity the given {@link Entity entity}
+	 * Setup the playing field
 	 */
-	public void remove( final Entity entity ) {
-		synchronized( removeQueue ) {
-			removeQueue.add( entity );
-			this.dirtyCache = true;
-		}
+	public void setupLevel() {
+		setupLevel( levels.getLevel( gameData.getLevel() ), 1 );
 	}
 	
 	/**
-	 * Removes all entities from the virtual playing field
-	 */
-	public void removeAllEntities() {
-		synchronized( addQueue ) {
-			synchronized( removeQueue ) {
-				synchronized( entitySet ) {
-					addQueue.clear();
-					removeQueue.clear();
-					entitySet.clear();
-				}
-			}
-		}
-	}
-
-	/**
-	 * Setup the playing field
+	 * Setup the playing field using the given layout and number of balls;
+	 * used to build stress scenarios far larger than any regular level
+	 * @param layout the given {@link BreakOutLevel level layout}
+	 * @param balls the number of balls in play (at least one)
 	 */
-	public void setupLevel() {
+	public void setupLevel( final BreakOutLevel layout, final int balls ) {
 		// clear the virtual playing field
 		removeAllEntities();
 		
@@ -118,19 +71,13 @@ class BreakOutPlayingField {
 		this.add( paddle );
 		this.add( ball );
 		
-		// get the current level
-		final int level = SharedGameData.getInstance().getLevel();
+		// any additional balls are spread evenly across the board
+		for( int n = 1; n < balls; n++ ) {
+			this.add( new Ball( this, ( BOARD_WIDTH * n ) / (double)balls, BOARD_HEIGHT - 40, 20 ) );
+		}
 		
 		// create the blocks
-		Block[] blocks = null;
-		switch( level ) {
-			case 1:
-				int blockWith = 50;
-				int blockHeight = 25;
-				blocks = setupBlocks( BOARD_WIDTH / blockWith, 10, blockWith, blockHeight ); break;
-			case 2: 	blocks = setupBlocks( BOARD_WIDTH / 25, 6, 25, 15 ); break;
-			default: 	blocks = setupBlocks( BOARD_WIDTH / 25, 8, 25, 10 );
-		}
+		final Block[] blocks = layout.createBlocks( this );
 		
 		// reset the entities
 		resetEntities();
@@ -143,41 +90,11 @@ class BreakOutPlayingField {
 	}
 	
 	/**
-	 * Resets the game after an 'Out of Bounds' event
+	 * Decodes the layout of the given level ahead of time
+	 * @param level the given level number
 	 */
-	public void resetEntities() {
-		// get the entities
-		final Entity[] entities = getEntities();
-		
-		// reset all living entities
-		for( final Entity entity : entities ) {
-			if( entity.isAlive() ) {
-				entity.reset();
-			}
-		}
-	}
-	
-	/**
-	 * Returns the array of entities
-	 * @return the array of entities
-	 */
-	public Entity[] getEntities() {
-		// remove dead entities
-		removeDeadEntities();
-
-		// add new entities
-		addNewEntities();
-		
-		// if the cache is dirty, refresh it...
-		if( dirtyCache || ( entityCache == null ) ) {
-			synchronized( entitySet ) {
-				entityCache = entitySet.toArray( new Entity[ entitySet.size() ] );
-			}
-			dirtyCache = false;
-		}
-		
-		// return the cached entities
-		return entityCache;
+	public void prefetchLevel( final int level ) {
+		levels.prefetch( level );
 	}
 	
 	/** 
@@ -202,7 +119,8 @@ class BreakOutPlayingField {
 	public void blockDied() {
 		blockCount --;
 		if( blockCount == 0 ) {
-			gameManager.changeGameState( GameState.LEVEL_CHANGE );
+			// the level changes once the current cycle is complete
+			defer( levelCompleted );
 		}
 	}
 	
@@ -211,7 +129,7 @@ class BreakOutPlayingField {
 	 * @param position the given position
 	 */
 	public void movePaddle( final double position ) {
-		paddle.x = position;
+		paddle.setPosition( position, paddle.getY() );
 	}
 	
 	/**
@@ -230,108 +148,27 @@ class BreakOutPlayingField {
 	 * @param entity the given {@link Scoreable entity}
 	 */
 	public void score( final Scoreable entity ) {
-		// adjust the score
-		gameData.adjustScore( entity.getScorePoints() );
+		// adjust the score (at the end of the current cycle)
+		adjustScore( entity.getScorePoints() );
 	}
 	
 	/**
-	 * Updates the playing field
-	 * @param ct the given cycle time
+	 * Loads the level pack, falling back to the built-in layouts
+	 * @return the {@link BreakOutLevelPack level pack}
 	 */
-	public void update( final double ct ) {		
-		// get the array of entities
-		final Entity[] entities = getEntities();
-		
-		// update all entities
-		for( final Entity entity : entities ) {
-			entity.update( ct );
+	private static BreakOutLevelPack loadLevels() {
+		try {
+			return BreakOutLevelPack.load();
 		}
-		
-		// check for collisions
-		for( final Entity entityA : entities ) {
-			for( final Entity entityB : entities ) {
-				if( ( entityA != entityB ) && entityA.isAlive() && entityB.isAlive() ) {
-					if( entityA.intersects( entityB ) ) {
-						// allow each entity to handle the collision
-						entityA.handleCollsion( entityB );
-						entityB.handleCollsion( entityA );
-						
-						// did entity A die?
-						if( !entityA.isAlive() ) {
-							remove( entityA );
-						}
-						
-						// did entity B die?
-						if( !entityB.isAlive() ) {
-							remove( entityB );
-						}
-					}
-				}
+		catch( final IOException e ) {
+			Logger.error( "Level pack could not be loaded: %s\n", e.getMessage() );
+			try {
+				final ByteArrayOutputStream out = new ByteArrayOutputStream();
+				BreakOutLevelPack.write( BreakOutLevel.createDefaultLevels(), out );
+				return new BreakOutLevelPack( ByteBuffer.wrap( out.toByteArray() ) );
 			}
-		}
-	}
-	
-	/** 
-	 * Sets up a grid of blocks
-	 * @param columns the number of block columns
-	 * @param rows the number of block rows
-	 * @param width the width of each block
-	 * @param height the height of each block
-	 * @return an array of {@link Block blocks}
-	 */
-	private Block[] setupBlocks( final int columns, 
-							  	 final int rows, 
-							  	 final int width,	
-							  	 final int height ) {
-		// create the blocks array
-		final Block[] blocks = new Block[ rows * columns ];
-		
-		// create the blocks
-		for( int row = 0, n = 0; row < rows; row++ ) {
-			for( int col = 0; col < columns; col++ ) {
-				final Block block = 
-					new Block( this, 
-							   col * width, 
-							   row * height + OFFSET, 
-							   width-1, 
-							   height-1, 
-							   COLORS[col % COLORS.length] );
-				blocks[n++] = block;
-			}
-		}
-		return blocks;
-	}
-
-	/** 
-	 * Removes dead entities
-	 */
-	private void removeDeadEntities() {
-		synchronized( removeQueue ) {
-			// if the remove queue is not empty ...
-			if( !removeQueue.isEmpty() ) {
-				// remove the entities
-				synchronized( entitySet ) {
-					entitySet.removeAll( removeQueue );
-				}
-				removeQueue.clear();
-				this.dirtyCache = true;
-			}
-		}
-	}
-	
-	/** 
-	 * Adds new entities
-	 */
-	private void addNewEntities() {
-		synchronized( addQueue ) {
-			// if the add queue is not empty ...
-			if( !addQueue.isEmpty() ) {
-				// add the new entities
-				synchronized( entitySet ) {
-					entitySet.addAll( addQueue );
-				}
-				addQueue.clear();
-				this.dirtyCache = true;
+			catch( final IOException cause ) {
+				throw new IllegalStateException( cause );
 			}
 		}
 	}
@@ -1,6 +1,6 @@
 package com.ldaniels528.woozle.breakout;
 
-import com.ldaniels528.woozle.SoundManager;
+import com.ldaniels528.woozle.Entity;
 
 import java.awt.*;
 
@@ -13,32 +13,41 @@ import static java.awt.Color.WHITE;
  * @author lawrence.daniels@gmail.com
  */
 class Paddle extends Entity {
+	private final BreakOutPlayingField playingField;
 
 	/**
 	 * Creates a new paddle instance
+	 * @param playingField the given {@link BreakOutPlayingField playing field}
 	 * @param x the given x-axis coordinate 
 	 * @param y the given y-axis coordinate
+	 * @param width the given width of the paddle
+	 * @param height the given height of the paddle
 	 */
-	public Paddle( final double x, final double y, double width, double height ) {
+	public Paddle( final BreakOutPlayingField playingField,
+				   final double x, 
+				   final double y, 
+				   final double width, 
+				   final double height ) {
 		super( x, y, width, height );
+		this.playingField = playingField;
 	}
 	
 	/* 
 	 * (non-Javadoc)
-	 * @see com.ldaniels528.woozle.breakout.Entity#handleCollsion(com.ldaniels528.woozle.breakout.Entity)
+	 * @see com.ldaniels528.woozle.Entity#handleCollsion(com.ldaniels528.woozle.Entity)
 	 */
 	public void handleCollsion( final Entity entity ) {
-		SoundManager.getInstance().play( BOUNCE );
+		playingField.playSound( BOUNCE );
 	}
 	
 	/* 
 	 * (non-Javadoc)
-	 * @see com.ldaniels528.woozle.breakout.Entity#render(java.awt.Graphics2D)
+	 * @see com.ldaniels528.woozle.Entity#render(java.awt.Graphics2D)
 	 */
 	public void render( final Graphics2D g ) {
 		// compute the center
-		final int cx = (int)x - (int)width/2;
-		final int cy = (int)y;
+		final int cx = (int)renderX - (int)width/2;
+		final int cy = (int)renderY;
 		
 		// render the paddle
 		g.setColor( WHITE );
@@ -47,16 +56,16 @@ class Paddle extends Entity {
 	
 	/* 
 	 * (non-Javadoc)
-	 * @see com.ldaniels528.woozle.breakout.Entity#reset()
+	 * @see com.ldaniels528.woozle.Entity#reset()
 	 */
 	@Override
 	public void reset() {
-		this.x 	= BOARD_WIDTH / 2;
+		setPosition( BOARD_WIDTH / 2, y );
 	}
 	
 	/* 
 	 * (non-Javadoc)
-	 * @see com.ldaniels528.woozle.breakout.Entity#update(double)
+	 * @see com.ldaniels528.woozle.Entity#update(double)
 	 */
 	public void update( final double ct ) {
 		
@@ -1,5 +1,7 @@
 package com.ldaniels528.woozle.invasion;
 
+import com.ldaniels528.woozle.Entity;
+
 /**
  * Represents an armed sentient entity
  * @author lawrence.daniels@gmail.colm
@@ -1,8 +1,125 @@
 package com.ldaniels528.woozle.invasion;
 
-public class Alien1 {
-	private static final int[][] SHIP_POINTS = { 
+import com.ldaniels528.woozle.Entity;
+import com.ldaniels528.woozle.FixedPoint;
+
+import java.awt.*;
+
+import static java.awt.Color.GREEN;
+
+/**
+ * Represents an alien invader; aliens march back and forth
+ * within their lane, dropping a row each time they turn around.
+ * @author lawrence.daniels@gmail.com
+ */
+class Alien1 extends Actor {
+	private static final int[][] SHIP_POINTS = {
 		{ 0, 0 }, { 0, 15 }, { 5, 5 }, { 10, 5 }, { 15, 10 },
 		{ 20, 5 }, { 25, 5 }, {30, 15 }, { 30, 0 }, { 0, 0 }
 	};
+	private static final int WIDTH	= 30;
+	private static final int HEIGHT = 15;
+	private static final int SPEED	= FixedPoint.toFixed( 1.5 );
+	private static final int DROP	= FixedPoint.toFixed( 10 );
+	private static final int POINTS = 25;
+
+	// rendering is single threaded, so the polygon buffers are shared
+	private static final int[] XPOINTS = new int[ SHIP_POINTS.length ];
+	private static final int[] YPOINTS = new int[ SHIP_POINTS.length ];
+
+	// internal fields
+	private final InvasionVirtualWorld world;
+	private final double homeX, homeY;
+	private final int minX, maxX;
+	private int direction;
+
+	/**
+	 * Creates a new alien instance
+	 * @param world the given {@link InvasionVirtualWorld virtual world}
+	 * @param x the given x-axis coordinate
+	 * @param y the given y-axis coordinate
+	 * @param range the distance the alien may travel either side of its starting position
+	 */
+	public Alien1( final InvasionVirtualWorld world,
+				   final double x,
+				   final double y,
+				   final double range ) {
+		super( x, y, WIDTH, HEIGHT );
+		this.world		= world;
+		this.homeX		= x;
+		this.homeY		= y;
+		this.minX		= FixedPoint.toFixed( x - range );
+		this.maxX		= FixedPoint.toFixed( x + range );
+		this.direction	= 1;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.Entity#handleCollsion(com.ldaniels528.woozle.Entity)
+	 */
+	@Override
+	public void handleCollsion( final Entity entity ) {
+		// aliens are destroyed by the player's projectiles
+		if( isAlive() && ( entity instanceof Projectile ) ) {
+			die();
+			world.adjustScore( POINTS );
+			world.alienDied();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.Entity#render(java.awt.Graphics2D)
+	 */
+	@Override
+	public void render( final Graphics2D g ) {
+		// compute the outline of the alien
+		final int x0 = (int)renderX - WIDTH / 2;
+		final int y0 = (int)renderY - HEIGHT / 2;
+		for( int n = 0; n < SHIP_POINTS.length; n++ ) {
+			XPOINTS[n] = x0 + SHIP_POINTS[n][0];
+			YPOINTS[n] = y0 + SHIP_POINTS[n][1];
+		}
+
+		// draw the alien
+		g.setColor( GREEN );
+		g.fillPolygon( XPOINTS, YPOINTS, SHIP_POINTS.length );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.invasion.Actor#fire()
+	 */
+	@Override
+	public void fire() {
+
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.Entity#reset()
+	 */
+	@Override
+	public void reset() {
+		this.direction	= 1;
+		setPosition( homeX, homeY );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.Entity#update(double)
+	 */
+	@Override
+	public void update( final double ct ) {
+		// march along the lane
+		translate( direction * FixedPoint.multiply( SPEED, FixedPoint.toFixed( ct ) ), 0 );
+
+		// turn around and drop a row at either end of the lane
+		if( ( direction > 0 && getFixedX() >= maxX ) ||
+			( direction < 0 && getFixedX() <= minX ) ) {
+			direction = -direction;
+			translate( 0, DROP );
+		}
+	}
+
 }
@@ -2,6 +2,7 @@ package com.ldaniels528.woozle.invasion;
 
 import com.ldaniels528.woozle.Camera;
 import com.ldaniels528.woozle.ContentManager;
+import com.ldaniels528.woozle.Entity;
 import com.ldaniels528.woozle.GameDisplayPane;
 import com.ldaniels528.woozle.SharedGameData;
 
@@ -28,7 +29,7 @@ class InvasionCamera extends Camera {
 	public InvasionCamera( final GameDisplayPane displayPane ) {
 		super( displayPane );
 		this.gameData			= SharedGameData.getInstance();
-		this.backgroundImage	= ContentManager.loadImage( "/images/invasion/background.jpg" );
+		this.backgroundImage	= ContentManager.loadImage( "/invasion/images/background.jpg" );
 	}
 	
 	/* 
@@ -61,8 +62,9 @@ class InvasionCamera extends Camera {
 		
 		// render the entities
 		final Entity[] entities = world.getEntities();
-		for( final Entity entity : entities ) {
-			entity.render( offScreen );
+		final int count = world.getEntityCount();
+		for( int n = 0; n < count; n++ ) {
+			entities[n].render( offScreen );
 		}
 		
 		// render the messages
@@ -14,6 +14,7 @@ import static java.awt.Color.WHITE;
 public class InvasionGameManager extends GameManager {
 	private final InvasionVirtualWorld world;
 	private final InvasionCamera camera;
+	private final FixedStepClock clock;
 	
 	/**
 	 * Creates a new game manager instance
@@ -22,6 +23,7 @@ public class InvasionGameManager extends GameManager {
 	public InvasionGameManager( final GameDisplayPane displayPane ) {
 		this.world	= new InvasionVirtualWorld( this );
 		this.camera	= new InvasionCamera( displayPane );
+		this.clock	= new FixedStepClock();
 	}
 	
 	/**
@@ -42,6 +44,10 @@ public class InvasionGameManager extends GameManager {
 				world.setupLevel();
 				break;
 				
+			case PLAYING:
+				clock.reset();
+				break;
+				
 			case LEVEL_CHANGE:
 				camera.setMessage( new InGameMessage( "Great Job!", WHITE, 2000 ) );
 				SharedGameData.getInstance().levelUp();
@@ -158,10 +164,22 @@ public class InvasionGameManager extends GameManager {
 	 * Handles the "Playing" game state
 	 */
 	private void handleGamePlaying() {
+		// deterministic physics advances in whole, fixed-length steps,
+		// and is rendered part of the way between the last two steps
+		if( world.isFixedPoint() ) {
+			for( int steps = clock.advance(); ( steps > 0 ) && ( gameState == GameState.PLAYING ); steps-- ) {
+				world.update( clock.getCycleTime() );
+			}
+			world.interpolate( clock.getAlpha() );
+			camera.renderScene( this, world );
+			return;
+		}
+		
 		// capture the start time
 		final long startTime = System.currentTimeMillis();
 		
 		// render the scene
+		world.interpolate( 1 );
 		camera.renderScene( this, world );
 		
 		// capture the rendering time
@@ -1,12 +1,17 @@
 package com.ldaniels528.woozle.invasion;
 
+import com.ldaniels528.woozle.AllPairsBroadphase;
+import com.ldaniels528.woozle.Broadphase;
+import com.ldaniels528.woozle.Entity;
+import com.ldaniels528.woozle.EntityWorld;
 import com.ldaniels528.woozle.GameState;
+import com.ldaniels528.woozle.ObjectPool;
+import com.ldaniels528.woozle.ParallelUpdateSystem;
 import com.ldaniels528.woozle.SharedGameData;
+import com.ldaniels528.woozle.SweepAndPruneBroadphase;
+import com.ldaniels528.woozle.UniformGridBroadphase;
 
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.ldaniels528.woozle.GameDisplayPane.BOARD_WIDTH;
 
@@ -14,19 +19,31 @@ import static com.ldaniels528.woozle.GameDisplayPane.BOARD_WIDTH;
  * Invasion Virtual World
  * @author lawrence.daniels@gmail.com
  */
-class InvasionVirtualWorld {
+class InvasionVirtualWorld extends EntityWorld {
 	// the maximum number of entities
 	private static final int MAX_ENTITIES = 300;
 	
+	// the number of missiles created up front
+	private static final int MISSILE_POOL_SIZE = 64;
+	
+	// the collision strategy ("sweep", "grid" or "all-pairs")
+	private static final String BROADPHASE = System.getProperty( "woozle.invasion.broadphase", "sweep" );
+	
+	// the layout of the alien formation
+	private static final int ALIEN_COLUMNS		= 10;
+	private static final int ALIEN_BASE_ROWS	= 3;
+	private static final int ALIEN_MAX_ROWS		= 8;
+	private static final int ALIEN_SPACING_X	= 45;
+	private static final int ALIEN_SPACING_Y	= 30;
+	private static final int ALIEN_TOP			= 60;
+	
 	// internal fields
 	private final InvasionGameManager gameManager;
 	private final SharedGameData gameData;
-	private final Set<Entity> entitySet;
-	private final Set<Entity> addQueue;
-	private final Set<Entity> removeQueue;
-	private Entity[] entityCache;
+	private final ObjectPool<Missile> missilePool;
+	private final AtomicInteger fireRequests;
+	private final Runnable levelCompleted;
 	private SpaceShip spaceShip;
-	private boolean dirtyCache;
 	private int spareShips;
 	private int alienCount;
 	
@@ -34,126 +51,113 @@ class InvasionVirtualWorld {
 	 * Default Constructor
 	 */
 	public InvasionVirtualWorld( final InvasionGameManager gameManager ) {
+		super( MAX_ENTITIES );
 		this.gameManager 	= gameManager;
-		this.entitySet		= new HashSet<Entity>( MAX_ENTITIES );
-		this.addQueue		= new HashSet<Entity>( MAX_ENTITIES );
-		this.removeQueue	= new HashSet<Entity>( MAX_ENTITIES );
 		this.gameData		= SharedGameData.getInstance();
 		this.spaceShip		= new SpaceShip( BOARD_WIDTH / 2, 160 );
+		this.fireRequests	= new AtomicInteger();
 		this.spareShips		= 3;
-	}
-
-	/**
-	 * Adds the given entity
-	 * @param entity the given {@link Entity entity}
-	 */
-	public void add( final Entity entity ) {
-		synchronized( addQueue ) {
-			addQueue.add( entity );
-			this.dirtyCache = true;
-		}
-	}
-	
-	/**
-	 * Adds the given collection of entities
-	 * @param entities the given {@link Collection collection} of {@link Entity entities}
-	 */
-	public void addAll( final Collection<Entity> entities ) {
-		synchronized( addQueue ) {
-			addQueue.addAll( entities );
-			this.dirtyCache = true;
-		}
-	}
-	
-	/**
-	 * Adds the given array of entities
-	 * @param entities the given array of {@link Entity entities}
-	 */
-	public void addAll( final Entity[] entities ) {
-		synchronized( addQueue ) {
-			addQueue.addAll( Arrays.asList( entities ) );
-			this.dirtyCache = true;
-		}
+		this.levelCompleted	= new Runnable() {
+			public void run() {
+				gameManager.changeGameState( GameState.LEVEL_CHANGE );
+			}
+		};
+		this.missilePool	= new ObjectPool<Missile>( new ObjectPool.Factory<Missile>() {
+			public Missile create() {
+				return new Missile();
+			}
+		}, MISSILE_POOL_SIZE );
+		
+		// alien waves are updated across all available cores
+		setUpdateSystem( new ParallelUpdateSystem() );
+		
+		// projectiles versus aliens is the hot path
+		setBroadphase( createBroadphase( BROADPHASE ) );
 	}
 	
 	/**
-	 * Removes the given entity
-	 * @param entity the given {@link Entity entity}
+	 * Creates the broadphase corresponding to the given name
+	 * @param name the given name ("sweep", "grid" or "all-pairs")
+	 * @return the {@link Broadphase broadphase}
 	 */
-	public void remove( final Entity entity ) {
-		synchronized( removeQueue ) {
-			removeQueue.add( entity );
-			this.dirtyCache = true;
+	public static Broadphase createBroadphase( final String name ) {
+		if( "grid".equalsIgnoreCase( name ) ) {
+			return new UniformGridBroadphase();
 		}
-	}
-	
-	/**
-	 * Removes all entities from the virtual playing field
-	 */
-	public void removeAllEntities() {
-		synchronized( addQueue ) {
-			synchronized( removeQueue ) {
-				synchronized( entitySet ) {
-					addQueue.clear();
-					removeQueue.clear();
-					entitySet.clear();
-				}
-			}
+		else if( "all-pairs".equalsIgnoreCase( name ) ) {
+			return new AllPairsBroadphase();
 		}
-	}
-	
-	/**
-	 * Returns the array of entities
-	 * @return the array of entities
-	 */
-	public Entity[] getEntities() {
-		// remove dead entities
-		removeDeadEntities();
-
-		// add new entities
-		addNewEntities();
-		
-		// if the cache is dirty, refresh it...
-		if( dirtyCache || ( entityCache == null ) ) {
-			synchronized( entitySet ) {
-				entityCache = entitySet.toArray( new Entity[ entitySet.size() ] );
-			}
-			dirtyCache = false;
+		else {
+			return new SweepAndPruneBroadphase();
 		}
-		
-		// return the cached entities
-		return entityCache;
 	}
 
 	/**
 	 * Setup the level for the virtual world
 	 */
 	public void setupLevel() {
+		// clear the virtual world
+		removeAllEntities();
+		
 		// add the ship
 		add( spaceShip );
+		
+		// add the alien formation
+		final int rows = Math.min( ALIEN_BASE_ROWS + gameData.getLevel() - 1, ALIEN_MAX_ROWS );
+		setupAliens( ALIEN_COLUMNS, rows );
 	}
-
+	
 	/**
-	 * Resets the game after an 'Out of Bounds' event
+	 * Adds a formation of aliens, centered horizontally, to the virtual world
+	 * @param columns the number of columns in the formation
+	 * @param rows the number of rows in the formation
 	 */
-	public void resetEntities() {
-		// get the entities
-		final Entity[] entities = getEntities();
+	public void setupAliens( final int columns, final int rows ) {
+		setupAliens( columns, rows, ALIEN_SPACING_X, ALIEN_SPACING_Y );
+	}
+	
+	/**
+	 * Adds a formation of aliens, centered horizontally, to the virtual world
+	 * @param columns the number of columns in the formation
+	 * @param rows the number of rows in the formation
+	 * @param spacingX the horizontal distance between aliens
+	 * @param spacingY the vertical distance between aliens
+	 */
+	public void setupAliens( final int columns, final int rows, final int spacingX, final int spacingY ) {
+		// the formation marches across whatever space is left on the board
+		// (formations wider than the board still sway by half a column)
+		final int formationWidth = columns * spacingX;
+		final double range = Math.max( spacingX / 2, ( BOARD_WIDTH - formationWidth ) / 2 - spacingX / 2 );
+		final double left = ( BOARD_WIDTH - formationWidth ) / 2 + spacingX / 2;
 		
-		// reset all living entities
-		for( final Entity entity : entities ) {
-			if( entity.isAlive() ) {
-				entity.reset();
+		// create the aliens
+		final Alien1[] aliens = new Alien1[ columns * rows ];
+		for( int row = 0; row < rows; row++ ) {
+			for( int col = 0; col < columns; col++ ) {
+				aliens[ row * columns + col ] = new Alien1( this, 
+						left + col * spacingX, ALIEN_TOP + row * spacingY, range );
 			}
 		}
+		
+		// add them to the world
+		addAll( aliens );
+		alienCount = aliens.length;
 	}
 
 	/** 
 	 * Allows the player to fire
 	 */
 	public void playerFire() {
-		// TODO Auto-generated method stub
-		
+		// the missile is launched by the game loop at the start of the next cycle
+		fireRequests.incrementAndGet();
+	}
+	
+	/**
+	 * Returns the pool of player missiles
+	 * @return the {@link ObjectPool pool} of {@link Missile missiles}
+	 */
+	public ObjectPool<Missile> getMissilePool() {
+		return missilePool;
 	}
 
 	/**
@@ -162,8 +166,7 @@ class InvasionVirtualWorld {
 	 * @param y the given y-coordinate position
 	 */
 	public void movePlayer( final double x, final double y ) {
-		spaceShip.x = x - 15;
-		spaceShip.y = y - 35;
+		spaceShip.setPosition( x - 15, y - 35 );
 	}
 	
 	/** 
@@ -172,7 +175,8 @@ class InvasionVirtualWorld {
 	public void alienDied() {
 		alienCount --;
 		if( alienCount == 0 ) {
-			gameManager.changeGameState( GameState.LEVEL_CHANGE );
+			// the level changes once the current cycle is complete
+			defer( levelCompleted );
 		}
 	}
 
@@ -192,75 +196,62 @@ class InvasionVirtualWorld {
 		this.spareShips = spareShips;
 	}
 
-	/**
-	 * Updates the playing field
-	 * @param ct the given cycle time
+	/* 
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.EntityWorld#update(double)
 	 */
-	public void update( final double ct ) {		
-		// get the array of entities
-		final Entity[] entities = getEntities();
+	@Override
+	public void update( final double ct ) {
+		// apply the pending commands first, so a pending clear (a level
+		// reset) can't take back the missiles launched this cycle
+		getEntities();
 		
-		// update all entities
-		for( final Entity entity : entities ) {
-			entity.update( ct );
-		}
+		// launch the requested missiles
+		launchMissiles();
 		
-		// check for collisions
-		for( final Entity entityA : entities ) {
-			for( final Entity entityB : entities ) {
-				if( ( entityA != entityB ) && entityA.isAlive() && entityB.isAlive() ) {
-					if( entityA.intersects( entityB ) ) {
-						// allow each entity to handle the collision
-						entityA.handleCollsion( entityB );
-						entityB.handleCollsion( entityA );
-						
-						// did entity A die?
-						if( !entityA.isAlive() ) {
-							remove( entityA );
-						}
-						
-						// did entity B die?
-						if( !entityB.isAlive() ) {
-							remove( entityB );
-						}
-					}
-				}
-			}
-		}
+		// update the world
+		super.update( ct );
 	}
 	
-	/** 
-	 * Removes dead entities
+	/* 
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.EntityWorld#entityRemoved(com.ldaniels528.woozle.Entity)
 	 */
-	private void removeDeadEntities() {
-		synchronized( removeQueue ) {
-			// if the remove queue is not empty ...
-			if( !removeQueue.isEmpty() ) {
-				// remove the entities
-				synchronized( entitySet ) {
-					entitySet.removeAll( removeQueue );
-				}
-				removeQueue.clear();
-				this.dirtyCache = true;
-			}
+	@Override
+	protected void entityRemoved( final Entity entity ) {
+		// return spent missiles to the pool
+		if( entity instanceof Missile ) {
+			missilePool.release( (Missile)entity );
 		}
 	}
 	
-	/** 
-	 * Adds new entities
+	/**
+	 * Launches a missile from the player's ship for each fire request
 	 */
-	private void addNewEntities() {
-		synchronized( addQueue ) {
-			// if the add queue is not empty ...
-			if( !addQueue.isEmpty() ) {
-				// add the new entities
-				synchronized( entitySet ) {
-					entitySet.addAll( addQueue );
-				}
-				addQueue.clear();
-				this.dirtyCache = true;
-			}
+	private void launchMissiles() {
+		for( int n = fireRequests.getAndSet( 0 ); n > 0; n-- ) {
+			launchMissile( spaceShip.getX() + spaceShip.getWidth() / 2, spaceShip.getY() );
 		}
 	}
+	
+	/**
+	 * Immediately launches a missile from the given position.
+	 * (Game loop thread only, between cycles)
+	 * @param x the given x-axis coordinate
+	 * @param y the given y-axis coordinate
+	 */
+	void launchMissile( final double x, final double y ) {
+		final Missile missile = missilePool.acquire();
+		missile.launch( x, y );
+		spawn( missile );
+	}
+	
+	/**
+	 * Returns the number of missiles currently in flight
+	 * @return the number of missiles in flight
+	 */
+	int getMissilesInFlight() {
+		return missilePool.getInUse();
+	}
 
 }
@@ -0,0 +1,74 @@
+package com.ldaniels528.woozle.invasion;
+
+import com.ldaniels528.woozle.Entity;
+import com.ldaniels528.woozle.FixedPoint;
+
+import java.awt.*;
+
+import static java.awt.Color.YELLOW;
+
+/**
+ * Represents a missile fired by the player's {@link SpaceShip space ship}
+ * @author lawrence.daniels@gmail.com
+ */
+class Missile extends Projectile {
+	private static final int WIDTH	= 3;
+	private static final int HEIGHT	= 10;
+	private static final int SPEED	= FixedPoint.toFixed( 12 );
+
+	/**
+	 * Default Constructor
+	 */
+	public Missile() {
+		super( 0, 0, WIDTH, HEIGHT );
+		die();
+	}
+
+	/* 
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.Entity#handleCollsion(com.ldaniels528.woozle.Entity)
+	 */
+	@Override
+	public void handleCollsion( final Entity entity ) {
+		// missiles pass through the ship that fired them, and each other
+		if( !( entity instanceof SpaceShip ) && !( entity instanceof Projectile ) ) {
+			die();
+		}
+	}
+
+	/* 
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.Entity#render(java.awt.Graphics2D)
+	 */
+	@Override
+	public void render( final Graphics2D g ) {
+		g.setColor( YELLOW );
+		g.fillRect( (int)renderX - WIDTH / 2, (int)renderY, WIDTH, HEIGHT );
+	}
+
+	/* 
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.Entity#reset()
+	 */
+	@Override
+	public void reset() {
+		// missiles in flight are discarded
+		die();
+	}
+
+	/* 
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.Entity#update(double)
+	 */
+	@Override
+	public void update( final double ct ) {
+		// move the missile up the screen
+		translate( 0, -FixedPoint.multiply( SPEED, FixedPoint.toFixed( ct ) ) );
+		
+		// has the missile left the screen?
+		if( y + HEIGHT < 0 ) {
+			die();
+		}
+	}
+
+}
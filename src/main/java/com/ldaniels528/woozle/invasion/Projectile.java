@@ -1,5 +1,7 @@
 package com.ldaniels528.woozle.invasion;
 
+import com.ldaniels528.woozle.Entity;
+
 /**
  * Represents a projectile
  * @author lawrence.daniels@gmail.colm
@@ -19,5 +21,15 @@ abstract class Projectile extends Entity {
 				  	   final double height) {
 		super( x, y, width, height );
 	}
+	
+	/**
+	 * (Re-)launches the projectile from the given position
+	 * @param x the given x-axis coordinate 
+	 * @param y the given y-axis coordinate
+	 */
+	public void launch( final double x, final double y ) {
+		setPosition( x, y );
+		revive();
+	}
 
 }
@@ -1,6 +1,7 @@
 package com.ldaniels528.woozle.invasion;
 
 import com.ldaniels528.woozle.ContentManager;
+import com.ldaniels528.woozle.Entity;
 
 import java.awt.*;
 
@@ -27,12 +28,12 @@ class SpaceShip extends Actor {
 	 */
 	public SpaceShip( final double x, final double y ) {
 		super( x, y, WIDTH, HEIGHT );
-		this.shipImage = ContentManager.loadImage( "/images/invasion/ship.gif" );
+		this.shipImage = ContentManager.loadImage( "/invasion/images/ship.gif" );
 	}
 
 	/* 
 	 * (non-Javadoc)
-	 * @see com.ldaniels528.woozle.invasion.Entity#handleCollsion(com.ldaniels528.woozle.invasion.Entity)
+	 * @see com.ldaniels528.woozle.Entity#handleCollsion(com.ldaniels528.woozle.Entity)
 	 */
 	@Override
 	public void handleCollsion( final Entity entity ) {
@@ -41,7 +42,7 @@ class SpaceShip extends Actor {
 
 	/* 
 	 * (non-Javadoc)
-	 * @see com.ldaniels528.woozle.invasion.Entity#render(java.awt.Graphics2D)
+	 * @see com.ldaniels528.woozle.Entity#render(java.awt.Graphics2D)
 	 */
 	@Override
 	public void render( final Graphics2D g ) {
@@ -52,7 +53,7 @@ class SpaceShip extends Actor {
 		//g.setColor( WHITE );
 		//g.fillPolygon( polygon );
 		
-		g.drawImage( shipImage, (int)x, (int)y, null );
+		g.drawImage( shipImage, (int)renderX, (int)renderY, null );
 	}
 	
 	/* 
@@ -66,16 +67,16 @@ class SpaceShip extends Actor {
 
 	/* 
 	 * (non-Javadoc)
-	 * @see com.ldaniels528.woozle.invasion.Entity#reset()
+	 * @see com.ldaniels528.woozle.Entity#reset()
 	 */
 	@Override
 	public void reset() {
-		this.x = BOARD_WIDTH / 2;
+		setPosition( BOARD_WIDTH / 2, y );
 	}
 
 	/* 
 	 * (non-Javadoc)
-	 * @see com.ldaniels528.woozle.invasion.Entity#update(double)
+	 * @see com.ldaniels528.woozle.Entity#update(double)
 	 */
 	@Override
 	public void update( final double ct ) {
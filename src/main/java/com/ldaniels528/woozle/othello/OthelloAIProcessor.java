@@ -1,257 +1,398 @@
 package com.ldaniels528.woozle.othello;
 
 import com.ldaniels528.woozle.Logger;
+import com.ldaniels528.woozle.MetricsRegistry;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.LinkedList;
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
+import static com.ldaniels528.woozle.othello.OthelloBitboard.flips;
 import static com.ldaniels528.woozle.othello.OthelloBoard.COLUMNS;
-import static com.ldaniels528.woozle.othello.OthelloBoard.ROWS;
 
 /**
- * Othello Artificial Intelligence Processor
+ * Othello Artificial Intelligence Processor. The searches run on a
+ * background thread, so the game loop keeps rendering while the AI thinks;
+ * the game loop {@link #poll() polls} for the result once per frame.
+ * <p>While the player thinks, the processor ponders: it predicts the
+ * player's reply (the best move remembered from its own search) and
+ * searches the position that would follow. If the player makes the
+ * predicted move, the pondering search simply carries on, with its time
+ * budget counted from the player's move; otherwise it is cancelled, and
+ * a fresh search is started (which still benefits from the positions
+ * the pondering left in the transposition table).</p>
+ * <p>Early moves come from the {@link OthelloOpeningBook opening book},
+ * and are played at once; the time they save is banked, and a share of
+ * the bank is added to the budget of each search that follows.</p>
+ * <p>The player's moves arrive on the event thread, and the game loop
+ * polls on its own, so the turn-keeping methods are synchronized.</p>
+ * <p>On boards of other sizes than 8x8 (see {@link OthelloBoard#COLUMNS}),
+ * the moves come from the {@link OthelloWideSearch wide-board search},
+ * without the opening book or pondering.</p>
+ * <p>The {@link OthelloSearchTelemetry telemetry} of each of the AI's moves
+ * is published to the {@link MetricsRegistry metrics registry}, along with
+ * counts of ponder hits and misses.</p>
  * @author lawrence.daniels@gmail.com
  */
 class OthelloAIProcessor {
-	private static final CapturePathComparator PATH_COMPARATOR = new CapturePathComparator();
+	// the time the AI has to answer the player's move (in milliseconds)
+	public static final long MOVE_TIME = 1000;
+
+	// the search engine: "alphabeta" (the default) or "mcts" (Monte Carlo tree search)
+	public static final String ENGINE = System.getProperty( "woozle.othello.engine", "alphabeta" );
+
+	// the pondering search runs until it is stopped
+	private static final long UNLIMITED = Long.MAX_VALUE;
+
+	// each search may spend this fraction (1/n) of the banked time
+	private static final int BANK_SHARE = 4;
+
+	// internal fields
+	private final OthelloEngine engine;
+	private final OthelloOpeningBook book;
+	private final OthelloWideSearch wideSearch;
+	private final ExecutorService executor;
 	private final OthelloBoard board;
-	private final OthelloPiece[][] grid;
 	private final OthelloPiece pieceAI;
 	private final OthelloPiece pieceHU;
-	
+	private final MetricsRegistry metrics;
+	private Future<Integer> pending;
+	private OthelloSearchTelemetry bookTelemetry;
+	private volatile OthelloSearchTelemetry telemetry;
+	private boolean pondering;
+	private int predictedMove;
+	private long ponderOwn;
+	private long ponderOpponent;
+	private long stopTime;
+	private long timeBank;
+
 	/**
 	 * Creates a new instance of the Artificial Processor
 	 * @param board the given {@link OthelloBoard playing board}
 	 * @param pieceAI the given AI's {@link OthelloPiece piece}
 	 * @param pieceHU the given human player's {@link OthelloPiece piece}
 	 */
-	public OthelloAIProcessor( final OthelloBoard board, 
-							   final OthelloPiece pieceAI, 
+	public OthelloAIProcessor( final OthelloBoard board,
+							   final OthelloPiece pieceAI,
 							   final OthelloPiece pieceHU ) {
-		this.board		= board;
-		this.grid 		= board.getGrid();
-		this.pieceAI	= pieceAI;
-		this.pieceHU	= pieceHU;
+		this.board			= board;
+		this.pieceAI		= pieceAI;
+		this.pieceHU		= pieceHU;
+		this.metrics		= MetricsRegistry.getInstance();
+		this.predictedMove	= -1;
+
+		// the 64-bit engines only play on the standard board
+		if( OthelloBoard.isStandard() ) {
+			this.engine		= createEngine( OthelloParallelSearch.DEFAULT_THREADS );
+			this.book		= loadBook();
+			this.wideSearch	= null;
+		}
+		else {
+			this.engine		= null;
+			this.book		= null;
+			this.wideSearch	= new OthelloWideSearch( COLUMNS );
+		}
+
+		// the searches run on a daemon thread, so they never hold up the exit
+		this.executor = Executors.newSingleThreadExecutor( new ThreadFactory() {
+			public Thread newThread( final Runnable runnable ) {
+				final Thread thread = new Thread( runnable, "othello-ai" );
+				thread.setDaemon( true );
+				return thread;
+			}
+		} );
 	}
-	
+
 	/**
-	 * Allows the processor to execute the next move
+	 * Creates the search engine for the given number of threads
+	 * @param threads the given number of search threads
+	 * @return the {@link OthelloEngine search engine}
 	 */
-	public void execute() {
-		Logger.info( "AI: Taking my turn...\n" );
-		
-		// get the AI owned cells
-		final LinkedList<OthelloCell> cells = getOccupiedCells();
-		Logger.info( "AI cells = %s\n", cells );
-		
-		// get the capture paths for the cells
-		final LinkedList<OthelloCellCapturePath> paths = getCapturePaths( cells );
-		Logger.info( "AI paths = %s\n", paths );
-		
-		// get the optimal path
-		if( !paths.isEmpty() ) {
-			// sort in ascending order
-			Collections.sort( paths, PATH_COMPARATOR );
-			
-			boolean done = false;
-			while( !done && !paths.isEmpty() ) {
-				// grab the last path
-				final OthelloCellCapturePath path = paths.removeLast();
-				Logger.info( "AI path = %s\n", path );
-				
-				// execute the action
-				Logger.info( "AI placement of %s at {%d,%d} \n", pieceAI, path.getColumnEnd(), path.getRowEnd() );
-				Collection<OthelloCellCapturePath> actions = 
-					board.placePiece( path.getColumnEnd(), path.getRowEnd(), pieceAI );
-				done = !actions.isEmpty();
-				if( !done ) {
-					actions = board.placePiece( path.getColumnStart(), path.getRowStart(), pieceAI );
-					done = !actions.isEmpty();
-				}
-			}
+	private static OthelloEngine createEngine( final int threads ) {
+		if( "mcts".equals( ENGINE ) ) {
+			return new OthelloMctsSearch( threads );
 		}
+		final OthelloEvaluator evaluator = createEvaluator();
+		return ( threads > 1 )
+				? new OthelloParallelSearch( evaluator, threads )
+				: new OthelloSearch( evaluator );
 	}
-	
-	/** 
-	 * Returns the collection of A.I. occupied cells
-	 * @return the {@link Collection collection} of {@link OthelloCell cells}
+
+	/**
+	 * Creates the evaluator of the alpha-beta engines (which the
+	 * {@link OthelloBookGenerator opening book} is also built with)
+	 * @return the {@link OthelloEvaluator evaluator}
 	 */
-	private LinkedList<OthelloCell> getOccupiedCells() {
-		// create a container for the cells
-		final LinkedList<OthelloCell> cells = new LinkedList<OthelloCell>();
-		
-		// capture the AI owned cells
-		for( int col = 0; col < COLUMNS; col++ ) {
-			for( int row = 0; row < ROWS; row++ ) {
-				if( grid[col][row] == pieceAI ) {
-					cells.add( new OthelloCell( col, row ) );
-				}
-			}
+	static OthelloEvaluator createEvaluator() {
+		return new OthelloPatternEvaluator();
+	}
+
+	/**
+	 * Loads the opening book
+	 * @return the {@link OthelloOpeningBook opening book}, or <tt>null</tt> if there is none
+	 */
+	private static OthelloOpeningBook loadBook() {
+		try {
+			final OthelloOpeningBook book = OthelloOpeningBook.load();
+			Logger.info( "AI: opening book of %d positions (depth %d)\n", book.getEntryCount(), book.getDepth() );
+			return book;
+		}
+		catch( final IOException e ) {
+			Logger.error( "Opening book could not be loaded: %s\n", e.getMessage() );
+			return null;
 		}
-		
-		// return the cells
-		return cells;
 	}
 
-	/** 
-	 * Retrieves all of the Capture Paths for the given cell 
-	 * @param cell the given {@link OthelloCell cell}
-	 * @return the {@link OthelloCellCapturePath Capture Paths}
+	/**
+	 * Starts the AI's turn, following the player's move
+	 * @param playerMove the index of the square the player moved on, or -1 if the player passed
 	 */
-	private LinkedList<OthelloCellCapturePath> getCapturePath( final OthelloCell cell ) {
-		// create a container for the cell capture paths
-		final LinkedList<OthelloCellCapturePath> list = new LinkedList<OthelloCellCapturePath>();
-		boolean ok;
-		int x, y;
-		
-		////////////////////////////////////////////////////////////////////
-		// Step 1: Scan horizontally (left to right)
-		////////////////////////////////////////////////////////////////////
-		x = cell.getColumn() + 1;
-		y = cell.getRow();
-		ok = false;
-		while( ( x < COLUMNS ) && ( grid[x][y] == pieceHU ) ) { ok = true; x++; }
-		
-		// did we find an open cell?
-		if( ok && ( x < COLUMNS ) && ( grid[x][y] == null ) ) {
-			list.add( new OthelloCellCapturePath( cell.getColumn(), cell.getRow(), x, y, pieceAI ) );
+	public synchronized void startTurn( final int playerMove ) {
+		// other board sizes are searched as they are
+		if( wideSearch != null ) {
+			cancel();
+			Logger.info( "AI: Taking my turn (%d ms)...\n", MOVE_TIME );
+			pending = submitWide( board.getDiscs( pieceAI ).clone(), board.getDiscs( pieceHU ).clone(), MOVE_TIME );
+			return;
 		}
-		
-		////////////////////////////////////////////////////////////////////
-		// Step 2: Scan horizontally (right to left)
-		////////////////////////////////////////////////////////////////////
-		x = cell.getColumn() - 1;
-		y = cell.getRow();
-		ok = false;
-		while( ( x >= 0 ) && ( grid[x][y] == pieceHU ) ) { ok = true; x--; }
-
-		// did we find an open cell?
-		if( ok && ( x >= 0 ) && ( grid[x][y] == null ) ) {
-			list.add( new OthelloCellCapturePath( cell.getColumn(), cell.getRow(), x, y, pieceAI ) );
+		final long own		= board.getDiscs( pieceAI )[0];
+		final long opponent	= board.getDiscs( pieceHU )[0];
+
+		// answer at once from the opening book (and bank the time)
+		final int bookMove = ( book != null ) ? book.getMove( own, opponent ) : -1;
+		if( bookMove != -1 ) {
+			cancel();
+			Logger.info( "AI: book move {%d,%d}, score %d\n", bookMove % COLUMNS, bookMove / COLUMNS, book.getScore( own, opponent ) );
+			timeBank += MOVE_TIME;
+			bookTelemetry = OthelloSearchTelemetry.forBookMove( bookMove, book.getScore( own, opponent ) );
+			pending = CompletableFuture.completedFuture( bookMove );
+			return;
 		}
-		
-		////////////////////////////////////////////////////////////////////
-		// Step 3: Scan vertically (low to high)
-		////////////////////////////////////////////////////////////////////
-		x = cell.getColumn();
-		y = cell.getRow() + 1;
-		ok = false;
-		while( ( y < ROWS ) && ( grid[x][y] == pieceHU ) ) { ok = true; y++; }
-		
-		// did we find an open cell?
-		if( ok && ( y < ROWS ) && ( grid[x][y] == null ) ) {
-			list.add( new OthelloCellCapturePath( cell.getColumn(), cell.getRow(), x, y, pieceAI ) );
+
+		// the AI's time starts now
+		final long budget = MOVE_TIME + withdraw();
+		stopTime = System.currentTimeMillis() + budget;
+
+		// if the player made the predicted move (and the pondered position
+		// is the actual one), keep pondering
+		if( pondering && ( playerMove == predictedMove ) && ( own == ponderOwn ) && ( opponent == ponderOpponent ) ) {
+			Logger.info( "AI: ponder hit at {%d,%d}\n", playerMove % COLUMNS, playerMove / COLUMNS );
+			metrics.increment( "othello.ai.ponderHits", 1 );
+			return;
 		}
-		
-		////////////////////////////////////////////////////////////////////
-		// Step 4: Scan vertically (high to low)
-		////////////////////////////////////////////////////////////////////
-		x = cell.getColumn();
-		y = cell.getRow() - 1;
-		ok = false;
-		while( ( y >= 0 ) && ( grid[x][y] == pieceHU ) ) { ok = true; y--; }
-
-		// did we find an open cell?
-		if( ok && ( y >= 0 ) && ( grid[x][y] == null ) ) {
-			list.add( new OthelloCellCapturePath( cell.getColumn(), cell.getRow(), x, y, pieceAI ) );
+
+		// otherwise, search the actual position
+		if( pondering ) {
+			Logger.info( "AI: ponder miss (expected {%d,%d})\n", predictedMove % COLUMNS, predictedMove / COLUMNS );
+			metrics.increment( "othello.ai.ponderMisses", 1 );
 		}
-		
-		////////////////////////////////////////////////////////////////////
-		// Step 5: Scan diagonally (upper right)
-		////////////////////////////////////////////////////////////////////
-		x = cell.getColumn() + 1;
-		y = cell.getRow() - 1;
-		ok = false;
-		while( ( x < COLUMNS ) && 
-			   ( y >= 0 ) && 
-			   ( grid[x][y] == pieceHU ) ) { ok = true; x++; y--; }
-		
-		// did we find an open cell?
-		if( ok && ( x < COLUMNS ) && ( y >= 0 ) && ( grid[x][y] == null ) ) {
-			list.add( new OthelloCellCapturePath( cell.getColumn(), cell.getRow(), x, y, pieceAI ) );
+		cancel();
+		Logger.info( "AI: Taking my turn (%d ms)...\n", budget );
+		pending = submit( own, opponent, budget );
+	}
+
+	/**
+	 * Submits a search of the board's actual position
+	 * @param budgetMillis the time available for the search (in milliseconds)
+	 * @return the {@link Future future} best move
+	 */
+	private Future<Integer> submitActual( final long budgetMillis ) {
+		return ( wideSearch != null )
+				? submitWide( board.getDiscs( pieceAI ).clone(), board.getDiscs( pieceHU ).clone(), budgetMillis )
+				: submit( board.getDiscs( pieceAI )[0], board.getDiscs( pieceHU )[0], budgetMillis );
+	}
+
+	/**
+	 * Withdraws a share of the banked time
+	 * @return the time withdrawn (in milliseconds)
+	 */
+	private long withdraw() {
+		final long share = timeBank / BANK_SHARE;
+		timeBank -= share;
+		return share;
+	}
+
+	/**
+	 * Checks on the AI's turn, and places its piece once the search is done
+	 * @return true, if the AI has taken its turn
+	 */
+	public synchronized boolean poll() {
+		// is the AI's turn under way?
+		if( pending == null ) {
+			return false;
 		}
-		
-		////////////////////////////////////////////////////////////////////
-		// Step 6: Scan diagonally (upper left)
-		////////////////////////////////////////////////////////////////////
-		x = cell.getColumn() - 1;
-		y = cell.getRow() - 1;
-		ok = false;
-		while( ( x >= 0 ) && 
-			   ( y >= 0 ) && 
-			   ( grid[x][y] == pieceHU ) ) { ok = true; x--; y--; }
-		
-		// did we find an open cell?
-		if( ok && ( x >= 0 ) && ( y >= 0 ) && ( grid[x][y] == null ) ) {
-			list.add( new OthelloCellCapturePath( cell.getColumn(), cell.getRow(), x, y, pieceAI ) );
+
+		// a pondering search is stopped once the AI's time is up
+		if( pondering && ( System.currentTimeMillis() >= stopTime ) ) {
+			engine.stop();
 		}
-		
-		////////////////////////////////////////////////////////////////////
-		// Step 7: Scan diagonally (lower right)
-		////////////////////////////////////////////////////////////////////
-		x = cell.getColumn() + 1;
-		y = cell.getRow() + 1;
-		ok = false;
-		while( ( x < COLUMNS ) && 
-			   ( y < ROWS ) && 
-			   ( grid[x][y] == pieceHU ) ) { ok = true; x++; y++; }
-		
-		// did we find an open cell?
-		if( ok && ( x < COLUMNS ) && ( y < ROWS ) && ( grid[x][y] == null ) ) {
-			list.add( new OthelloCellCapturePath( cell.getColumn(), cell.getRow(), x, y, pieceAI ) );
+		if( !pending.isDone() ) {
+			return false;
 		}
-		
-		////////////////////////////////////////////////////////////////////
-		// Step 8: Scan diagonally (lower left)
-		////////////////////////////////////////////////////////////////////
-		x = cell.getColumn() - 1;
-		y = cell.getRow() + 1;
-		ok = false;
-		while( ( x >= 0 ) && 
-			   ( y < ROWS ) && 
-			   ( grid[x][y] == pieceHU ) ) { ok = true; x--; y++; }
-		
-		// did we find an open cell?
-		if( ok && ( x >= 0 ) && ( y < ROWS ) && ( grid[x][y] == null ) ) {
-			list.add( new OthelloCellCapturePath( cell.getColumn(), cell.getRow(), x, y, pieceAI ) );
+
+		// place the piece
+		final int move = getResult( pending );
+		pending		= null;
+		pondering	= false;
+		if( move != -1 ) {
+			final int column	= move % COLUMNS;
+			final int row		= move / COLUMNS;
+			Logger.info( "AI placement of %s at {%d,%d}\n", pieceAI, column, row );
+
+			// a move that can't be played (found for another position) is searched again
+			if( board.placePiece( column, row, pieceAI ) == 0 ) {
+				Logger.error( "AI: move {%d,%d} is not legal in this position; searching again\n", column, row );
+				bookTelemetry	= null;
+				pending			= submitActual( MOVE_TIME );
+				return false;
+			}
+
+			// publish the telemetry of the move
+			final OthelloSearchTelemetry moveTelemetry = ( bookTelemetry != null ) ? bookTelemetry : getEngineTelemetry();
+			if( moveTelemetry != null ) {
+				moveTelemetry.publish( metrics );
+				telemetry = moveTelemetry;
+			}
 		}
-		
-		return list;
+		bookTelemetry = null;
+
+		// ponder during the player's turn
+		ponder();
+		return true;
 	}
-	
-	/** 
-	 * Retrieves all of the Capture Paths for the given cells
-	 * @param cells the given {@link Collection collection} of {@link OthelloCell cells}
-	 * @return the {@link Collection collection} of {@link OthelloCellCapturePath Capture Paths}
+
+	/**
+	 * Returns the telemetry of the AI's most recent move; may be called from any thread
+	 * @return the {@link OthelloSearchTelemetry telemetry}, or <tt>null</tt> if the AI hasn't moved yet
+	 */
+	public OthelloSearchTelemetry getTelemetry() {
+		return telemetry;
+	}
+
+	/**
+	 * Returns the telemetry of the most recent search
+	 * @return the {@link OthelloSearchTelemetry telemetry}, or <tt>null</tt> if there is none
 	 */
-	private LinkedList<OthelloCellCapturePath> getCapturePaths( final Collection<OthelloCell> cells ) {
-		// create a container for the cell capture paths
-		final LinkedList<OthelloCellCapturePath> list = new LinkedList<OthelloCellCapturePath>();
-		
-		// gather the capture paths for each cell
-		for( final OthelloCell cell : cells ) {
-			list.addAll( getCapturePath( cell ) );
+	private OthelloSearchTelemetry getEngineTelemetry() {
+		return ( engine != null ) ? engine.getTelemetry() : wideSearch.getTelemetry();
+	}
+
+	/**
+	 * Cancels the search in progress (if any)
+	 */
+	public synchronized void cancel() {
+		bookTelemetry = null;
+		if( pending != null ) {
+			pending.cancel( true );
+			if( engine != null ) {
+				engine.stop();
+			}
+			else {
+				wideSearch.stop();
+			}
+			pending = null;
 		}
-		
-		return list;
+		pondering = false;
+	}
+
+	/**
+	 * Cancels the search in progress (if any), and empties the time bank
+	 * (for a new game)
+	 */
+	public synchronized void reset() {
+		cancel();
+		timeBank	= 0;
+		telemetry	= null;
 	}
-	
+
 	/**
-	 * Capture Path Comparator
-	 * @author lawrence.daniels@gmail.com
+	 * Releases the resources (e.g. search threads) held by the processor
 	 */
-	private static class CapturePathComparator implements Comparator<OthelloCellCapturePath> {
-
-		/* 
-		 * (non-Javadoc)
-		 * @see java.util.Comparator#compare(java.lang.Object, java.lang.Object)
-		 */
-		public int compare( final OthelloCellCapturePath o1, final OthelloCellCapturePath o2 ) {
-			return o1.captureCount() - o2.captureCount();
+	public void shutdown() {
+		cancel();
+		executor.shutdownNow();
+		if( engine != null ) {
+			engine.shutdown();
 		}
-		
 	}
-	
+
+	/**
+	 * Starts searching the position expected after the player's reply
+	 */
+	private void ponder() {
+		// there's no pondering on other board sizes
+		if( engine == null ) {
+			return;
+		}
+
+		// predict the player's reply
+		final long own		= board.getDiscs( pieceHU )[0];
+		final long opponent	= board.getDiscs( pieceAI )[0];
+		predictedMove = engine.getRememberedMove( own, opponent );
+		if( predictedMove == -1 ) {
+			return;
+		}
+
+		// search the position that would follow
+		final long flipped = flips( own, opponent, predictedMove );
+		ponderOwn		= opponent & ~flipped;
+		ponderOpponent	= own | flipped | ( 1L << predictedMove );
+		pending			= submit( ponderOwn, ponderOpponent, UNLIMITED );
+		pondering		= true;
+	}
+
+	/**
+	 * Submits a search to the background thread
+	 * @param own the discs of the AI
+	 * @param opponent the discs of the player
+	 * @param budgetMillis the time available for the search (in milliseconds)
+	 * @return the {@link Future future} best move
+	 */
+	private Future<Integer> submit( final long own, final long opponent, final long budgetMillis ) {
+		return executor.submit( new Callable<Integer>() {
+			public Integer call() {
+				return engine.findBestMove( own, opponent, budgetMillis );
+			}
+		} );
+	}
+
+	/**
+	 * Submits a wide-board search to the background thread
+	 * @param own the discs of the AI
+	 * @param opponent the discs of the player
+	 * @param budgetMillis the time available for the search (in milliseconds)
+	 * @return the {@link Future future} best move
+	 */
+	private Future<Integer> submitWide( final long[] own, final long[] opponent, final long budgetMillis ) {
+		return executor.submit( new Callable<Integer>() {
+			public Integer call() {
+				return wideSearch.findBestMove( own, opponent, budgetMillis );
+			}
+		} );
+	}
+
+	/**
+	 * Returns the result of the given (completed) search
+	 * @param future the given search's {@link Future future}
+	 * @return the index of the best move's square, or -1 if there is none
+	 */
+	private static int getResult( final Future<Integer> future ) {
+		try {
+			return future.get();
+		}
+		catch( final InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			return -1;
+		}
+		catch( final ExecutionException e ) {
+			Logger.error( "AI: search failed: %s\n", e.getCause() );
+			return -1;
+		}
+	}
+
 }
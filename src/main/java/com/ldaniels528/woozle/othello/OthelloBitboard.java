@@ -0,0 +1,197 @@
+package com.ldaniels528.woozle.othello;
+
+/**
+ * Othello bitboard operations. Each colour's discs are held in a single
+ * 64-bit long, where the square at (column, row) is bit <tt>row * 8 + column</tt>.
+ * Legal moves and flipped discs are found a whole direction at a time
+ * (rather than square by square) using Kogge-Stone occluded fills: three
+ * shift-and-mask steps propagate every run across the whole board.
+ * @author lawrence.daniels@gmail.com
+ */
+final class OthelloBitboard {
+	public  static final int SIZE		= 8;
+	public  static final int SQUARES	= SIZE * SIZE;
+
+	// file masks (used to stop runs from wrapping around the board's edges)
+	private static final long NOT_A_FILE	= 0xFEFEFEFEFEFEFEFEL;
+	private static final long NOT_H_FILE	= 0x7F7F7F7F7F7F7F7FL;
+	private static final long ALL			= 0xFFFFFFFFFFFFFFFFL;
+
+	// the four directions in which squares increase (E, S, SE and SW),
+	// and the masks of the squares that can be reached by shifting left/right
+	private static final int[] SHIFTS		= { 1, 8, 9, 7 };
+	private static final long[] LEFT_MASKS	= { NOT_A_FILE, ALL, NOT_A_FILE, NOT_H_FILE };
+	private static final long[] RIGHT_MASKS	= { NOT_H_FILE, ALL, NOT_H_FILE, NOT_A_FILE };
+
+	// the starting position
+	public static final long INITIAL_YING	= square( 3, 3 ) | square( 4, 4 );
+	public static final long INITIAL_YANG	= square( 4, 3 ) | square( 3, 4 );
+
+	/**
+	 * Private Constructor
+	 */
+	private OthelloBitboard() {
+		super();
+	}
+
+	/**
+	 * Returns the index of the given square
+	 * @param column the given column
+	 * @param row the given row
+	 * @return the index (0 to 63)
+	 */
+	public static int index( final int column, final int row ) {
+		return row * SIZE + column;
+	}
+
+	/**
+	 * Returns the bit of the given square
+	 * @param column the given column
+	 * @param row the given row
+	 * @return the bit mask of the square
+	 */
+	public static long square( final int column, final int row ) {
+		return 1L << index( column, row );
+	}
+
+	/**
+	 * Returns the number of discs in the given bitboard
+	 * @param discs the given bitboard
+	 * @return the number of discs
+	 */
+	public static int count( final long discs ) {
+		return Long.bitCount( discs );
+	}
+
+	/**
+	 * Returns the squares on which the given side may legally move
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @return the bitboard of legal moves
+	 */
+	public static long legalMoves( final long own, final long opponent ) {
+		final long empty = ~( own | opponent );
+		long moves = 0;
+		for( int d = 0; d < SHIFTS.length; d++ ) {
+			final int shift = SHIFTS[d];
+
+			// runs of opponent discs starting next to our own, then the square beyond
+			final long left		= fillLeft( own, opponent, shift, LEFT_MASKS[d] ) & opponent;
+			final long right	= fillRight( own, opponent, shift, RIGHT_MASKS[d] ) & opponent;
+			moves |= ( ( left << shift ) & LEFT_MASKS[d] ) | ( ( right >>> shift ) & RIGHT_MASKS[d] );
+		}
+		return moves & empty;
+	}
+
+	/**
+	 * Returns the number of legal moves of the given side (its mobility)
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @return the number of legal moves
+	 */
+	public static int mobility( final long own, final long opponent ) {
+		return count( legalMoves( own, opponent ) );
+	}
+
+	/**
+	 * Indicates whether neither side can move (the game is over)
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @return true, if neither side has a legal move
+	 */
+	public static boolean isGameOver( final long own, final long opponent ) {
+		return ( legalMoves( own, opponent ) == 0 ) && ( legalMoves( opponent, own ) == 0 );
+	}
+
+	/**
+	 * Returns the discs that would be flipped by moving on the given square
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @param index the index of the given (empty) square
+	 * @return the bitboard of flipped discs, or zero if the move is illegal
+	 */
+	public static long flips( final long own, final long opponent, final int index ) {
+		final long move = 1L << index;
+		long flipped = 0;
+		for( int d = 0; d < SHIFTS.length; d++ ) {
+			final int shift = SHIFTS[d];
+
+			// a run of opponent discs is flipped if it's closed by one of our own
+			final long left = fillLeft( move, opponent, shift, LEFT_MASKS[d] );
+			if( ( ( left << shift ) & LEFT_MASKS[d] & own ) != 0 ) {
+				flipped |= left & opponent;
+			}
+			final long right = fillRight( move, opponent, shift, RIGHT_MASKS[d] );
+			if( ( ( right >>> shift ) & RIGHT_MASKS[d] & own ) != 0 ) {
+				flipped |= right & opponent;
+			}
+		}
+		return flipped;
+	}
+
+	/**
+	 * Reflects the given bitboard in the diagonal through (0,0) and (7,7),
+	 * i.e. swaps each square's column and row
+	 * @param discs the given bitboard
+	 * @return the reflected bitboard
+	 */
+	public static long flipDiagonal( long discs ) {
+		long t;
+		t = 0x0F0F0F0F00000000L & ( discs ^ ( discs << 28 ) );
+		discs ^= t ^ ( t >>> 28 );
+		t = 0x3333000033330000L & ( discs ^ ( discs << 14 ) );
+		discs ^= t ^ ( t >>> 14 );
+		t = 0x5500550055005500L & ( discs ^ ( discs << 7 ) );
+		discs ^= t ^ ( t >>> 7 );
+		return discs;
+	}
+
+	/**
+	 * Rotates the given bitboard a quarter turn
+	 * @param discs the given bitboard
+	 * @return the rotated bitboard
+	 */
+	public static long rotate( final long discs ) {
+		// a reflection in the diagonal, then one top to bottom
+		return Long.reverseBytes( flipDiagonal( discs ) );
+	}
+
+	/**
+	 * Extends the given discs along the propagators, in the direction
+	 * of increasing squares (Kogge-Stone occluded fill)
+	 * @param generator the given discs
+	 * @param propagator the squares along which the fill may travel
+	 * @param shift the number of bits per step
+	 * @param mask the squares that may be reached by a step
+	 * @return the filled bitboard (including the given discs)
+	 */
+	private static long fillLeft( long generator, long propagator, final int shift, final long mask ) {
+		propagator &= mask;
+		generator |= propagator & ( generator << shift );
+		propagator &= ( propagator << shift );
+		generator |= propagator & ( generator << ( shift * 2 ) );
+		propagator &= ( propagator << ( shift * 2 ) );
+		generator |= propagator & ( generator << ( shift * 4 ) );
+		return generator;
+	}
+
+	/**
+	 * Extends the given discs along the propagators, in the direction
+	 * of decreasing squares (Kogge-Stone occluded fill)
+	 * @param generator the given discs
+	 * @param propagator the squares along which the fill may travel
+	 * @param shift the number of bits per step
+	 * @param mask the squares that may be reached by a step
+	 * @return the filled bitboard (including the given discs)
+	 */
+	private static long fillRight( long generator, long propagator, final int shift, final long mask ) {
+		propagator &= mask;
+		generator |= propagator & ( generator >>> shift );
+		propagator &= ( propagator >>> shift );
+		generator |= propagator & ( generator >>> ( shift * 2 ) );
+		propagator &= ( propagator >>> ( shift * 2 ) );
+		generator |= propagator & ( generator >>> ( shift * 4 ) );
+		return generator;
+	}
+
+}
@@ -4,30 +4,47 @@ import com.ldaniels528.woozle.GameState;
 import com.ldaniels528.woozle.Logger;
 
 import java.awt.*;
-import java.util.Collection;
-import java.util.LinkedList;
 
 import static com.ldaniels528.woozle.othello.OthelloCamera.*;
+import static com.ldaniels528.woozle.othello.OthelloWideBitboard.count;
+import static com.ldaniels528.woozle.othello.OthelloWideBitboard.get;
 
 /**
- * This class represents the virtual game board for Othello
+ * This class represents the virtual game board for Othello. The discs
+ * of each colour are held in a {@link OthelloWideBitboard bitboard}, so
+ * the board may be of any even size from 4x4 to 32x32: 8x8 by default, or as given by
+ * the <tt>woozle.othello.size</tt> system property (e.g. 6, 10 or 16).
+ * <p>Moves are applied with {@link #makeMove(int, OthelloPiece)}, which
+ * records the flipped discs (as a mask) on a preallocated undo stack, so
+ * {@link #unmakeMove()} can take them back without copying the board;
+ * the disc counts are kept up to date as moves are made and unmade.</p>
  * @author lawrence.daniels@gmail.com
  */
 class OthelloBoard {
-	public  static final int COLUMNS	= 8;
-	public  static final int ROWS		= 8;
+	public  static final int COLUMNS	= getBoardSize();
+	public  static final int ROWS		= COLUMNS;
+	public  static final int SQUARES	= COLUMNS * ROWS;
 
 	// internal constants
 	private static final int Y_FUDGE	= 12;
+	private static final int MIN_SIZE	= 4;
+	private static final int MAX_SIZE	= 32;
 	
 	// internal fields
 	private final OthelloGameManager gameManager;
 	private final OthelloAIProcessor cpu;
 	private final OthelloPiece computer;
-	private final OthelloPiece[][] grid;
 	private final GridStatistics statistics;
 	private final OthelloPiece player;
 	private final OthelloCell hoverCell;
+	private final OthelloWideBitboard bitboard;
+	private final long[][] undoFlips;
+	private final int[] undoSquares;
+	private final OthelloPiece[] undoPieces;
+	private final long[] legalMoves;
+	private final long[] yingDiscs;
+	private final long[] yangDiscs;
+	private int undoCount;
 
 	/**
 	 * Creates an instance of the Othello playing board
@@ -37,18 +54,116 @@ class OthelloBoard {
 		this.gameManager	= gameManager;
 		this.player 		= OthelloPiece.YING;
 		this.computer		= OthelloPiece.YANG;
-		this.grid			= new OthelloPiece[COLUMNS][ROWS];
 		this.statistics		= new GridStatistics();
+		this.bitboard		= new OthelloWideBitboard( COLUMNS );
+		this.yingDiscs		= bitboard.create();
+		this.yangDiscs		= bitboard.create();
+		this.legalMoves		= bitboard.create();
 		this.cpu			= new OthelloAIProcessor( this, computer, player );
 		this.hoverCell		= new OthelloCell( -1, -1 );
+
+		// a game has at most one move per square
+		this.undoFlips		= new long[ SQUARES ][ bitboard.getWords() ];
+		this.undoSquares	= new int[ SQUARES ];
+		this.undoPieces		= new OthelloPiece[ SQUARES ];
+	}
+	
+	/**
+	 * Returns the board size given by the <tt>woozle.othello.size</tt> system
+	 * property; sizes that are odd, or too small or large, fall back to 8x8
+	 * @return the number of columns (and rows) of the board
+	 */
+	private static int getBoardSize() {
+		final int size = Integer.getInteger( "woozle.othello.size", OthelloBitboard.SIZE );
+		if( ( size % 2 != 0 ) || ( size < MIN_SIZE ) || ( size > MAX_SIZE ) ) {
+			Logger.error( "Board size %d is not supported (even sizes from %d to %d are); playing on %dx%d\n",
+					size, MIN_SIZE, MAX_SIZE, OthelloBitboard.SIZE, OthelloBitboard.SIZE );
+			return OthelloBitboard.SIZE;
+		}
+		return size;
+	}
+	
+	/**
+	 * Indicates whether the board is the standard (8x8) one, which the
+	 * 64-bit {@link OthelloBitboard bitboard} engines play on
+	 * @return true, if the board is 8x8
+	 */
+	public static boolean isStandard() {
+		return COLUMNS == OthelloBitboard.SIZE;
+	}
+	
+	/** 
+	 * Returns the piece at the given position
+	 * @param column the given column position
+	 * @param row the given row position
+	 * @return the {@link OthelloPiece piece}, or <tt>null</tt> if the cell is empty
+	 */
+	public OthelloPiece getPiece( final int column, final int row ) {
+		final int square = bitboard.index( column, row );
+		if( get( yingDiscs, square ) ) {
+			return OthelloPiece.YING;
+		}
+		else if( get( yangDiscs, square ) ) {
+			return OthelloPiece.YANG;
+		}
+		else {
+			return null;
+		}
+	}
+	
+	/** 
+	 * Returns the discs of the given piece (the board's own bitboard, which
+	 * changes as moves are made; on the standard board, word 0 holds all
+	 * the discs, laid out as for {@link OthelloBitboard})
+	 * @param piece the given {@link OthelloPiece piece}
+	 * @return the bitboard of discs
+	 */
+	public long[] getDiscs( final OthelloPiece piece ) {
+		return ( piece == OthelloPiece.YING ) ? yingDiscs : yangDiscs;
 	}
 	
 	/** 
-	 * Returns the grid of pieces
-	 * @return the grid of {@link OthelloPiece pieces}
+	 * Finds the squares on which the given piece may legally be placed
+	 * @param piece the given {@link OthelloPiece piece}
+	 * @param moves the bitboard to fill with the legal moves
+	 * @return true, if there is at least one legal move
 	 */
-	public OthelloPiece[][] getGrid() {
-		return grid;
+	public boolean getLegalMoves( final OthelloPiece piece, final long[] moves ) {
+		return bitboard.legalMoves( getDiscs( piece ), getDiscs( opposite( piece ) ), moves );
+	}
+	
+	/** 
+	 * Returns the number of legal moves of the given piece
+	 * @param piece the given {@link OthelloPiece piece}
+	 * @return the number of legal moves
+	 */
+	public int getMobility( final OthelloPiece piece ) {
+		return bitboard.mobility( getDiscs( piece ), getDiscs( opposite( piece ) ), legalMoves );
+	}
+	
+	/** 
+	 * Indicates whether the given piece has a legal move (otherwise it must pass)
+	 * @param piece the given {@link OthelloPiece piece}
+	 * @return true, if the piece may move
+	 */
+	public boolean canMove( final OthelloPiece piece ) {
+		return getLegalMoves( piece, legalMoves );
+	}
+	
+	/** 
+	 * Indicates whether the game is over (neither side can move)
+	 * @return true, if the game is over
+	 */
+	public boolean isGameOver() {
+		return !canMove( player ) && !canMove( computer );
+	}
+	
+	/** 
+	 * Returns the bitboard operations for the board's size
+	 * @return the {@link OthelloWideBitboard bitboard operations}
+	 */
+	public OthelloWideBitboard getBitboard() {
+		return bitboard;
 	}
 	
 	/** 
@@ -67,25 +182,27 @@ class OthelloBoard {
 		return statistics;
 	}
 
+	/** 
+	 * Returns the telemetry of the computer's most recent move
+	 * @return the {@link OthelloSearchTelemetry telemetry}, or <tt>null</tt> if the computer hasn't moved yet
+	 */
+	public OthelloSearchTelemetry getTelemetry() {
+		return cpu.getTelemetry();
+	}
+
 	/**
 	 * Setup the game board
 	 */
 	public void setup() {
-		// clear the board
-		for( int col = 0; col < COLUMNS; col++ ) {
-			for( int row = 0; row < ROWS; row++ ) {
-				grid[col][row] = null;
-			}
-		}
+		// abandon any search of the previous game
+		cpu.reset();
 		
 		// set the initial pieces
-		grid[3][3] = player;
-		grid[3][4] = computer;
-		grid[4][3] = computer;
-		grid[4][4] = player;
+		bitboard.setInitial( yingDiscs, yangDiscs );
+		undoCount = 0;
 		
-		// update the statistics
-		statistics.update();
+		// reset the statistics
+		statistics.reset();
 	}
 	
 	/**
@@ -106,6 +223,11 @@ class OthelloBoard {
 	 * @param point the given mouse click {@link Point point}
 	 */
 	public void handleMouseClicked( final Point point ) {
+		// the player may only move on his own turn
+		if( gameManager.getGameState() != GameState.PLAYING ) {
+			return;
+		}
+		
 		// get the (x,y) coordinates
 		final double x = point.getX();
 		final double y = point.getY();
@@ -119,27 +241,28 @@ class OthelloBoard {
 		// place the piece
 		if( ( column >= 0 ) && ( column < COLUMNS ) && 
 			( row >= 0 ) && ( row < ROWS ) ) {
-			// attempt to acquire the capture path
-			final Collection<OthelloCellCapturePath> paths = placePiece( column, row, player );
-			Logger.info( "player path = %s\n", paths );
+			// attempt to place the piece
+			final int flipped = placePiece( column, row, player );
+			Logger.info( "player flipped %d pieces\n", flipped );
 			
-			// if a path was found ...
-			if( !paths.isEmpty() ) {
-				// update the statistics
-				statistics.update();
-				
-				// get the counts
-				final int playerCount	= statistics.getPlayerCount();
-				final int computerCount = statistics.getComputerCount();
-				final int emptyCount	= statistics.getEmptyCount();
-				
+			// if pieces were captured ...
+			if( flipped != 0 ) {
 				// if no more moves... 
-				if( playerCount == 0 || computerCount == 0 || emptyCount == 0 ) {
-					gameManager.changeGameState( GameState.GAME_OVER );
+				if( isGameOver() ) {
+					endGame();
+				}
+				
+				// if the computer can't move, the player moves again (and
+				// the pondering, which expected a single move, is abandoned)
+				else if( !canMove( computer ) ) {
+					Logger.info( "computer passes\n" );
+					cpu.cancel();
+					gameManager.announce( "Computer Passes" );
 				}
 				
 				// allow the AI to take a turn
 				else {
+					cpu.startTurn( bitboard.index( column, row ) );
 					gameManager.changeGameState( GameState.ARTIFICIAL_INTELLIGENCE );
 				}
 			}
@@ -165,26 +288,48 @@ class OthelloBoard {
 	}
 	
 	/** 
-	 * Handles the computer's turn on the board game
+	 * Handles the computer's turn on the board game; the A.I. thinks
+	 * in the background, so this is called (once per frame) until it
+	 * has taken its turn
+	 * @return true, if the computer has taken its turn, and it's the player's turn
 	 */
-	public void handleCpuGamePlay() {
-		// execute the A.I. code
-		cpu.execute();
-		
-		// update the statistics
-		statistics.update();
-		
-		// get the counts
-		final int playerCount	= statistics.getPlayerCount();
-		final int computerCount = statistics.getComputerCount();
-		final int emptyCount	= statistics.getEmptyCount();
+	public boolean handleCpuGamePlay() {
+		// has the A.I. finished its turn?
+		if( !cpu.poll() ) {
+			return false;
+		}
 		
 		// if no more moves... 
-		if( playerCount == 0 || 
-			computerCount == 0 || 
-			emptyCount == 0 ) {
-			gameManager.changeGameState( GameState.GAME_OVER );
+		if( isGameOver() ) {
+			endGame();
+			return false;
 		}
+		
+		// if the player can't move, the computer moves again
+		if( !canMove( player ) ) {
+			Logger.info( "player must pass\n" );
+			gameManager.announce( "You Must Pass" );
+			cpu.startTurn( -1 );
+			return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Ends the game: at once if the board is full, otherwise
+	 * (neither side can move) after announcing it; the AI stops
+	 * pondering, so its search threads are idle until the next game
+	 */
+	private void endGame() {
+		cpu.cancel();
+		gameManager.changeGameState( ( statistics.getEmptyCount() == 0 ) ? GameState.GAME_OVER : GameState.OUT_OF_MOVES );
+	}
+	
+	/**
+	 * Releases the resources held by the computer player
+	 */
+	public void shutdown() {
+		cpu.shutdown();
 	}
 	
 	/**
@@ -192,126 +337,95 @@ class OthelloBoard {
 	 * @param column the given column position
 	 * @param row the given row position
 	 * @param piece the {@link OthelloBoard piece} to place
+	 * @return the number of captured (flipped) pieces, or zero if the move is illegal
 	 */
-	protected Collection<OthelloCellCapturePath> placePiece( final int column, 
-						   	 				   			   	 final int row, 
-						   	 				   			   	 final OthelloPiece piece ) {
-		// create a container for returning results
-		final Collection<OthelloCellCapturePath> paths = new LinkedList<OthelloCellCapturePath>();
-		
+	protected int placePiece( final int column, final int row, final OthelloPiece piece ) {
 		// the target position must be empty
-		if( grid[column][row] != null ) {
+		final int square = bitboard.index( column, row );
+		if( get( yingDiscs, square ) || get( yangDiscs, square ) ) {
 			Logger.error( "A piece already exists at {%d,%d}\n", column, row );
-			return paths;
+			return 0;
 		}
 		
-		// get the opponent's piece
-		final OthelloPiece opponent = opposite( piece );
-		
-		// define work variables
-		boolean ok;
-		int x,y;
-		
-		////////////////////////////////////////////////////////////////////
-		// Step 1: Scan Horizontally Left to Right 
-		////////////////////////////////////////////////////////////////////
-		x = column+1;
-		ok = false;
-		while( ( x < COLUMNS ) && ( grid[x][row] == opponent ) ) { ok = true; x++; }
-		if( ok && ( x < COLUMNS ) && ( grid[x][row] == piece ) ) {
-			paths.add( new OthelloCellCapturePath( column, row, x, row, piece ) );
-		}
-		
-		////////////////////////////////////////////////////////////////////
-		// Step 2: Scan Horizontally Right to Left 
-		////////////////////////////////////////////////////////////////////
-		x = column-1;
-		ok = false;
-		while( ( x >= 0 ) && ( grid[x][row] == opponent ) ) { ok = true; x--; }
-		if( ok && ( x >= 0 ) && grid[x][row] == piece ) {
-			paths.add( new OthelloCellCapturePath( x, row, column, row, piece ) );
-		}
-			
-		////////////////////////////////////////////////////////////////////
-		// Step 3: Scan Vertically Low to High
-		////////////////////////////////////////////////////////////////////
-		y = row+1;
-		ok = false;
-		while( ( y < ROWS ) && ( grid[column][y] == opponent ) ) { ok = true; y++; }
-		if( ok && ( y < ROWS ) && grid[column][y] == piece ) {
-			paths.add( new OthelloCellCapturePath( column, row, column, y, piece ) );
+		// place the piece, and flip the captured ones
+		return makeMove( square, piece );
+	}
+	
+	/**
+	 * Makes a move, recording it on the undo stack
+	 * @param square the index of the given square
+	 * @param piece the {@link OthelloPiece piece} to place
+	 * @return the number of captured (flipped) pieces, or zero if the move
+	 * is illegal (in which case the board is unchanged)
+	 */
+	public int makeMove( final int square, final OthelloPiece piece ) {
+		// determine the captured pieces
+		final long[] own		= getDiscs( piece );
+		final long[] opponent	= getDiscs( opposite( piece ) );
+		if( get( own, square ) || get( opponent, square ) ) {
+			return 0;
 		}
-		
-		////////////////////////////////////////////////////////////////////
-		// Step 4: Scan Vertically High to Low
-		////////////////////////////////////////////////////////////////////
-		y = row-1;
-		ok = false;
-		while( ( y >= 0 ) && ( grid[column][y] == opponent ) ) { ok = true; y--; }
-		if( ok && ( y >= 0 ) && grid[column][y] == piece ) {
-			paths.add( new OthelloCellCapturePath( column, row, column, y, piece ) );
+		final long[] flipped = undoFlips[undoCount];
+		final int count = bitboard.flips( own, opponent, square, flipped );
+		if( count == 0 ) {
+			return 0;
 		}
 		
-		////////////////////////////////////////////////////////////////////
-		// Step 5: Scan Diagonally Down Right
-		////////////////////////////////////////////////////////////////////
-		x = column+1;
-		y = row+1;
-		ok = false;
-		while( ( x < COLUMNS ) && ( y < ROWS ) && ( grid[x][y] == opponent ) ) { ok = true; x++; y++; }
-		if( ok && ( x < COLUMNS ) && ( y < ROWS ) && grid[x][y] == piece ) {
-			paths.add( new OthelloCellCapturePath( column, row, x, y, piece ) );
-		}
-
-		////////////////////////////////////////////////////////////////////
-		// Step 6: Scan Diagonally Up Right
-		////////////////////////////////////////////////////////////////////
-		x = column+1;
-		y = row-1;
-		ok = false;
-		while( ( x < COLUMNS ) && ( y >= 0 ) && ( grid[x][y] == opponent ) ) { ok = true; x++; y--; }	
-		if( ok && ( x < COLUMNS ) && ( y >= 0 ) && grid[x][y] == piece ) {
-			paths.add( new OthelloCellCapturePath( column, row, x, y, piece ) );
+		// place the piece, and flip the captured ones
+		for( int n = 0; n < flipped.length; n++ ) {
+			own[n]		|= flipped[n];
+			opponent[n]	&= ~flipped[n];
 		}
+		OthelloWideBitboard.set( own, square );
+		statistics.update( piece, count );
 		
-		////////////////////////////////////////////////////////////////////
-		// Step 7: Scan Diagonally Down Left
-		////////////////////////////////////////////////////////////////////
-		x = column-1;
-		y = row+1;
-		ok = false;
-		while( ( x >= 0 ) && ( y < ROWS ) && ( grid[x][y] == opponent ) ) { ok = true; x--; y++; }
-		if( ok && ( x >= 0 ) && ( y < ROWS ) && grid[x][y] == piece ) {
-			paths.add( new OthelloCellCapturePath( column, row, x, y, piece ) );
-		}
-				
-		////////////////////////////////////////////////////////////////////
-		// Step 8: Scan Diagonally Up Left 
-		////////////////////////////////////////////////////////////////////
-		x = column-1;
-		y = row-1;
-		ok = false;
-		while( ( x >= 0 ) && ( y >= 0 ) && ( grid[x][y] == opponent ) ) { ok = true; x--; y--; }	
-		if( ok && ( x >= 0 ) && ( y >= 0 ) && grid[x][y] == piece ) {
-			paths.add( new OthelloCellCapturePath( column, row, x, y, piece ) );
+		// remember how to take it back (the flipped discs are already on the stack)
+		undoSquares[undoCount]	= square;
+		undoPieces[undoCount]	= piece;
+		undoCount++;
+		return count;
+	}
+	
+	/**
+	 * Takes back the most recent move
+	 * @return true, if a move was taken back (false if there were none to take back)
+	 */
+	public boolean unmakeMove() {
+		if( undoCount == 0 ) {
+			return false;
 		}
 		
-		// execute the actions
-		for( final OthelloCellCapturePath path : paths ) {
-			path.execute( grid );
+		// remove the piece, and flip the captured ones back
+		undoCount--;
+		final long[] flipped		= undoFlips[undoCount];
+		final int square			= undoSquares[undoCount];
+		final OthelloPiece piece	= undoPieces[undoCount];
+		final long[] own			= getDiscs( piece );
+		final long[] opponent		= getDiscs( opposite( piece ) );
+		for( int n = 0; n < flipped.length; n++ ) {
+			own[n]		&= ~flipped[n];
+			opponent[n]	|= flipped[n];
 		}
-		
-		return paths;
+		own[square >>> 6] &= ~( 1L << square );
+		statistics.revert( piece, count( flipped ) );
+		return true;
+	}
+	
+	/**
+	 * Returns the number of moves that may be taken back
+	 * @return the number of moves on the undo stack
+	 */
+	public int getMoveCount() {
+		return undoCount;
 	}
 	
 	/**
-	 * Grid Statistics
+	 * Grid Statistics: the disc counts, kept up to date as moves are made and unmade
 	 * @author lawrence.daniels@gmail.com
 	 */
 	class GridStatistics {
-		private int playerCount;
-		private int computerCount;
-		private int emptyCount;
+		private int yingCount;
+		private int yangCount;
 		
 		/**
 		 * Default Constructor
@@ -320,25 +434,46 @@ class OthelloBoard {
 			super();
 		}
 		
-		public void update() {
-			playerCount		= 0;
-			computerCount	= 0;
-			emptyCount		= 0;
-			
-			// count the elements
-			for( int col = 0; col < COLUMNS; col++ ) {
-				for( int row = 0; row < ROWS; row++ ) {
-					final OthelloPiece piece = grid[col][row];
-					if( piece == null ) {
-						emptyCount++;
-					}
-					else {
-						switch( piece ) {
-							case YING: 	playerCount++; break;
-							case YANG: 	computerCount++; break;	
-						}
-					}
-				}
+		/**
+		 * Sets the counts of the initial position
+		 */
+		public void reset() {
+			yingCount = count( yingDiscs );
+			yangCount = count( yangDiscs );
+		}
+		
+		/**
+		 * Counts a move
+		 * @param piece the {@link OthelloPiece piece} placed
+		 * @param flipped the number of pieces captured
+		 */
+		public void update( final OthelloPiece piece, final int flipped ) {
+			add( piece, flipped + 1, -flipped );
+		}
+		
+		/**
+		 * Counts a move being taken back
+		 * @param piece the {@link OthelloPiece piece} removed
+		 * @param flipped the number of pieces given back
+		 */
+		public void revert( final OthelloPiece piece, final int flipped ) {
+			add( piece, -flipped - 1, flipped );
+		}
+		
+		/**
+		 * Adjusts the counts
+		 * @param piece the given {@link OthelloPiece piece}
+		 * @param own the change in the number of the piece's discs
+		 * @param opponent the change in the number of its opponent's discs
+		 */
+		private void add( final OthelloPiece piece, final int own, final int opponent ) {
+			if( piece == OthelloPiece.YING ) {
+				yingCount += own;
+				yangCount += opponent;
+			}
+			else {
+				yangCount += own;
+				yingCount += opponent;
 			}
 		}
 
@@ -346,24 +481,24 @@ class OthelloBoard {
 		 * @return the playerCount
 		 */
 		public int getPlayerCount() {
-			return playerCount;
+			return ( player == OthelloPiece.YING ) ? yingCount : yangCount;
 		}
 
 		/**
 		 * @return the computerCount
 		 */
 		public int getComputerCount() {
-			return computerCount;
+			return ( computer == OthelloPiece.YING ) ? yingCount : yangCount;
 		}
 
 		/**
 		 * @return the emptyCount
 		 */
 		public int getEmptyCount() {
-			return emptyCount;
+			return SQUARES - yingCount - yangCount;
 		}
 		
 	}
 
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,189 @@
+package com.ldaniels528.woozle.othello;
+
+import com.ldaniels528.woozle.Logger;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.ldaniels528.woozle.othello.OthelloBitboard.*;
+
+/**
+ * Builds the Othello {@link OthelloOpeningBook opening book} using the
+ * engine's own search. Each side in turn is taken as the book's side:
+ * every reply of the other side is followed, while the book's side only
+ * plays its book move, so the book holds an answer to every line the
+ * player can choose, up to the given number of plies.
+ * <p>Usage: OthelloBookGenerator [output file] [plies] [depth]</p>
+ * @author lawrence.daniels@gmail.com
+ */
+public class OthelloBookGenerator {
+	private static final int DEFAULT_PLIES	= 10;
+	private static final int DEFAULT_DEPTH	= 11;
+	private static final long UNLIMITED		= Long.MAX_VALUE;
+
+	// internal fields
+	private final OthelloSearch search;
+	private final int plies;
+	private final int depth;
+	private final Map<Long, Integer> bookMoves;
+	private long[] keys;
+	private int[] moves;
+	private int[] discs;
+	private int[] scores;
+	private int count;
+
+	/**
+	 * Creates a new opening book generator
+	 * @param plies the number of plies covered by the book
+	 * @param depth the depth of the searches (in plies)
+	 */
+	public OthelloBookGenerator( final int plies, final int depth ) {
+		this.plies		= plies;
+		this.depth		= depth;
+		this.search		= new OthelloSearch( OthelloAIProcessor.createEvaluator() );
+		this.bookMoves	= new HashMap<Long, Integer>();
+		this.keys		= new long[ 1024 ];
+		this.moves		= new int[ keys.length ];
+		this.discs		= new int[ keys.length ];
+		this.scores		= new int[ keys.length ];
+		search.setMaxDepth( depth );
+	}
+
+	/**
+	 * Generates the book's entries, following the lines
+	 * from the starting position
+	 */
+	public void generate() {
+		// the starting position, with the player (who moves first) to move
+		final Deque<long[]> queue = new ArrayDeque<long[]>();
+		final Set<Long> queued = new HashSet<Long>();
+		for( int bookSide = 0; bookSide < 2; bookSide++ ) {
+			queued.clear();
+			queue.add( new long[] { INITIAL_YING, INITIAL_YANG, 0 } );
+			while( !queue.isEmpty() ) {
+				final long[] position	= queue.poll();
+				final long own			= position[0];
+				final long opponent		= position[1];
+				final int ply			= (int)position[2];
+				if( ply >= plies ) {
+					continue;
+				}
+
+				// the book's side plays its book move; the other side plays anything
+				final long legal = legalMoves( own, opponent );
+				final long follow = ( ply % 2 == bookSide ) ? lookup( own, opponent ) : legal;
+				for( long bits = follow; bits != 0; bits &= bits - 1 ) {
+					final int move		= Long.numberOfTrailingZeros( bits );
+					final long flipped	= flips( own, opponent, move );
+					final long[] next	= { opponent & ~flipped, own | flipped | ( 1L << move ), ply + 1 };
+
+					// positions reached by transposition are only followed once
+					if( queued.add( OthelloZobrist.key( next[0], next[1] ) ) ) {
+						queue.add( next );
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the book move for the given position, searching it if it's new
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @return the bit of the book move, or zero if there is none
+	 */
+	private long lookup( final long own, final long opponent ) {
+		// was the position reached before (by another line)?
+		final long key = OthelloZobrist.key( own, opponent );
+		final Integer known = bookMoves.get( key );
+		if( known != null ) {
+			return ( known != -1 ) ? 1L << known : 0;
+		}
+
+		// search the position
+		final int move = search.findBestMove( own, opponent, UNLIMITED );
+		bookMoves.put( key, move );
+		if( move == -1 ) {
+			return 0;
+		}
+		add( key, move, count( own | opponent ), search.getBestScore() );
+		return 1L << move;
+	}
+
+	/**
+	 * Adds an entry to the book
+	 * @param key the position's key
+	 * @param move the book move
+	 * @param discCount the number of discs on the board
+	 * @param score the score of the book move
+	 */
+	private void add( final long key, final int move, final int discCount, final int score ) {
+		if( count == keys.length ) {
+			keys	= Arrays.copyOf( keys, count * 2 );
+			moves	= Arrays.copyOf( moves, count * 2 );
+			discs	= Arrays.copyOf( discs, count * 2 );
+			scores	= Arrays.copyOf( scores, count * 2 );
+		}
+		keys[count]		= key;
+		moves[count]	= move;
+		discs[count]	= discCount;
+		scores[count]	= score;
+		count++;
+	}
+
+	/**
+	 * Writes the book
+	 * @param out the given {@link OutputStream output stream}
+	 * @throws IOException
+	 */
+	public void write( final OutputStream out )
+	throws IOException {
+		OthelloOpeningBook.write( keys, moves, discs, scores, count, depth, out );
+	}
+
+	/**
+	 * Returns the number of positions in the book
+	 * @return the number of positions
+	 */
+	public int getEntryCount() {
+		return count;
+	}
+
+	/**
+	 * Generates the opening book
+	 * @param args the given command line arguments: [output file] [plies] [depth]
+	 * @throws IOException
+	 */
+	public static void main( final String[] args )
+	throws IOException {
+		final File file	= ( args.length > 0 ) ? new File( args[0] ) : OthelloOpeningBook.getLocalBookFile();
+		final int plies	= ( args.length > 1 ) ? Integer.parseInt( args[1] ) : DEFAULT_PLIES;
+		final int depth	= ( args.length > 2 ) ? Integer.parseInt( args[2] ) : DEFAULT_DEPTH;
+
+		// search the opening positions
+		final long startTime = System.currentTimeMillis();
+		final OthelloBookGenerator generator = new OthelloBookGenerator( plies, depth );
+		generator.generate();
+
+		// write the book
+		final OutputStream out = new FileOutputStream( file );
+		try {
+			generator.write( out );
+			Logger.info( "Wrote %d positions (%d plies, depth %d) to '%s' in %d ms\n",
+					generator.getEntryCount(), plies, depth, file.getAbsolutePath(), System.currentTimeMillis() - startTime );
+		}
+		finally {
+			out.close();
+		}
+	}
+
+}
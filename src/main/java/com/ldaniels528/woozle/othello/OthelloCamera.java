@@ -5,6 +5,9 @@ import com.ldaniels528.woozle.GameDisplayPane;
 import com.ldaniels528.woozle.SharedGameData;
 import com.ldaniels528.woozle.othello.OthelloBoard.GridStatistics;
 
+import java.awt.Color;
+
+import static com.ldaniels528.woozle.CustomColors.INFO1_FONT;
 import static com.ldaniels528.woozle.CustomColors.INFO2_FONT;
 import static com.ldaniels528.woozle.GameDisplayPane.BOARD_HEIGHT;
 import static com.ldaniels528.woozle.GameDisplayPane.BOARD_WIDTH;
@@ -16,28 +19,49 @@ import static java.awt.Cursor.getPredefinedCursor;
 import static java.lang.String.format;
 
 /**
- * Othello Camera
+ * Othello Camera. Besides the board and the score, it can show an overlay
+ * of the AI's {@link OthelloSearchTelemetry telemetry} for its last move
+ * (toggled with the 'T' key, or shown from the start if the
+ * <tt>woozle.othello.telemetry</tt> system property is <tt>true</tt>).
  * @author lawrence.daniels@gmail.com
  */
 class OthelloCamera extends Camera {
-	public  static final int CELL_WIDTH 	= 56;
-	public  static final int CELL_HEIGHT 	= 56;
+	// the cells shrink to fit larger boards into the 8x8 board's grid
+	public  static final int CELL_WIDTH 	= ( 56 * 8 ) / COLUMNS;
+	public  static final int CELL_HEIGHT 	= ( 56 * 8 ) / ROWS;
 	public  static final int X_OFFSET		= ( BOARD_WIDTH - BOARD_HEIGHT ) / 2;
 	public  static final int Y_OFFSET		= 0;
-	private static final int PIECE_WIDTH 	= CELL_WIDTH - 6;
-	private static final int PIECE_HEIGHT 	= CELL_HEIGHT - 6;
+	private static final int PIECE_WIDTH 	= CELL_WIDTH - Math.max( CELL_WIDTH / 9, 2 );
+	private static final int PIECE_HEIGHT 	= CELL_HEIGHT - Math.max( CELL_HEIGHT / 9, 2 );
 	private static final int GRID_WIDTH		= CELL_WIDTH * COLUMNS;
 	private static final int GRID_HEIGHT	= CELL_HEIGHT * ROWS;
 	
+	// the telemetry overlay (to the right of the grid)
+	private static final int OVERLAY_X		= X_OFFSET + GRID_WIDTH + 16;
+	private static final int OVERLAY_Y		= Y_OFFSET + 16;
+	private static final int OVERLAY_WIDTH	= BOARD_WIDTH - OVERLAY_X - 16;
+	private static final int OVERLAY_LINE	= 22;
+	private static final int OVERLAY_PV		= 6;
+	private static final Color OVERLAY_BACKGROUND = new Color( 0, 0, 0, 160 );
+	
 	// internal fields
 	private final SharedGameData gameData;
+	private boolean telemetryVisible;
 	
 	/**
 	 * Creates a new camera instance
 	 */
 	public OthelloCamera( final GameDisplayPane displayPane ) {
 		super( displayPane );
-		this.gameData = SharedGameData.getInstance();
+		this.gameData			= SharedGameData.getInstance();
+		this.telemetryVisible	= Boolean.getBoolean( "woozle.othello.telemetry" );
+	}
+	
+	/**
+	 * Shows the telemetry overlay if it's hidden, or hides it if it's shown
+	 */
+	public void toggleTelemetry() {
+		telemetryVisible = !telemetryVisible;
 	}
 	
 	/* 
@@ -70,6 +94,11 @@ class OthelloCamera extends Camera {
 		// draw the score
 		renderGameInfo( board.getStatistics() );
 		
+		// draw the AI's telemetry
+		if( telemetryVisible ) {
+			renderTelemetry( board.getTelemetry() );
+		}
+		
 		// display the messages
 		renderMessages();
 		
@@ -81,21 +110,18 @@ class OthelloCamera extends Camera {
 	 * Renders the pieces onto the grid
 	 */
 	private void renderGamePieces( final OthelloBoard board ) {
-		// get the grid
-		final OthelloPiece[][] grid = board.getGrid();
-		
 		// draw the pieces
 		for( int col = 0; col < COLUMNS; col++ ) {
 			for( int row = 0; row < ROWS; row++ ) {
 				// cache the piece
-				final OthelloPiece piece = grid[col][row];
+				final OthelloPiece piece = board.getPiece( col, row );
 				if( piece != null ) {
 					// compute the (x,y) coordinates
 					final int x = col * CELL_WIDTH + X_OFFSET + ( CELL_WIDTH - PIECE_WIDTH ) / 2;
 					final int y = row * CELL_HEIGHT + Y_OFFSET + ( CELL_HEIGHT - PIECE_HEIGHT ) / 2;
 					
 					// draw the piece
-					switch( grid[col][row] ) {
+					switch( piece ) {
 						case YING:
 							renderYing( x, y );
 							break;
@@ -200,4 +226,36 @@ class OthelloCamera extends Camera {
 		offScreen.drawString( format( "%02d", computerCount ), 20, 370 );
 	}
 	
+	/**
+	 * Renders the AI's telemetry onto the graphics context
+	 * @param telemetry the {@link OthelloSearchTelemetry telemetry}, or <tt>null</tt> if the AI hasn't moved yet
+	 */
+	private void renderTelemetry( final OthelloSearchTelemetry telemetry ) {
+		// gather the lines
+		final String[] lines = ( telemetry == null )
+			? new String[] { "AI telemetry", "(no moves yet)" }
+			: new String[] {
+				format( "AI telemetry (%s)", telemetry.getEngine() ),
+				format( "depth  %d", telemetry.getDepth() ),
+				format( "score  %d", telemetry.getScore() ),
+				format( "nodes  %d", telemetry.getNodes() ),
+				format( "speed  %.0fk/s", telemetry.getNodesPerSecond() / 1000 ),
+				format( "time   %d ms", telemetry.getElapsedMillis() ),
+				format( "TT     %.1f%% hits", telemetry.getTableHitRate() * 100 ),
+				format( "       %.1f%% full", telemetry.getTableFill() * 100 ),
+				format( "PV     %s", telemetry.formatPrincipalVariation( OVERLAY_PV ) )
+			};
+		
+		// draw the (translucent) background
+		offScreen.setColor( OVERLAY_BACKGROUND );
+		offScreen.fillRect( OVERLAY_X, OVERLAY_Y, OVERLAY_WIDTH, ( lines.length + 1 ) * OVERLAY_LINE );
+		
+		// draw the lines
+		offScreen.setFont( INFO1_FONT );
+		for( int n = 0; n < lines.length; n++ ) {
+			offScreen.setColor( ( n == 0 ) ? YELLOW : WHITE );
+			offScreen.drawString( lines[n], OVERLAY_X + 10, OVERLAY_Y + ( n + 1 ) * OVERLAY_LINE );
+		}
+	}
+	
 }
\ No newline at end of file
@@ -0,0 +1,314 @@
+package com.ldaniels528.woozle.othello;
+
+import static com.ldaniels528.woozle.othello.OthelloBitboard.*;
+
+/**
+ * Othello endgame solver: once few squares are left empty, the game is
+ * searched to the end, first for the outcome alone (win, loss or draw,
+ * which needs only a null window around zero, and is much cheaper), then
+ * for the exact final disc differential.
+ * <p>Moves are ordered fastest-first (the move leaving the opponent the
+ * fewest replies is tried first) while many squares are empty; close to
+ * the end, where counting replies costs more than it saves, moves in
+ * regions with an odd number of empty squares are tried first (parity:
+ * the side that moves last in a region usually gains from it). The last
+ * empty square is resolved without a search.</p>
+ * @author lawrence.daniels@gmail.com
+ */
+class OthelloEndgameSolver {
+	// the default number of empty squares at which the solver takes over
+	public static final int DEFAULT_EMPTIES = Integer.getInteger( "woozle.othello.endgame.empties", 16 );
+
+	// moves are ordered fastest-first down to this many empty squares
+	private static final int FASTEST_FIRST_EMPTIES = 7;
+
+	// the clock is checked once every 1024 nodes
+	private static final int CHECK_INTERVAL = 1023;
+
+	// the regions used for parity (the four quadrants)
+	private static final long[] QUADRANTS = {
+		0x000000000F0F0F0FL, 0x00000000F0F0F0F0L, 0x0F0F0F0F00000000L, 0xF0F0F0F000000000L
+	};
+
+	// the corners are favoured (on equal mobility)
+	private static final long CORNERS = square( 0, 0 ) | square( 7, 0 ) | square( 0, 7 ) | square( 7, 7 );
+
+	// the move lists (one per number of empty squares, so nothing is allocated while solving)
+	private final int[][] moveLists;
+	private final int[][] moveScores;
+
+	// internal fields
+	private volatile boolean stopped;
+	private long nodes;
+	private long deadline;
+	private boolean aborted;
+	private boolean exact;
+	private int score;
+
+	/**
+	 * Default Constructor
+	 */
+	public OthelloEndgameSolver() {
+		this.moveLists	= new int[ SQUARES + 1 ][ SQUARES ];
+		this.moveScores	= new int[ SQUARES + 1 ][ SQUARES ];
+	}
+
+	/**
+	 * Solves the given position
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @param deadline the time by which the solver must answer ({@link System#nanoTime()})
+	 * @return the index of the best move's square, or -1 if there is no legal
+	 * move, or the outcome could not be found in time
+	 */
+	public int solve( final long own, final long opponent, final long deadline ) {
+		this.deadline	= deadline;
+		this.nodes		= 0;
+		this.aborted	= false;
+		this.exact		= false;
+		this.score		= 0;
+
+		// find the outcome
+		final int empties = count( ~( own | opponent ) );
+		final int[] moves = moveLists[empties];
+		final int count = orderMoves( own, opponent, legalMoves( own, opponent ), empties );
+		if( count == 0 ) {
+			return -1;
+		}
+		int bestMove = solveRoot( own, opponent, moves, count, -1, 1 );
+		if( aborted ) {
+			return -1;
+		}
+
+		// then the exact differential (a draw is already exact)
+		if( score == 0 ) {
+			exact = true;
+			return bestMove;
+		}
+		final int outcome = score;
+		final int move = ( outcome > 0 )
+				? solveRoot( own, opponent, moves, count, 0, SQUARES + 1 )
+				: solveRoot( own, opponent, moves, count, -SQUARES - 1, 0 );
+		if( aborted ) {
+			// the outcome is still known
+			score = outcome;
+		}
+		else {
+			exact		= true;
+			bestMove	= move;
+		}
+		return bestMove;
+	}
+
+	/**
+	 * Requests that the solver return as soon as possible; may be called from any thread
+	 */
+	public void stop() {
+		stopped = true;
+	}
+
+	/**
+	 * Clears the stop request left over from an earlier search
+	 */
+	public void reset() {
+		stopped = false;
+	}
+
+	/**
+	 * Returns the number of positions visited by the most recent solve
+	 * @return the number of nodes
+	 */
+	public long getNodeCount() {
+		return nodes;
+	}
+
+	/**
+	 * Returns the score found by the most recent solve: the final disc
+	 * differential if it is {@link #isExact() exact}, otherwise just its sign
+	 * @return the score
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * Indicates whether the most recent solve found the exact disc differential
+	 * @return true, if the score is exact (rather than just the outcome)
+	 */
+	public boolean isExact() {
+		return exact;
+	}
+
+	/**
+	 * Searches the root moves within the given window
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @param moves the (ordered) root moves
+	 * @param count the number of root moves
+	 * @param alpha the score the side to move is already assured of
+	 * @param beta the score the opponent is already assured of
+	 * @return the index of the best move's square
+	 */
+	private int solveRoot( final long own, final long opponent, final int[] moves, final int count, int alpha, final int beta ) {
+		int bestMove = moves[0];
+		int best = -SQUARES - 1;
+		for( int n = 0; n < count && !aborted; n++ ) {
+			final int move		= moves[n];
+			final long flipped	= flips( own, opponent, move );
+			final int value		= -solve( opponent & ~flipped, own | flipped | ( 1L << move ), -beta, -alpha );
+			if( !aborted && ( value > best ) ) {
+				best		= value;
+				bestMove	= move;
+				if( best > alpha ) {
+					alpha = best;
+					if( alpha >= beta ) {
+						break;
+					}
+				}
+			}
+		}
+		score = best;
+		return bestMove;
+	}
+
+	/**
+	 * Solves the given position
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @param alpha the score the side to move is already assured of
+	 * @param beta the score the opponent is already assured of
+	 * @return the final disc differential, from the point of view of the side to move
+	 */
+	private int solve( final long own, final long opponent, int alpha, final int beta ) {
+		// check the clock (and for requests to stop) every so often
+		if( ( ( ++nodes & CHECK_INTERVAL ) == 0 ) &&
+			( stopped || ( System.nanoTime() > deadline ) || Thread.currentThread().isInterrupted() ) ) {
+			aborted = true;
+		}
+		if( aborted ) {
+			return 0;
+		}
+
+		// the last empty square needs no search
+		final long empty = ~( own | opponent );
+		final int empties = count( empty );
+		if( empties == 1 ) {
+			return solveLastSquare( own, opponent, Long.numberOfTrailingZeros( empty ) );
+		}
+
+		// if there are no legal moves, pass (or the game is over)
+		final long legal = legalMoves( own, opponent );
+		if( legal == 0 ) {
+			if( legalMoves( opponent, own ) == 0 ) {
+				return count( own ) - count( opponent );
+			}
+			return -solve( opponent, own, -beta, -alpha );
+		}
+
+		// search the moves in order
+		final int[] moves = moveLists[empties];
+		final int count = orderMoves( own, opponent, legal, empties );
+		int best = -SQUARES - 1;
+		for( int n = 0; n < count; n++ ) {
+			final int move		= moves[n];
+			final long flipped	= flips( own, opponent, move );
+			final int value		= -solve( opponent & ~flipped, own | flipped | ( 1L << move ), -beta, -alpha );
+			if( value > best ) {
+				best = value;
+				if( best > alpha ) {
+					alpha = best;
+					if( alpha >= beta ) {
+						break;
+					}
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Resolves the position with a single empty square
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @param square the index of the empty square
+	 * @return the final disc differential, from the point of view of the side to move
+	 */
+	private int solveLastSquare( final long own, final long opponent, final int square ) {
+		nodes++;
+
+		// can the side to move play it?
+		long flipped = flips( own, opponent, square );
+		if( flipped != 0 ) {
+			return count( own ) + count( flipped ) + 1 - ( count( opponent ) - count( flipped ) );
+		}
+
+		// otherwise, can the opponent?
+		flipped = flips( opponent, own, square );
+		if( flipped != 0 ) {
+			return ( count( own ) - count( flipped ) ) - ( count( opponent ) + count( flipped ) + 1 );
+		}
+
+		// neither can: the square stays empty
+		return count( own ) - count( opponent );
+	}
+
+	/**
+	 * Orders the given moves into the move list for the given number of empty squares
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @param legal the legal moves
+	 * @param empties the number of empty squares
+	 * @return the number of moves
+	 */
+	private int orderMoves( final long own, final long opponent, final long legal, final int empties ) {
+		final int[] moves = moveLists[empties];
+
+		// the moves in regions with an odd number of empty squares come first
+		final long empty = ~( own | opponent );
+		long odd = 0;
+		for( final long quadrant : QUADRANTS ) {
+			if( ( count( empty & quadrant ) & 1 ) != 0 ) {
+				odd |= quadrant;
+			}
+		}
+
+		// close to the end, order by parity alone
+		int count = 0;
+		if( empties <= FASTEST_FIRST_EMPTIES ) {
+			for( long bits = legal & odd; bits != 0; bits &= bits - 1 ) {
+				moves[count++] = Long.numberOfTrailingZeros( bits );
+			}
+			for( long bits = legal & ~odd; bits != 0; bits &= bits - 1 ) {
+				moves[count++] = Long.numberOfTrailingZeros( bits );
+			}
+			return count;
+		}
+
+		// otherwise, fastest-first: the fewer replies left to the opponent, the better
+		final int[] scores = moveScores[empties];
+		for( long bits = legal; bits != 0; bits &= bits - 1 ) {
+			final int move		= Long.numberOfTrailingZeros( bits );
+			final long bit		= 1L << move;
+			final long flipped	= flips( own, opponent, move );
+			int value = mobility( opponent & ~flipped, own | flipped | bit ) * 4;
+			if( ( bit & odd ) != 0 ) {
+				value -= 1;
+			}
+			if( ( bit & CORNERS ) != 0 ) {
+				value -= 2;
+			}
+
+			// insert the move in order
+			int n = count++;
+			while( ( n > 0 ) && ( scores[n - 1] > value ) ) {
+				moves[n]	= moves[n - 1];
+				scores[n]	= scores[n - 1];
+				n--;
+			}
+			moves[n]	= move;
+			scores[n]	= value;
+		}
+		return count;
+	}
+
+}
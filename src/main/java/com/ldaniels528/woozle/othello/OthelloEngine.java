@@ -0,0 +1,53 @@
+package com.ldaniels528.woozle.othello;
+
+/**
+ * Represents an Othello move-selection engine; engines are given
+ * the position as a pair of {@link OthelloBitboard bitboards} and
+ * a time budget within which to answer.
+ * @author lawrence.daniels@gmail.com
+ */
+interface OthelloEngine {
+
+	/**
+	 * Finds the best move for the side to move
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @param budgetMillis the time available for the move (in milliseconds)
+	 * @return the index of the square to move on, or -1 if there is no legal move
+	 */
+	int findBestMove( long own, long opponent, long budgetMillis );
+
+	/**
+	 * Requests that the search in progress (if any) return as soon as
+	 * possible, with the best move found so far; may be called from any thread.
+	 * (Interrupting the searching thread has the same effect.)
+	 */
+	void stop();
+
+	/**
+	 * Returns the best move remembered (from earlier searches) for the given position
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @return the index of the move's square, or -1 if none is known
+	 */
+	int getRememberedMove( long own, long opponent );
+
+	/**
+	 * Returns the number of positions visited by the most recent search
+	 * @return the number of nodes
+	 */
+	long getNodeCount();
+
+	/**
+	 * Returns the telemetry of the most recent search
+	 * @return the {@link OthelloSearchTelemetry telemetry}, or <tt>null</tt>
+	 * if there has been no search (or it found no move)
+	 */
+	OthelloSearchTelemetry getTelemetry();
+
+	/**
+	 * Releases the resources (e.g. threads) held by the engine
+	 */
+	void shutdown();
+
+}
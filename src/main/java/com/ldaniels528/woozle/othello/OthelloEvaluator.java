@@ -0,0 +1,17 @@
+package com.ldaniels528.woozle.othello;
+
+/**
+ * Represents a static evaluation function for Othello positions
+ * @author lawrence.daniels@gmail.com
+ */
+interface OthelloEvaluator {
+
+	/**
+	 * Evaluates the given position from the point of view of the side to move
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @return the score (positive values favour the side to move)
+	 */
+	int evaluate( long own, long opponent );
+
+}
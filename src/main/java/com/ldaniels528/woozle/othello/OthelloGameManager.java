@@ -5,6 +5,7 @@ import com.ldaniels528.woozle.GameManager;
 import com.ldaniels528.woozle.GameState;
 import com.ldaniels528.woozle.InGameMessage;
 
+import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 
 import static java.awt.Color.RED;
@@ -85,13 +86,21 @@ public class OthelloGameManager extends GameManager {
 		}
 	}
 
+	/**
+	 * Displays a message (e.g. a pass) without changing the game state
+	 * @param message the given message
+	 */
+	public void announce( final String message ) {
+		camera.setMessage( new InGameMessage( message, YELLOW, 1500 ) );
+	}
+
 	/* 
 	 * (non-Javadoc)
 	 * @see com.ldaniels528.woozle.GameManager#shutdown()
 	 */
 	public void shutdown() {
 		super.shutdown();
-		// TODO shutdown stuff here
+		board.shutdown();
 	}
 
 	/* 
@@ -138,14 +147,11 @@ public class OthelloGameManager extends GameManager {
 	 * Handles the "Artificial Intelligence" game state
 	 */
 	private void handleComputerPlaying() {
-		if( System.currentTimeMillis() - gameStateChangeTime >= 1000 ) {
-			// allow the AI to take his turn
-			board.handleCpuGamePlay();
-			
-			// switch the control back to the player
-			if( gameState == GameState.ARTIFICIAL_INTELLIGENCE ) {
-				changeGameState( GameState.PLAYING );
-			}
+		// the AI thinks in the background; switch the control back
+		// to the player once it has taken its turn (unless the
+		// player must pass, or the game is over)
+		if( board.handleCpuGamePlay() && ( gameState == GameState.ARTIFICIAL_INTELLIGENCE ) ) {
+			changeGameState( GameState.PLAYING );
 		}
 	}
 
@@ -199,6 +205,18 @@ public class OthelloGameManager extends GameManager {
 		// do nothing
 	}
 	
+	/* 
+	 * (non-Javadoc)
+	 * @see java.awt.event.KeyListener#keyTyped(java.awt.event.KeyEvent)
+	 */
+	public void keyTyped( final KeyEvent event ) {
+		// 'T' shows (or hides) the AI's telemetry
+		final char keyChar = event.getKeyChar();
+		if( ( keyChar == 'T' ) || ( keyChar == 't' ) ) {
+			camera.toggleTelemetry();
+		}
+	}
+	
 	/* 
 	 * (non-Javadoc)
 	 * @see java.awt.event.MouseListener#mouseClicked(java.awt.event.MouseEvent)
@@ -0,0 +1,646 @@
+package com.ldaniels528.woozle.othello;
+
+import static com.ldaniels528.woozle.othello.OthelloBitboard.*;
+import static java.lang.String.format;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import com.ldaniels528.woozle.Logger;
+
+/**
+ * Monte Carlo tree search (UCT) engine for Othello. Each iteration walks
+ * down the tree, picking the child with the best upper confidence bound,
+ * grows the tree by one node's children, then plays the game out at random
+ * from there and counts the result back up the path.
+ * <p>The tree is held in flat arrays (children are stored next to each
+ * other, and positions are replayed from the root rather than stored), so
+ * nothing is allocated while searching; the random playouts work on
+ * {@link OthelloBitboard bitboards} with a xorshift generator. Several
+ * workers search the same tree: each takes the tree's lock only to walk
+ * it and to count its result, and marks the path it took with a virtual
+ * loss, so the other workers spread out rather than follow it.</p>
+ * <p>The tree is kept between moves: when the next search starts from a
+ * position reached from the old root (the AI's move, then the player's
+ * reply), that node becomes the new root, and its statistics are kept.
+ * Near the end of the game, the {@link OthelloEndgameSolver endgame solver}
+ * takes over, as it does for the alpha-beta search.</p>
+ * @author lawrence.daniels@gmail.com
+ */
+class OthelloMctsSearch implements OthelloEngine {
+	// the default capacity of the tree (in nodes)
+	public static final int DEFAULT_NODES = Integer.getInteger( "woozle.othello.mcts.nodes", 1 << 21 );
+
+	// the weight of exploration (against exploitation) in the upper confidence bound
+	private static final double EXPLORATION = 0.7;
+
+	// the number of losses a worker charges to the path it's playing out
+	private static final int VIRTUAL_LOSS = 3;
+
+	// a node's children are added once it has been visited this often
+	private static final int EXPANSION_VISITS = 2;
+
+	// the move that passes (no legal moves)
+	private static final int PASS = SQUARES;
+
+	// a game lasts at most one move per square, and one pass per move
+	private static final int MAX_PATH = SQUARES * 2 + 1;
+
+	// the results (in half points)
+	private static final int WIN	= 2;
+	private static final int DRAW	= 1;
+
+	// the tree
+	private final int[] firstChild;
+	private final byte[] childCount;
+	private final byte[] moves;
+	private final int[] visits;
+	private final int[] scores;
+	private final int capacity;
+	private int nodeCount;
+	private int root;
+	private long rootOwn;
+	private long rootOpponent;
+
+	// internal fields
+	private final Object lock;
+	private final Worker[] workers;
+	private final ExecutorService executor;
+	private final Future<?>[] futures;
+	private final OthelloEndgameSolver solver;
+	private volatile boolean stopped;
+	private long deadline;
+	private int endgameEmpties;
+	private int active;
+	private long solverNodes;
+	private OthelloSearchTelemetry telemetry;
+
+	/**
+	 * Creates a new Monte Carlo tree search engine
+	 * @param threads the number of search threads
+	 */
+	public OthelloMctsSearch( final int threads ) {
+		this( threads, DEFAULT_NODES );
+	}
+
+	/**
+	 * Creates a new Monte Carlo tree search engine
+	 * @param threads the number of search threads
+	 * @param capacity the capacity of the tree (in nodes)
+	 */
+	public OthelloMctsSearch( final int threads, final int capacity ) {
+		this.capacity		= capacity;
+		this.firstChild		= new int[ capacity ];
+		this.childCount		= new byte[ capacity ];
+		this.moves			= new byte[ capacity ];
+		this.visits			= new int[ capacity ];
+		this.scores			= new int[ capacity ];
+		this.lock			= new Object();
+		this.solver			= new OthelloEndgameSolver();
+		this.endgameEmpties	= OthelloEndgameSolver.DEFAULT_EMPTIES;
+		this.workers		= new Worker[ Math.max( threads, 1 ) ];
+		this.futures		= new Future<?>[ workers.length ];
+		for( int n = 0; n < workers.length; n++ ) {
+			workers[n] = new Worker( n );
+		}
+
+		// the helpers run on daemon threads, so they never hold up the exit
+		this.executor = ( workers.length > 1 ) ? Executors.newFixedThreadPool( workers.length - 1, new ThreadFactory() {
+			private int count;
+
+			public Thread newThread( final Runnable runnable ) {
+				final Thread thread = new Thread( runnable, "othello-mcts-" + ( ++count ) );
+				thread.setDaemon( true );
+				return thread;
+			}
+		} ) : null;
+	}
+
+	/**
+	 * Sets the number of empty squares at (or below) which the endgame solver takes over
+	 * @param endgameEmpties the number of empty squares (zero to never solve)
+	 */
+	public void setEndgameEmpties( final int endgameEmpties ) {
+		this.endgameEmpties = endgameEmpties;
+	}
+
+	/**
+	 * Returns the number of playouts made by the most recent search
+	 * @return the number of playouts
+	 */
+	public long getPlayoutCount() {
+		long playouts = 0;
+		for( int n = 0; n < active; n++ ) {
+			playouts += workers[n].playouts;
+		}
+		return playouts;
+	}
+
+	/**
+	 * Returns the number of nodes in the tree
+	 * @return the number of nodes
+	 */
+	public int getTreeSize() {
+		return nodeCount;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.othello.OthelloEngine#findBestMove(long, long, long)
+	 */
+	public int findBestMove( final long own, final long opponent, final long budgetMillis ) {
+		final long startTime = System.nanoTime();
+		this.deadline		= startTime + Math.min( budgetMillis, Long.MAX_VALUE / 4000000L ) * 1000000L;
+		this.stopped		= false;
+		this.active			= 0;
+		this.solverNodes	= 0;
+		this.telemetry		= null;
+		solver.reset();
+
+		// gather the legal moves
+		final long legal = legalMoves( own, opponent );
+		if( legal == 0 ) {
+			return -1;
+		}
+		if( count( legal ) == 1 ) {
+			final int move = Long.numberOfTrailingZeros( legal );
+			telemetry = createTelemetry( move, 0, 0, startTime, new int[] { move } );
+			return move;
+		}
+
+		// near the end of the game, solve the position outright (within half
+		// the time, so a search can still be made if the solver runs out)
+		if( SQUARES - count( own | opponent ) <= endgameEmpties ) {
+			final int move = solver.solve( own, opponent, startTime + ( deadline - startTime ) / 2 );
+			solverNodes = solver.getNodeCount();
+			if( move != -1 ) {
+				Logger.info( "AI: solved, score %d%s, %d nodes in %d ms\n", solver.getScore(), solver.isExact() ? "" : " (outcome)",
+						solverNodes, ( System.nanoTime() - startTime ) / 1000000L );
+				telemetry = createTelemetry( move, SQUARES - count( own | opponent ), solver.getScore(), startTime, new int[] { move } );
+				return move;
+			}
+		}
+
+		// carry on with the old tree (if the position was reached from its root)
+		final int reused;
+		synchronized( lock ) {
+			reused = reuseTree( own, opponent );
+			if( firstChild[root] == -1 ) {
+				expand( root, own, opponent );
+			}
+		}
+
+		// start the helpers, then search on this thread too
+		active = workers.length;
+		for( int n = 1; n < workers.length; n++ ) {
+			futures[n] = executor.submit( workers[n] );
+		}
+		workers[0].call();
+
+		// stop the helpers
+		stopped = true;
+		for( int n = 1; n < workers.length; n++ ) {
+			waitFor( futures[n] );
+			futures[n] = null;
+		}
+
+		// play the most visited move
+		final int best = getMostVisitedChild( root );
+		final int move = moves[best];
+		final long playouts = getPlayoutCount();
+		final long elapsed = Math.max( System.nanoTime() - startTime, 1 );
+		final int[] line = getPrincipalVariation();
+		telemetry = createTelemetry( move, line.length, (int)Math.round( scores[best] * 50.0 / Math.max( visits[best], 1 ) ), startTime, line );
+		Logger.info( "AI: MCTS %d threads, %d playouts in %d ms (%.0f playouts/sec), tree %d nodes (%d playouts reused), best {%d,%d} %.1f%%\n",
+				workers.length, playouts, elapsed / 1000000L, playouts * 1e9 / elapsed, nodeCount, reused,
+				move % SIZE, move / SIZE, scores[best] * 50.0 / Math.max( visits[best], 1 ) );
+		return move;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.othello.OthelloEngine#stop()
+	 */
+	public void stop() {
+		stopped = true;
+		solver.stop();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.othello.OthelloEngine#getRememberedMove(long, long)
+	 */
+	public int getRememberedMove( final long own, final long opponent ) {
+		synchronized( lock ) {
+			// the position must be in the tree (and its children visited)
+			final int node = ( nodeCount > 0 ) ? find( own, opponent ) : -1;
+			if( ( node == -1 ) || ( firstChild[node] == -1 ) ) {
+				return -1;
+			}
+			final int best = getMostVisitedChild( node );
+			return ( ( moves[best] != PASS ) && ( visits[best] > 0 ) ) ? moves[best] : -1;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.othello.OthelloEngine#getNodeCount()
+	 */
+	public long getNodeCount() {
+		long nodes = solverNodes;
+		for( int n = 0; n < active; n++ ) {
+			nodes += workers[n].nodes;
+		}
+		return nodes;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.othello.OthelloEngine#getTelemetry()
+	 */
+	public OthelloSearchTelemetry getTelemetry() {
+		return telemetry;
+	}
+
+	/**
+	 * Creates the telemetry of the search; the score is the move's winning
+	 * chance (as a percentage), or the disc differential once solved
+	 * @param move the index of the move's square
+	 * @param depth the depth of the principal variation (or the solved depth)
+	 * @param score the score of the move
+	 * @param startTime the time the search started (in nanoseconds)
+	 * @param line the principal variation
+	 * @return the {@link OthelloSearchTelemetry telemetry}
+	 */
+	private OthelloSearchTelemetry createTelemetry( final int move, final int depth, final int score, final long startTime, final int[] line ) {
+		return new OthelloSearchTelemetry( format( "mcts x%d", workers.length ), SIZE, move, depth, score,
+				getNodeCount(), Math.max( System.nanoTime() - startTime, 1 ), 0, 0, 0, line );
+	}
+
+	/**
+	 * Returns the principal variation: the most visited path down the tree
+	 * @return the expected line of play
+	 */
+	private int[] getPrincipalVariation() {
+		synchronized( lock ) {
+			final int[] line = new int[ MAX_PATH ];
+			int length = 0;
+			for( int node = root; ( firstChild[node] != -1 ) && ( childCount[node] > 0 ) && ( length < MAX_PATH ); ) {
+				final int best = getMostVisitedChild( node );
+				if( visits[best] == 0 ) {
+					break;
+				}
+				line[length++] = ( moves[best] != PASS ) ? moves[best] : OthelloSearchTelemetry.PASS;
+				node = best;
+			}
+			return Arrays.copyOf( line, length );
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.othello.OthelloEngine#shutdown()
+	 */
+	public void shutdown() {
+		stop();
+		if( executor != null ) {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Makes the node of the given position the root, if it's in the tree;
+	 * otherwise starts a new tree
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @return the number of nodes visited in the kept subtree (zero if a new tree was started)
+	 */
+	private int reuseTree( final long own, final long opponent ) {
+		// the old tree is kept unless it's nearly full
+		final int node = ( nodeCount > 0 ) && ( nodeCount < capacity / 2 ) ? find( own, opponent ) : -1;
+		if( node != -1 ) {
+			root			= node;
+			rootOwn			= own;
+			rootOpponent	= opponent;
+			return visits[node];
+		}
+
+		// start a new tree
+		nodeCount		= 0;
+		root			= allocate( 1 );
+		rootOwn			= own;
+		rootOpponent	= opponent;
+		moves[root]		= (byte)PASS;
+		return 0;
+	}
+
+	/**
+	 * Finds the node of the given position, within two plies of the root
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @return the node, or -1 if the position isn't in the tree
+	 */
+	private int find( final long own, final long opponent ) {
+		if( ( rootOwn == own ) && ( rootOpponent == opponent ) ) {
+			return root;
+		}
+
+		// the children (the side to move changes), then the grandchildren
+		if( firstChild[root] == -1 ) {
+			return -1;
+		}
+		for( int child = firstChild[root], end = child + childCount[root]; child < end; child++ ) {
+			final int move = moves[child];
+			final long flipped = ( move != PASS ) ? flips( rootOwn, rootOpponent, move ) : 0;
+			final long childOwn = rootOpponent & ~flipped;
+			final long childOpponent = rootOwn | flipped | ( ( move != PASS ) ? 1L << move : 0 );
+			if( ( childOwn == own ) && ( childOpponent == opponent ) ) {
+				return child;
+			}
+			if( firstChild[child] == -1 ) {
+				continue;
+			}
+			for( int grandchild = firstChild[child], last = grandchild + childCount[child]; grandchild < last; grandchild++ ) {
+				final int reply = moves[grandchild];
+				final long captured = ( reply != PASS ) ? flips( childOwn, childOpponent, reply ) : 0;
+				if( ( ( childOpponent & ~captured ) == own ) &&
+					( ( childOwn | captured | ( ( reply != PASS ) ? 1L << reply : 0 ) ) == opponent ) ) {
+					return grandchild;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Allocates the given number of (unexpanded) nodes
+	 * @param count the given number of nodes
+	 * @return the first of the nodes
+	 */
+	private int allocate( final int count ) {
+		final int first = nodeCount;
+		for( int node = first; node < first + count; node++ ) {
+			firstChild[node]	= -1;
+			childCount[node]	= 0;
+			visits[node]		= 0;
+			scores[node]		= 0;
+		}
+		nodeCount += count;
+		return first;
+	}
+
+	/**
+	 * Adds the children of the given node (one per legal move, or a
+	 * single pass), if there is room in the tree
+	 * @param node the given node
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @return true, if the node was expanded
+	 */
+	private boolean expand( final int node, final long own, final long opponent ) {
+		final long legal = legalMoves( own, opponent );
+		final int count = ( legal != 0 ) ? count( legal ) : 1;
+		if( nodeCount + count > capacity ) {
+			return false;
+		}
+		final int first = allocate( count );
+		if( legal == 0 ) {
+			moves[first] = (byte)PASS;
+		}
+		else {
+			int child = first;
+			for( long bits = legal; bits != 0; bits &= bits - 1 ) {
+				moves[child++] = (byte)Long.numberOfTrailingZeros( bits );
+			}
+		}
+		childCount[node] = (byte)count;
+		firstChild[node] = first;
+		return true;
+	}
+
+	/**
+	 * Returns the most visited child of the given (expanded) node
+	 * @param node the given node
+	 * @return the child
+	 */
+	private int getMostVisitedChild( final int node ) {
+		int best = firstChild[node];
+		for( int child = best + 1, end = firstChild[node] + childCount[node]; child < end; child++ ) {
+			if( visits[child] > visits[best] ) {
+				best = child;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Waits for the given (stopped) helper to finish; the wait is not
+	 * cut short by interruption, so a helper is never left running into
+	 * the next search
+	 * @param future the given helper's {@link Future future}
+	 */
+	private void waitFor( final Future<?> future ) {
+		boolean interrupted = false;
+		try {
+			while( true ) {
+				try {
+					future.get();
+					return;
+				}
+				catch( final InterruptedException e ) {
+					interrupted = true;
+				}
+				catch( final ExecutionException e ) {
+					Logger.error( "AI: search thread failed: %s\n", e.getCause() );
+					return;
+				}
+			}
+		}
+		finally {
+			if( interrupted ) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Plays a game out at random
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @param worker the {@link Worker worker} (for its random numbers, and node count)
+	 * @return the result for the side to move (in half points)
+	 */
+	private static int playout( long own, long opponent, final Worker worker ) {
+		boolean swapped = false;
+		boolean passed = false;
+		int plies = 0;
+		while( true ) {
+			final long legal = legalMoves( own, opponent );
+			if( legal != 0 ) {
+				// play one of the legal moves (at random)
+				long bits = legal;
+				for( int skip = worker.nextInt( count( legal ) ); skip > 0; skip-- ) {
+					bits &= bits - 1;
+				}
+				final int move = Long.numberOfTrailingZeros( bits );
+				final long captured = flips( own, opponent, move );
+				own |= captured | ( 1L << move );
+				opponent &= ~captured;
+				passed = false;
+				plies++;
+			}
+			else if( passed ) {
+				// neither side can move
+				break;
+			}
+			else {
+				passed = true;
+			}
+
+			// it's the other side's turn
+			final long swap = own;
+			own			= opponent;
+			opponent	= swap;
+			swapped		= !swapped;
+		}
+		worker.nodes += plies;
+
+		// score the game for the side that started the playout
+		final int discs = swapped ? count( opponent ) - count( own ) : count( own ) - count( opponent );
+		return ( discs > 0 ) ? WIN : ( ( discs < 0 ) ? 0 : DRAW );
+	}
+
+	/**
+	 * A search thread: repeatedly walks the tree, plays out and counts the result
+	 * @author lawrence.daniels@gmail.com
+	 */
+	private class Worker implements Callable<Integer> {
+		private final int[] path;
+		private long seed;
+		private long playouts;
+		private long nodes;
+
+		/**
+		 * Creates a new worker
+		 * @param index the worker's index (to vary its random numbers)
+		 */
+		public Worker( final int index ) {
+			this.path = new int[ MAX_PATH ];
+			this.seed = 0x9E3779B97F4A7C15L * ( index + 1 ) ^ System.nanoTime();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.util.concurrent.Callable#call()
+		 */
+		public Integer call() {
+			playouts	= 0;
+			nodes		= 0;
+			while( !stopped && ( System.nanoTime() < deadline ) && !Thread.currentThread().isInterrupted() ) {
+				iterate();
+				playouts++;
+			}
+			return null;
+		}
+
+		/**
+		 * Makes one iteration: selection, expansion, playout and back-propagation
+		 */
+		private void iterate() {
+			long own;
+			long opponent;
+			int length = 0;
+
+			// walk down the tree, marking the path with a virtual loss
+			synchronized( lock ) {
+				own			= rootOwn;
+				opponent	= rootOpponent;
+				int node	= root;
+				path[length++] = node;
+				visits[node] += VIRTUAL_LOSS;
+				while( true ) {
+					// add the node's children, once it's been visited often enough
+					if( firstChild[node] == -1 ) {
+						if( ( ( visits[node] - VIRTUAL_LOSS ) < EXPANSION_VISITS ) ||
+							isGameOver( own, opponent ) ||
+							!expand( node, own, opponent ) ) {
+							break;
+						}
+					}
+
+					// pick the child with the best upper confidence bound
+					node = select( node );
+					final int move = moves[node];
+					if( move != PASS ) {
+						final long captured = flips( own, opponent, move );
+						own |= captured | ( 1L << move );
+						opponent &= ~captured;
+					}
+					final long swap = own;
+					own			= opponent;
+					opponent	= swap;
+					path[length++] = node;
+					visits[node] += VIRTUAL_LOSS;
+					nodes++;
+				}
+			}
+
+			// play the game out
+			int result = playout( own, opponent, this );
+
+			// count the result up the path, taking back the virtual loss (each node's
+			// score is for the side that moved into it)
+			synchronized( lock ) {
+				for( int n = length - 1; n >= 0; n-- ) {
+					final int node = path[n];
+					visits[node] += 1 - VIRTUAL_LOSS;
+					scores[node] += WIN - result;
+					result = WIN - result;
+				}
+			}
+		}
+
+		/**
+		 * Selects the child of the given node with the best upper confidence bound
+		 * @param node the given (expanded) node
+		 * @return the child
+		 */
+		private int select( final int node ) {
+			final double logVisits = Math.log( Math.max( visits[node], 1 ) );
+			int best = firstChild[node];
+			double bestValue = Double.NEGATIVE_INFINITY;
+			for( int child = firstChild[node], end = child + childCount[node]; child < end; child++ ) {
+				// unvisited children are tried first
+				final int n = visits[child];
+				if( n == 0 ) {
+					return child;
+				}
+				final double value = scores[child] / ( (double)WIN * n ) + EXPLORATION * Math.sqrt( logVisits / n );
+				if( value > bestValue ) {
+					bestValue	= value;
+					best		= child;
+				}
+			}
+			return best;
+		}
+
+		/**
+		 * Returns a random number (xorshift)
+		 * @param bound the (exclusive) upper bound
+		 * @return a random number between zero and the bound
+		 */
+		int nextInt( final int bound ) {
+			seed ^= seed << 13;
+			seed ^= seed >>> 7;
+			seed ^= seed << 17;
+			return (int)( ( ( seed >>> 32 ) * bound ) >>> 32 );
+		}
+
+	}
+
+}
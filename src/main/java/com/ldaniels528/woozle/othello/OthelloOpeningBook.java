@@ -0,0 +1,273 @@
+package com.ldaniels528.woozle.othello;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import static com.ldaniels528.woozle.othello.OthelloBitboard.*;
+import static java.lang.String.format;
+
+/**
+ * Represents the Othello opening book: the best move (and its score) for
+ * each of the early positions, as found ahead of time by the engine's own
+ * search ({@link OthelloBookGenerator}). The book is read either from the
+ * local file ($USER_HOME/WooZle.book) or from the Java Archive (JAR);
+ * files are memory-mapped, and positions are found by binary search
+ * over their {@link OthelloZobrist Zobrist keys}, so nothing is decoded
+ * up front.
+ * <p>Binary form (big-endian): the magic number 'WZOB', the format version
+ * and the depth of the searches (16-bit), the number of entries (32-bit),
+ * the {@link OthelloZobrist#SIGNATURE signature} of the keys (64-bit),
+ * followed by the entries in ascending order of key; each entry is the key
+ * (64-bit), the move (8-bit), the number of discs on the board (8-bit) and
+ * the score (16-bit).</p>
+ * @author lawrence.daniels@gmail.com
+ */
+class OthelloOpeningBook {
+	public static final String BOOK_NAME = "WooZle.book";
+	private static final int MAGIC			= 0x575A4F42; // WZOB
+	private static final int VERSION		= 1;
+	private static final int HEADER_SIZE	= 20;
+	private static final int ENTRY_SIZE		= 12;
+
+	// internal fields
+	private final ByteBuffer buffer;
+	private final int depth;
+	private final int entryCount;
+
+	/**
+	 * Creates a new opening book
+	 * @param buffer the given {@link ByteBuffer buffer} containing the book
+	 * @throws IOException if the buffer does not contain an opening book
+	 */
+	public OthelloOpeningBook( final ByteBuffer buffer )
+	throws IOException {
+		this.buffer = buffer;
+
+		// verify the header
+		if( buffer.getInt( 0 ) != MAGIC ) {
+			throw new IOException( "Not an opening book" );
+		}
+		if( buffer.getShort( 4 ) != VERSION ) {
+			throw new IOException( format( "Unsupported opening book version %d", buffer.getShort( 4 ) ) );
+		}
+		if( buffer.getLong( 12 ) != OthelloZobrist.SIGNATURE ) {
+			throw new IOException( "The opening book was built with different position keys" );
+		}
+		this.depth		= buffer.getShort( 6 ) & 0xFFFF;
+		this.entryCount	= buffer.getInt( 8 );
+		if( buffer.limit() < HEADER_SIZE + (long)entryCount * ENTRY_SIZE ) {
+			throw new IOException( "The opening book is truncated" );
+		}
+	}
+
+	/**
+	 * Loads the opening book either locally ($USER_HOME/WooZle.book)
+	 * or from the Java Archive (JAR)
+	 * @return the {@link OthelloOpeningBook opening book}
+	 * @throws IOException
+	 */
+	public static OthelloOpeningBook load()
+	throws IOException {
+		// is there a local file?
+		final File localFile = getLocalBookFile();
+		if( localFile.exists() ) {
+			return new OthelloOpeningBook( map( localFile ) );
+		}
+
+		// map the resource if it's a plain file, otherwise read it
+		final URL url = OthelloOpeningBook.class.getResource( format( "/othello/data/%s", BOOK_NAME ) );
+		if( url == null ) {
+			throw new FileNotFoundException( BOOK_NAME );
+		}
+		if( "file".equals( url.getProtocol() ) ) {
+			try {
+				return new OthelloOpeningBook( map( new File( url.toURI() ) ) );
+			}
+			catch( final URISyntaxException e ) {
+				throw new IOException( e.getMessage() );
+			}
+		}
+		return new OthelloOpeningBook( read( url.openStream() ) );
+	}
+
+	/**
+	 * Returns the number of positions in the book
+	 * @return the number of positions
+	 */
+	public int getEntryCount() {
+		return entryCount;
+	}
+
+	/**
+	 * Returns the depth of the searches the book was built with
+	 * @return the depth (in plies)
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Looks up the book move for the given position
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @return the index of the move's square, or -1 if the position is not in the book
+	 */
+	public int getMove( final long own, final long opponent ) {
+		final int entry = find( own, opponent );
+		if( entry == -1 ) {
+			return -1;
+		}
+
+		// guard against a (very unlikely) key collision
+		final int move = buffer.get( entry + 8 );
+		return ( ( legalMoves( own, opponent ) & ( 1L << move ) ) != 0 ) ? move : -1;
+	}
+
+	/**
+	 * Returns the score of the book move for the given position
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @return the score (from the point of view of the side to move), or 0 if the position is not in the book
+	 */
+	public int getScore( final long own, final long opponent ) {
+		final int entry = find( own, opponent );
+		return ( entry != -1 ) ? buffer.getShort( entry + 10 ) : 0;
+	}
+
+	/**
+	 * Finds the entry of the given position
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @return the offset of the entry, or -1 if the position is not in the book
+	 */
+	private int find( final long own, final long opponent ) {
+		final long key = OthelloZobrist.key( own, opponent );
+		final int discs = count( own | opponent );
+
+		// binary search for the key
+		int low = 0;
+		int high = entryCount - 1;
+		while( low <= high ) {
+			final int middle = ( low + high ) >>> 1;
+			final int offset = HEADER_SIZE + middle * ENTRY_SIZE;
+			final long entryKey = buffer.getLong( offset );
+			if( entryKey < key ) {
+				low = middle + 1;
+			}
+			else if( entryKey > key ) {
+				high = middle - 1;
+			}
+			else {
+				return ( ( buffer.get( offset + 9 ) & 0xFF ) == discs ) ? offset : -1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Writes the given entries as an opening book
+	 * @param keys the given positions' keys
+	 * @param moves the given positions' book moves
+	 * @param discs the number of discs of each of the given positions
+	 * @param scores the given positions' scores
+	 * @param count the number of entries
+	 * @param depth the depth of the searches
+	 * @param out the given {@link OutputStream output stream}
+	 * @throws IOException
+	 */
+	public static void write( final long[] keys,
+							  final int[] moves,
+							  final int[] discs,
+							  final int[] scores,
+							  final int count,
+							  final int depth,
+							  final OutputStream out )
+	throws IOException {
+		// the entries are written in ascending order of key
+		final Integer[] order = new Integer[ count ];
+		for( int n = 0; n < count; n++ ) {
+			order[n] = n;
+		}
+		Arrays.sort( order, new Comparator<Integer>() {
+			public int compare( final Integer a, final Integer b ) {
+				return ( keys[a] < keys[b] ) ? -1 : ( ( keys[a] > keys[b] ) ? 1 : 0 );
+			}
+		} );
+
+		// write the header
+		final ByteBuffer buffer = ByteBuffer.allocate( HEADER_SIZE + count * ENTRY_SIZE );
+		buffer.putInt( MAGIC );
+		buffer.putShort( (short)VERSION );
+		buffer.putShort( (short)depth );
+		buffer.putInt( count );
+		buffer.putLong( OthelloZobrist.SIGNATURE );
+
+		// write the entries
+		for( final int n : order ) {
+			buffer.putLong( keys[n] );
+			buffer.put( (byte)moves[n] );
+			buffer.put( (byte)discs[n] );
+			buffer.putShort( (short)Math.max( Short.MIN_VALUE, Math.min( Short.MAX_VALUE, scores[n] ) ) );
+		}
+		out.write( buffer.array() );
+	}
+
+	/**
+	 * Returns the local opening book file
+	 * @return the local opening book {@link File file}
+	 */
+	public static File getLocalBookFile() {
+		return new File( format( "%s%s%s",
+				System.getProperty( "user.home" ),
+				File.separator,
+				BOOK_NAME ) );
+	}
+
+	/**
+	 * Memory-maps the given file
+	 * @param file the given {@link File file}
+	 * @return the {@link MappedByteBuffer mapped buffer}
+	 * @throws IOException
+	 */
+	private static MappedByteBuffer map( final File file )
+	throws IOException {
+		final RandomAccessFile raf = new RandomAccessFile( file, "r" );
+		try {
+			final FileChannel channel = raf.getChannel();
+			return channel.map( FileChannel.MapMode.READ_ONLY, 0, channel.size() );
+		}
+		finally {
+			// the mapping remains valid after the file is closed
+			raf.close();
+		}
+	}
+
+	/**
+	 * Reads the given stream into a buffer
+	 * @param in the given {@link InputStream input stream}
+	 * @return the {@link ByteBuffer buffer}
+	 * @throws IOException
+	 */
+	private static ByteBuffer read( final InputStream in )
+	throws IOException {
+		try {
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			final byte[] block = new byte[ 4096 ];
+			int count;
+			while( ( count = in.read( block ) ) != -1 ) {
+				out.write( block, 0, count );
+			}
+			return ByteBuffer.wrap( out.toByteArray() );
+		}
+		finally {
+			in.close();
+		}
+	}
+
+}
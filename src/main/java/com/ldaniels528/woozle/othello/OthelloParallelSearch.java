@@ -0,0 +1,264 @@
+package com.ldaniels528.woozle.othello;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import com.ldaniels528.woozle.Logger;
+
+import static com.ldaniels528.woozle.othello.OthelloBitboard.SIZE;
+import static java.lang.String.format;
+
+/**
+ * Multi-threaded Othello search engine (Lazy SMP). Several
+ * {@link OthelloSearch searches} of the same position run at once, all
+ * sharing one lock-free {@link OthelloTranspositionTable transposition table};
+ * there is no other communication between them. The helpers start their
+ * iterations at staggered depths, so they run ahead of the main search
+ * and fill the table with results (and best moves) that the main search
+ * then picks up instead of searching them itself.
+ * <p>The main search runs on the calling thread, and keeps to the time
+ * budget; when it finishes, the helpers are stopped, and the result of
+ * the deepest completed iteration (of any thread) is played.</p>
+ * @author lawrence.daniels@gmail.com
+ */
+class OthelloParallelSearch implements OthelloEngine {
+	// the default number of search threads
+	public static final int DEFAULT_THREADS = Integer.getInteger( "woozle.othello.threads", Runtime.getRuntime().availableProcessors() );
+
+	// the helpers search until they are stopped
+	private static final long UNLIMITED = Long.MAX_VALUE;
+
+	// internal fields
+	private final OthelloSearch[] searches;
+	private final OthelloTranspositionTable table;
+	private final ExecutorService executor;
+	private final Future<?>[] futures;
+	private int completedDepth;
+	private int active;
+	private OthelloSearchTelemetry telemetry;
+
+	/**
+	 * Creates a new parallel search engine
+	 * @param evaluator the given {@link OthelloEvaluator evaluator}
+	 * @param threads the number of search threads
+	 */
+	public OthelloParallelSearch( final OthelloEvaluator evaluator, final int threads ) {
+		this( evaluator, new OthelloTranspositionTable( OthelloTranspositionTable.DEFAULT_BITS ), threads );
+	}
+
+	/**
+	 * Creates a new parallel search engine
+	 * @param evaluator the given {@link OthelloEvaluator evaluator}
+	 * @param table the given (shared) {@link OthelloTranspositionTable transposition table}
+	 * @param threads the number of search threads
+	 */
+	public OthelloParallelSearch( final OthelloEvaluator evaluator, final OthelloTranspositionTable table, final int threads ) {
+		this.table		= table;
+		this.searches	= new OthelloSearch[ Math.max( threads, 1 ) ];
+		this.futures	= new Future<?>[ searches.length ];
+		for( int n = 0; n < searches.length; n++ ) {
+			searches[n] = new OthelloSearch( evaluator, table );
+		}
+
+		// the helpers run on daemon threads, so they never hold up the exit
+		this.executor = ( searches.length > 1 ) ? Executors.newFixedThreadPool( searches.length - 1, new ThreadFactory() {
+			private int count;
+
+			public Thread newThread( final Runnable runnable ) {
+				final Thread thread = new Thread( runnable, "othello-search-" + ( ++count ) );
+				thread.setDaemon( true );
+				return thread;
+			}
+		} ) : null;
+	}
+
+	/**
+	 * Returns the number of search threads
+	 * @return the number of threads
+	 */
+	public int getThreadCount() {
+		return searches.length;
+	}
+
+	/**
+	 * Returns the depth of the deepest iteration completed by the most recent search
+	 * @return the depth (in plies)
+	 */
+	public int getCompletedDepth() {
+		return completedDepth;
+	}
+
+	/**
+	 * Returns the shared transposition table
+	 * @return the {@link OthelloTranspositionTable transposition table}
+	 */
+	public OthelloTranspositionTable getTranspositionTable() {
+		return table;
+	}
+
+	/**
+	 * Sets the depth (in plies) beyond which the searches do not go
+	 * @param maxDepth the maximum depth
+	 */
+	public void setMaxDepth( final int maxDepth ) {
+		for( final OthelloSearch search : searches ) {
+			search.setMaxDepth( maxDepth );
+		}
+	}
+
+	/**
+	 * Sets the number of empty squares at (or below) which the endgame solver takes over
+	 * @param endgameEmpties the number of empty squares (zero to never solve)
+	 */
+	public void setEndgameEmpties( final int endgameEmpties ) {
+		for( final OthelloSearch search : searches ) {
+			search.setEndgameEmpties( endgameEmpties );
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.othello.OthelloEngine#findBestMove(long, long, long)
+	 */
+	public int findBestMove( final long own, final long opponent, final long budgetMillis ) {
+		final long startTime	= System.nanoTime();
+		final long probes0		= table.getProbes();
+		final long hits0		= table.getHits();
+
+		// start the helpers (every other one a ply ahead); the endgame
+		// solver works alone
+		table.newSearch();
+		for( final OthelloSearch search : searches ) {
+			search.reset();
+		}
+		final int helpers = searches[0].isEndgame( own, opponent ) ? 0 : searches.length - 1;
+		active = helpers + 1;
+		for( int n = 1; n <= helpers; n++ ) {
+			final OthelloSearch helper = searches[n];
+			final int startDepth = n % 2;
+			futures[n] = executor.submit( new Callable<Integer>() {
+				public Integer call() {
+					return helper.search( own, opponent, UNLIMITED, startDepth );
+				}
+			} );
+		}
+
+		// run the main search, then stop the helpers
+		int move		= searches[0].search( own, opponent, budgetMillis, 0 );
+		int depth		= searches[0].getCompletedDepth();
+		int score		= searches[0].getBestScore();
+		for( int n = 1; n <= helpers; n++ ) {
+			searches[n].stop();
+		}
+
+		// play the move of the deepest completed iteration
+		for( int n = 1; n <= helpers; n++ ) {
+			final int helperMove = waitFor( futures[n] );
+			futures[n] = null;
+			if( ( helperMove != -1 ) && ( searches[n].getCompletedDepth() > depth ) ) {
+				move	= helperMove;
+				depth	= searches[n].getCompletedDepth();
+				score	= searches[n].getBestScore();
+			}
+		}
+
+		// report the search
+		this.completedDepth = depth;
+		final long nodes	= getNodeCount();
+		final long elapsed	= Math.max( System.nanoTime() - startTime, 1 );
+		final long probes	= table.getProbes() - probes0;
+		final long hits		= table.getHits() - hits0;
+		telemetry = ( move != -1 )
+				? new OthelloSearchTelemetry( format( "alphabeta x%d", searches.length ), SIZE, move, depth, score, nodes, elapsed,
+						probes, hits, table.getFill(), OthelloSearch.getPrincipalVariation( table, own, opponent, move ) )
+				: null;
+		Logger.info( "AI: %d threads, depth %d, score %d, %d nodes in %d ms (%.0f nodes/sec), TT hits %.1f%%, fill %.1f%%\n",
+				searches.length, depth, score, nodes, elapsed / 1000000L, nodes * 1e9 / elapsed,
+				( probes > 0 ) ? hits * 100.0 / probes : 0.0, table.getFill() * 100 );
+		return move;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.othello.OthelloEngine#stop()
+	 */
+	public void stop() {
+		for( final OthelloSearch search : searches ) {
+			search.stop();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.othello.OthelloEngine#getRememberedMove(long, long)
+	 */
+	public int getRememberedMove( final long own, final long opponent ) {
+		return OthelloSearch.getRememberedMove( table, own, opponent );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.othello.OthelloEngine#shutdown()
+	 */
+	public void shutdown() {
+		stop();
+		if( executor != null ) {
+			executor.shutdownNow();
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.othello.OthelloEngine#getNodeCount()
+	 */
+	public long getNodeCount() {
+		long nodes = 0;
+		for( int n = 0; n < active; n++ ) {
+			nodes += searches[n].getNodeCount();
+		}
+		return nodes;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.othello.OthelloEngine#getTelemetry()
+	 */
+	public OthelloSearchTelemetry getTelemetry() {
+		return telemetry;
+	}
+
+	/**
+	 * Waits for the given (stopped) helper to finish; the wait is not
+	 * cut short by interruption, so a helper is never left running into
+	 * the next search
+	 * @param future the given helper's {@link Future future}
+	 * @return the helper's best move, or -1 if it failed
+	 */
+	private int waitFor( final Future<?> future ) {
+		boolean interrupted = false;
+		try {
+			while( true ) {
+				try {
+					return (Integer)future.get();
+				}
+				catch( final InterruptedException e ) {
+					interrupted = true;
+				}
+				catch( final ExecutionException e ) {
+					Logger.error( "AI: search thread failed: %s\n", e.getCause() );
+					return -1;
+				}
+			}
+		}
+		finally {
+			if( interrupted ) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+}
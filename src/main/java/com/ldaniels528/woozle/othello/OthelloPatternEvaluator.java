@@ -0,0 +1,165 @@
+package com.ldaniels528.woozle.othello;
+
+import static com.ldaniels528.woozle.othello.OthelloBitboard.*;
+import static com.ldaniels528.woozle.othello.OthelloPatternTables.*;
+
+/**
+ * Evaluates Othello positions by pattern: the edges, the corner regions,
+ * the lines and the diagonals are each looked up in a table of
+ * {@link OthelloPatternTables weights}, giving the value of the whole
+ * configuration (rather than of each square on its own). Mobility and
+ * parity are added using population counts.
+ * <p>Each pattern is read off the board in its canonical position (e.g. the
+ * top edge) as a pair of bit strings, which are turned into a base-3 table
+ * index with a lookup; the other images of the pattern are read the same
+ * way off the rotated (and reflected) board. An evaluation is about fifty
+ * table lookups, with no loops over squares.</p>
+ * @author lawrence.daniels@gmail.com
+ */
+class OthelloPatternEvaluator implements OthelloEvaluator {
+	// the squares of the diagonals, and the multiplier that gathers
+	// a diagonal's discs into the top row (one from each column)
+	private static final long DIAGONAL_8_MASK	= 0x8040201008040201L;
+	private static final long DIAGONAL_7_MASK	= 0x0080402010080402L;
+	private static final long DIAGONAL_6_MASK	= 0x0000804020100804L;
+	private static final long DIAGONAL_5_MASK	= 0x0000008040201008L;
+	private static final long DIAGONAL_4_MASK	= 0x0000000080402010L;
+	private static final long GATHER			= 0x0101010101010101L;
+
+	// the base-3 value of each string of up to 10 bits
+	private static final int[] TERNARY = new int[ 1 << 10 ];
+
+	static {
+		for( int bits = 0; bits < TERNARY.length; bits++ ) {
+			int value = 0;
+			for( int n = 9; n >= 0; n-- ) {
+				value = value * 3 + ( ( bits >>> n ) & 1 );
+			}
+			TERNARY[bits] = value;
+		}
+	}
+
+	// internal fields
+	private final short[] edge;
+	private final short[] corner3x3;
+	private final short[] corner2x5;
+	private final short[] line2;
+	private final short[] line3;
+	private final short[] line4;
+	private final short[] diagonal8;
+	private final short[] diagonal7;
+	private final short[] diagonal6;
+	private final short[] diagonal5;
+	private final short[] diagonal4;
+	private final int mobilityWeight;
+	private final int parityWeight;
+
+	/**
+	 * Creates a new evaluator using the bundled weight tables
+	 */
+	public OthelloPatternEvaluator() {
+		this( OthelloPatternTables.load() );
+	}
+
+	/**
+	 * Creates a new evaluator
+	 * @param tables the given {@link OthelloPatternTables weight tables}
+	 */
+	public OthelloPatternEvaluator( final OthelloPatternTables tables ) {
+		this.edge			= tables.getTable( EDGE );
+		this.corner3x3		= tables.getTable( CORNER_3X3 );
+		this.corner2x5		= tables.getTable( CORNER_2X5 );
+		this.line2			= tables.getTable( LINE_2 );
+		this.line3			= tables.getTable( LINE_3 );
+		this.line4			= tables.getTable( LINE_4 );
+		this.diagonal8		= tables.getTable( DIAGONAL_8 );
+		this.diagonal7		= tables.getTable( DIAGONAL_7 );
+		this.diagonal6		= tables.getTable( DIAGONAL_6 );
+		this.diagonal5		= tables.getTable( DIAGONAL_5 );
+		this.diagonal4		= tables.getTable( DIAGONAL_4 );
+		this.mobilityWeight	= tables.getMobilityWeight();
+		this.parityWeight	= tables.getParityWeight();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.othello.OthelloEvaluator#evaluate(long, long)
+	 */
+	public int evaluate( final long own, final long opponent ) {
+		// score the patterns of each quarter turn of the board
+		int score = 0;
+		long o = own;
+		long p = opponent;
+		for( int turn = 0; turn < 4; turn++ ) {
+			score += evaluateImage( o, p, turn < 2 );
+
+			// the 2x5 corner block isn't symmetric, so its reflection is scored too
+			final long fo = flipDiagonal( o );
+			final long fp = flipDiagonal( p );
+			score += corner2x5[ index( ( fo & 0x1F ) | ( ( fo >>> 3 ) & 0x3E0 ), ( fp & 0x1F ) | ( ( fp >>> 3 ) & 0x3E0 ) ) ];
+			o = rotate( o );
+			p = rotate( p );
+		}
+
+		// score the mobility of each side
+		score += mobilityWeight * ( mobility( own, opponent ) - mobility( opponent, own ) );
+
+		// the side to move moves last, if the number of empty squares is odd
+		if( ( count( ~( own | opponent ) ) & 1 ) != 0 ) {
+			score += parityWeight;
+		}
+		return score;
+	}
+
+	/**
+	 * Scores the patterns in their canonical positions
+	 * @param own the discs of the side to move (turned)
+	 * @param opponent the discs of the opponent (turned)
+	 * @param longDiagonal whether to score the long diagonal
+	 * @return the score
+	 */
+	private int evaluateImage( final long own, final long opponent, final boolean longDiagonal ) {
+		int score = 0;
+
+		// the edge (plus the squares diagonally next to its corners)
+		score += edge[ index( ( own & 0xFF ) | ( ( own >>> 1 ) & 0x100 ) | ( ( own >>> 5 ) & 0x200 ),
+							  ( opponent & 0xFF ) | ( ( opponent >>> 1 ) & 0x100 ) | ( ( opponent >>> 5 ) & 0x200 ) ) ];
+
+		// the corner blocks
+		score += corner3x3[ index( ( own & 0x7 ) | ( ( own >>> 5 ) & 0x38 ) | ( ( own >>> 10 ) & 0x1C0 ),
+								   ( opponent & 0x7 ) | ( ( opponent >>> 5 ) & 0x38 ) | ( ( opponent >>> 10 ) & 0x1C0 ) ) ];
+		score += corner2x5[ index( ( own & 0x1F ) | ( ( own >>> 3 ) & 0x3E0 ),
+								   ( opponent & 0x1F ) | ( ( opponent >>> 3 ) & 0x3E0 ) ) ];
+
+		// the lines
+		score += line2[ index( ( own >>> 8 ) & 0xFF, ( opponent >>> 8 ) & 0xFF ) ];
+		score += line3[ index( ( own >>> 16 ) & 0xFF, ( opponent >>> 16 ) & 0xFF ) ];
+		score += line4[ index( ( own >>> 24 ) & 0xFF, ( opponent >>> 24 ) & 0xFF ) ];
+
+		// the diagonals
+		if( longDiagonal ) {
+			score += diagonal8[ index( ( ( own & DIAGONAL_8_MASK ) * GATHER ) >>> 56,
+									   ( ( opponent & DIAGONAL_8_MASK ) * GATHER ) >>> 56 ) ];
+		}
+		score += diagonal7[ index( ( ( own & DIAGONAL_7_MASK ) * GATHER ) >>> 57,
+								   ( ( opponent & DIAGONAL_7_MASK ) * GATHER ) >>> 57 ) ];
+		score += diagonal6[ index( ( ( own & DIAGONAL_6_MASK ) * GATHER ) >>> 58,
+								   ( ( opponent & DIAGONAL_6_MASK ) * GATHER ) >>> 58 ) ];
+		score += diagonal5[ index( ( ( own & DIAGONAL_5_MASK ) * GATHER ) >>> 59,
+								   ( ( opponent & DIAGONAL_5_MASK ) * GATHER ) >>> 59 ) ];
+		score += diagonal4[ index( ( ( own & DIAGONAL_4_MASK ) * GATHER ) >>> 60,
+								   ( ( opponent & DIAGONAL_4_MASK ) * GATHER ) >>> 60 ) ];
+		return score;
+	}
+
+	/**
+	 * Returns the table index of a pattern
+	 * @param own the bits of the side to move's discs
+	 * @param opponent the bits of the opponent's discs
+	 * @return the index (own discs count 1, the opponent's 2, in base 3)
+	 */
+	private static int index( final long own, final long opponent ) {
+		return TERNARY[ (int)own ] + 2 * TERNARY[ (int)opponent ];
+	}
+
+}
@@ -0,0 +1,394 @@
+package com.ldaniels528.woozle.othello;
+
+import com.ldaniels528.woozle.Logger;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+
+import static com.ldaniels528.woozle.othello.OthelloBitboard.*;
+import static java.lang.String.format;
+
+/**
+ * Represents the weight tables of the {@link OthelloPatternEvaluator pattern evaluator}.
+ * Each pattern is a line or block of squares; every configuration of its
+ * squares (each empty, own or opponent) has an entry in the pattern's table,
+ * indexed by the base-3 number the squares spell. A table is shared by all
+ * the symmetric images of its pattern.
+ * <p>The default tables are derived from the value of each square (as held by
+ * the {@link OthelloPositionalEvaluator positional evaluator}), shared out among
+ * the patterns covering it, plus the knowledge that the squares next to a corner
+ * are only a danger while it is empty, and that discs running along an edge from
+ * an occupied corner can never be flipped. The tables are read from the Java
+ * Archive (JAR) if possible, and built in memory otherwise.</p>
+ * <p>Binary form (big-endian): the magic number 'WZPT', the format version,
+ * the number of patterns, the mobility and the parity weights (16-bit), then
+ * for each pattern, its number of squares (16-bit), followed by its table
+ * (16-bit weights).</p>
+ * @author lawrence.daniels@gmail.com
+ */
+class OthelloPatternTables {
+	public static final String TABLES_NAME = "WooZle.patterns";
+	private static final int MAGIC		= 0x575A5054; // WZPT
+	private static final int VERSION	= 1;
+
+	// the patterns (squares in index order, in their canonical position)
+	public static final int EDGE		= 0;
+	public static final int CORNER_3X3	= 1;
+	public static final int CORNER_2X5	= 2;
+	public static final int LINE_2		= 3;
+	public static final int LINE_3		= 4;
+	public static final int LINE_4		= 5;
+	public static final int DIAGONAL_8	= 6;
+	public static final int DIAGONAL_7	= 7;
+	public static final int DIAGONAL_6	= 8;
+	public static final int DIAGONAL_5	= 9;
+	public static final int DIAGONAL_4	= 10;
+	public static final int[][] PATTERNS = {
+		{  0,  1,  2,  3,  4,  5,  6,  7,  9, 14 },
+		{  0,  1,  2,  8,  9, 10, 16, 17, 18 },
+		{  0,  1,  2,  3,  4,  8,  9, 10, 11, 12 },
+		{  8,  9, 10, 11, 12, 13, 14, 15 },
+		{ 16, 17, 18, 19, 20, 21, 22, 23 },
+		{ 24, 25, 26, 27, 28, 29, 30, 31 },
+		{  0,  9, 18, 27, 36, 45, 54, 63 },
+		{  1, 10, 19, 28, 37, 46, 55 },
+		{  2, 11, 20, 29, 38, 47 },
+		{  3, 12, 21, 30, 39 },
+		{  4, 13, 22, 31 }
+	};
+
+	// the number of images of each pattern: the four quarter turns, all
+	// eight symmetries (the 2x5 block isn't symmetric), or two (the long
+	// diagonal maps onto itself when turned half way)
+	public static final int[] IMAGES = { 4, 4, 8, 4, 4, 4, 2, 4, 4, 4, 4 };
+
+	// the default weights
+	private static final int MOBILITY_WEIGHT	= 5;
+	private static final int PARITY_WEIGHT		= 10;
+	private static final int STABLE_WEIGHT		= 10;
+
+	// the value of each square (row by row)
+	private static final int[] SQUARE_WEIGHTS = {
+		100, -20,  10,   5,   5,  10, -20, 100,
+		-20, -50,  -2,  -2,  -2,  -2, -50, -20,
+		 10,  -2,  -1,  -1,  -1,  -1,  -2,  10,
+		  5,  -2,  -1,  -1,  -1,  -1,  -2,   5,
+		  5,  -2,  -1,  -1,  -1,  -1,  -2,   5,
+		 10,  -2,  -1,  -1,  -1,  -1,  -2,  10,
+		-20, -50,  -2,  -2,  -2,  -2, -50, -20,
+		100, -20,  10,   5,   5,  10, -20, 100
+	};
+
+	// internal fields
+	private final short[][] tables;
+	private final int mobilityWeight;
+	private final int parityWeight;
+
+	/**
+	 * Creates a new set of pattern tables
+	 * @param tables the weight table of each pattern
+	 * @param mobilityWeight the value of each legal move
+	 * @param parityWeight the value of moving last
+	 */
+	public OthelloPatternTables( final short[][] tables, final int mobilityWeight, final int parityWeight ) {
+		this.tables			= tables;
+		this.mobilityWeight	= mobilityWeight;
+		this.parityWeight	= parityWeight;
+	}
+
+	/**
+	 * Returns the weight table of the given pattern
+	 * @param pattern the given pattern (e.g. {@link #EDGE})
+	 * @return the weight table
+	 */
+	public short[] getTable( final int pattern ) {
+		return tables[pattern];
+	}
+
+	/**
+	 * Returns the value of each legal move
+	 * @return the mobility weight
+	 */
+	public int getMobilityWeight() {
+		return mobilityWeight;
+	}
+
+	/**
+	 * Returns the value of moving last
+	 * @return the parity weight
+	 */
+	public int getParityWeight() {
+		return parityWeight;
+	}
+
+	/**
+	 * Loads the pattern tables from the Java Archive (JAR), or builds
+	 * the default ones if they can't be read
+	 * @return the {@link OthelloPatternTables pattern tables}
+	 */
+	public static OthelloPatternTables load() {
+		final InputStream in = OthelloPatternTables.class.getResourceAsStream( format( "/othello/data/%s", TABLES_NAME ) );
+		if( in != null ) {
+			try {
+				return decode( read( in ) );
+			}
+			catch( final IOException e ) {
+				Logger.error( "Pattern tables could not be loaded: %s\n", e.getMessage() );
+			}
+		}
+		return createDefaultTables();
+	}
+
+	/**
+	 * Decodes the pattern tables from the given buffer
+	 * @param buffer the given {@link ByteBuffer buffer}
+	 * @return the {@link OthelloPatternTables pattern tables}
+	 * @throws IOException if the buffer does not contain pattern tables
+	 */
+	public static OthelloPatternTables decode( final ByteBuffer buffer )
+	throws IOException {
+		// verify the header
+		if( buffer.getInt() != MAGIC ) {
+			throw new IOException( "Not a pattern table file" );
+		}
+		final int version = buffer.getShort();
+		if( version != VERSION ) {
+			throw new IOException( format( "Unsupported pattern table version %d", version ) );
+		}
+		if( buffer.getShort() != PATTERNS.length ) {
+			throw new IOException( "The pattern tables don't match the patterns" );
+		}
+		final int mobilityWeight	= buffer.getShort();
+		final int parityWeight		= buffer.getShort();
+
+		// read the tables
+		final short[][] tables = new short[ PATTERNS.length ][];
+		for( int pattern = 0; pattern < PATTERNS.length; pattern++ ) {
+			if( buffer.getShort() != PATTERNS[pattern].length ) {
+				throw new IOException( format( "The table of pattern %d doesn't match the pattern", pattern ) );
+			}
+			tables[pattern] = new short[ getTableSize( pattern ) ];
+			buffer.asShortBuffer().get( tables[pattern] );
+			buffer.position( buffer.position() + tables[pattern].length * 2 );
+		}
+		return new OthelloPatternTables( tables, mobilityWeight, parityWeight );
+	}
+
+	/**
+	 * Writes the pattern tables
+	 * @param out the given {@link OutputStream output stream}
+	 * @throws IOException
+	 */
+	public void write( final OutputStream out )
+	throws IOException {
+		// compute the size of the file
+		int size = 12;
+		for( final short[] table : tables ) {
+			size += 2 + table.length * 2;
+		}
+
+		// write the header
+		final ByteBuffer buffer = ByteBuffer.allocate( size );
+		buffer.putInt( MAGIC );
+		buffer.putShort( (short)VERSION );
+		buffer.putShort( (short)PATTERNS.length );
+		buffer.putShort( (short)mobilityWeight );
+		buffer.putShort( (short)parityWeight );
+
+		// write the tables
+		for( int pattern = 0; pattern < PATTERNS.length; pattern++ ) {
+			buffer.putShort( (short)PATTERNS[pattern].length );
+			for( final short weight : tables[pattern] ) {
+				buffer.putShort( weight );
+			}
+		}
+		out.write( buffer.array() );
+	}
+
+	/**
+	 * Returns the number of entries in the table of the given pattern
+	 * @param pattern the given pattern (e.g. {@link #EDGE})
+	 * @return the number of entries (3^squares)
+	 */
+	public static int getTableSize( final int pattern ) {
+		int size = 1;
+		for( int n = 0; n < PATTERNS[pattern].length; n++ ) {
+			size *= 3;
+		}
+		return size;
+	}
+
+	/**
+	 * Builds the default pattern tables
+	 * @return the {@link OthelloPatternTables pattern tables}
+	 */
+	public static OthelloPatternTables createDefaultTables() {
+		// count the patterns covering each square (over all their images)
+		final int[] coverage = new int[ SQUARES ];
+		for( int pattern = 0; pattern < PATTERNS.length; pattern++ ) {
+			for( int image = 0; image < IMAGES[pattern]; image++ ) {
+				for( final int square : PATTERNS[pattern] ) {
+					coverage[ transform( square, image ) ]++;
+				}
+			}
+		}
+
+		// score every configuration of every pattern
+		final short[][] tables = new short[ PATTERNS.length ][];
+		for( int pattern = 0; pattern < PATTERNS.length; pattern++ ) {
+			final int[] squares = PATTERNS[pattern];
+			final int[] states = new int[ squares.length ];
+			tables[pattern] = new short[ getTableSize( pattern ) ];
+			for( int index = 0; index < tables[pattern].length; index++ ) {
+				// decode the configuration (0 = empty, 1 = own, 2 = opponent)
+				for( int n = 0, value = index; n < squares.length; n++, value /= 3 ) {
+					states[n] = value % 3;
+				}
+				tables[pattern][index] = (short)Math.round( score( pattern, squares, states, coverage ) );
+			}
+		}
+		return new OthelloPatternTables( tables, MOBILITY_WEIGHT, PARITY_WEIGHT );
+	}
+
+	/**
+	 * Scores a configuration of the given pattern
+	 * @param pattern the given pattern
+	 * @param squares the pattern's squares
+	 * @param states the state of each square (0 = empty, 1 = own, 2 = opponent)
+	 * @param coverage the number of patterns covering each square
+	 * @return the score
+	 */
+	private static double score( final int pattern, final int[] squares, final int[] states, final int[] coverage ) {
+		// find the state of each of the pattern's squares
+		final int[] board = new int[ SQUARES ];
+		for( int n = 0; n < squares.length; n++ ) {
+			board[ squares[n] ] = states[n];
+		}
+
+		// share out the value of each square
+		double score = 0;
+		for( int n = 0; n < squares.length; n++ ) {
+			final int square = squares[n];
+			final int corner = getCorner( square );
+
+			// the squares next to an occupied corner are no longer a danger
+			final int weight = ( ( corner != -1 ) && ( board[corner] != 0 ) ) ? 0 : SQUARE_WEIGHTS[square];
+			score += sign( states[n] ) * (double)weight / coverage[square];
+		}
+
+		// discs running along an edge from an occupied corner are stable
+		if( pattern == EDGE ) {
+			score += STABLE_WEIGHT * ( countStable( states, 0, 1 ) + countStable( states, 7, -1 ) );
+		}
+		return score;
+	}
+
+	/**
+	 * Returns the corner next to the given square
+	 * @param square the given square
+	 * @return the corner's square, or -1 if the square isn't next to a corner
+	 */
+	private static int getCorner( final int square ) {
+		final int column	= square % SIZE;
+		final int row		= square / SIZE;
+		final int cornerColumn	= ( column < SIZE / 2 ) ? 0 : SIZE - 1;
+		final int cornerRow		= ( row < SIZE / 2 ) ? 0 : SIZE - 1;
+		final boolean next = ( Math.abs( column - cornerColumn ) <= 1 ) && ( Math.abs( row - cornerRow ) <= 1 );
+		return ( next && ( square != index( cornerColumn, cornerRow ) ) ) ? index( cornerColumn, cornerRow ) : -1;
+	}
+
+	/**
+	 * Counts the stable discs running along an edge from its corner
+	 * @param states the state of each square of the edge
+	 * @param corner the position of the corner within the edge
+	 * @param step the direction along the edge
+	 * @return the number of stable discs (positive for own, negative for the opponent's)
+	 */
+	private static int countStable( final int[] states, final int corner, final int step ) {
+		final int owner = states[corner];
+		if( owner == 0 ) {
+			return 0;
+		}
+		int count = 0;
+		for( int n = corner; n >= 0 && n < SIZE && states[n] == owner; n += step ) {
+			count++;
+		}
+		return sign( owner ) * count;
+	}
+
+	/**
+	 * Returns the sign of the given square state
+	 * @param state the given state (0 = empty, 1 = own, 2 = opponent)
+	 * @return 0, 1 or -1
+	 */
+	private static int sign( final int state ) {
+		return ( state == 1 ) ? 1 : ( ( state == 2 ) ? -1 : 0 );
+	}
+
+	/**
+	 * Returns the square the given square is moved to in the given image of a
+	 * pattern: the images are the quarter turns, then their reflections in the
+	 * diagonal, as made by the {@link OthelloPatternEvaluator evaluator}
+	 * @param square the given square
+	 * @param image the given image (0 to 7)
+	 * @return the square (of the original board) covered by the image
+	 */
+	private static int transform( final int square, final int image ) {
+		// the evaluator reads the pattern off the transformed board,
+		// so the square covered is found by undoing the transformation
+		for( int candidate = 0; candidate < SQUARES; candidate++ ) {
+			long discs = 1L << candidate;
+			for( int turn = 0; turn < image % 4; turn++ ) {
+				discs = rotate( discs );
+			}
+			if( image >= 4 ) {
+				discs = flipDiagonal( discs );
+			}
+			if( discs == ( 1L << square ) ) {
+				return candidate;
+			}
+		}
+		throw new IllegalStateException( format( "Square %d has no image", square ) );
+	}
+
+	/**
+	 * Reads the given stream into a buffer
+	 * @param in the given {@link InputStream input stream}
+	 * @return the {@link ByteBuffer buffer}
+	 * @throws IOException
+	 */
+	private static ByteBuffer read( final InputStream in )
+	throws IOException {
+		try {
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			final byte[] block = new byte[ 4096 ];
+			int count;
+			while( ( count = in.read( block ) ) != -1 ) {
+				out.write( block, 0, count );
+			}
+			return ByteBuffer.wrap( out.toByteArray() );
+		}
+		finally {
+			in.close();
+		}
+	}
+
+	/**
+	 * Generates the default pattern tables
+	 * @param args the given command line arguments: [output file]
+	 * @throws IOException
+	 */
+	public static void main( final String[] args )
+	throws IOException {
+		final File file = new File( ( args.length > 0 ) ? args[0] : TABLES_NAME );
+		final OutputStream out = new FileOutputStream( file );
+		try {
+			createDefaultTables().write( out );
+			Logger.info( "Wrote %d pattern tables to '%s'\n", PATTERNS.length, file.getAbsolutePath() );
+		}
+		finally {
+			out.close();
+		}
+	}
+
+}
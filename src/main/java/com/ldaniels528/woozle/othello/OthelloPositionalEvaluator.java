@@ -0,0 +1,82 @@
+package com.ldaniels528.woozle.othello;
+
+import static com.ldaniels528.woozle.othello.OthelloBitboard.*;
+
+/**
+ * Evaluates Othello positions by the value of the squares each side
+ * occupies (corners are prized; the squares next to them are not),
+ * plus a bonus for mobility. The squares are grouped by weight, so the
+ * evaluation is a handful of masked population counts.
+ * @author lawrence.daniels@gmail.com
+ */
+class OthelloPositionalEvaluator implements OthelloEvaluator {
+	// the value of each square (row by row)
+	private static final int[] SQUARE_WEIGHTS = {
+		100, -20,  10,   5,   5,  10, -20, 100,
+		-20, -50,  -2,  -2,  -2,  -2, -50, -20,
+		 10,  -2,  -1,  -1,  -1,  -1,  -2,  10,
+		  5,  -2,  -1,  -1,  -1,  -1,  -2,   5,
+		  5,  -2,  -1,  -1,  -1,  -1,  -2,   5,
+		 10,  -2,  -1,  -1,  -1,  -1,  -2,  10,
+		-20, -50,  -2,  -2,  -2,  -2, -50, -20,
+		100, -20,  10,   5,   5,  10, -20, 100
+	};
+
+	// the value of each legal move
+	private static final int MOBILITY_WEIGHT = 5;
+
+	// the distinct weights, and the squares carrying each of them
+	private static final int[] WEIGHTS;
+	private static final long[] MASKS;
+
+	static {
+		// find the distinct weights
+		final int[] weights = new int[ SQUARE_WEIGHTS.length ];
+		int count = 0;
+		for( final int weight : SQUARE_WEIGHTS ) {
+			boolean found = false;
+			for( int n = 0; n < count && !found; n++ ) {
+				found = ( weights[n] == weight );
+			}
+			if( !found ) {
+				weights[count++] = weight;
+			}
+		}
+
+		// group the squares by weight
+		WEIGHTS	= new int[ count ];
+		MASKS	= new long[ count ];
+		for( int n = 0; n < count; n++ ) {
+			WEIGHTS[n] = weights[n];
+			for( int square = 0; square < SQUARES; square++ ) {
+				if( SQUARE_WEIGHTS[square] == weights[n] ) {
+					MASKS[n] |= 1L << square;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Default Constructor
+	 */
+	public OthelloPositionalEvaluator() {
+		super();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.othello.OthelloEvaluator#evaluate(long, long)
+	 */
+	public int evaluate( final long own, final long opponent ) {
+		// score the occupied squares
+		int score = 0;
+		for( int n = 0; n < MASKS.length; n++ ) {
+			score += WEIGHTS[n] * ( count( own & MASKS[n] ) - count( opponent & MASKS[n] ) );
+		}
+
+		// score the mobility of each side
+		final int mobility = mobility( own, opponent ) - mobility( opponent, own );
+		return score + MOBILITY_WEIGHT * mobility;
+	}
+
+}
@@ -0,0 +1,465 @@
+package com.ldaniels528.woozle.othello;
+
+import com.ldaniels528.woozle.Logger;
+
+import java.util.Arrays;
+
+import static com.ldaniels528.woozle.othello.OthelloBitboard.*;
+import static com.ldaniels528.woozle.othello.OthelloTranspositionTable.*;
+
+/**
+ * Othello search engine: negamax with alpha-beta pruning, deepened one
+ * ply at a time until the time budget runs out. The best move of each
+ * completed iteration is searched first by the next, and the moves of
+ * the inner nodes are tried corners first and corner-adjacent squares
+ * last, which is where the cut-offs usually are.
+ * <p>Results are kept in a {@link OthelloTranspositionTable transposition table},
+ * so positions reached by different move orders, earlier iterations and
+ * earlier turns are not searched again; the best move stored for a
+ * position is always tried first.</p>
+ * <p>A search may be {@link #stop() stopped} from another thread, and
+ * several searches may share one table (see {@link OthelloParallelSearch}).</p>
+ * <p>Once few squares are left empty, the position is handed to the
+ * {@link OthelloEndgameSolver endgame solver} instead, which plays perfectly.</p>
+ * @author lawrence.daniels@gmail.com
+ */
+class OthelloSearch implements OthelloEngine {
+	// the score of a won game (plus the final disc differential)
+	public static final int WIN			= 100000;
+	private static final int INFINITY	= WIN + 1000;
+	private static final int MAX_DEPTH	= SQUARES;
+
+	// the clock is checked once every 1024 nodes
+	private static final int CHECK_INTERVAL = 1023;
+
+	// positions this close to the leaves are cheaper to search than to look up
+	private static final int MIN_TABLE_DEPTH = 2;
+
+	// the move ordering classes
+	private static final long CORNERS	= square( 0, 0 ) | square( 7, 0 ) | square( 0, 7 ) | square( 7, 7 );
+	private static final long X_SQUARES	= square( 1, 1 ) | square( 6, 1 ) | square( 1, 6 ) | square( 6, 6 );
+	private static final long C_SQUARES	= square( 1, 0 ) | square( 6, 0 ) | square( 0, 1 ) | square( 7, 1 ) |
+										  square( 0, 6 ) | square( 7, 6 ) | square( 1, 7 ) | square( 6, 7 );
+	private static final long[] MOVE_ORDER = {
+		CORNERS, ~( CORNERS | X_SQUARES | C_SQUARES ), C_SQUARES, X_SQUARES
+	};
+
+	// internal fields
+	private final OthelloEvaluator evaluator;
+	private final OthelloTranspositionTable table;
+	private final OthelloEndgameSolver solver;
+	private volatile boolean stopped;
+	private long nodes;
+	private long deadline;
+	private boolean aborted;
+	private int maxDepth;
+	private int endgameEmpties;
+	private int completedDepth;
+	private int bestScore;
+	private OthelloSearchTelemetry telemetry;
+
+	/**
+	 * Creates a new search engine
+	 * @param evaluator the given {@link OthelloEvaluator evaluator}
+	 */
+	public OthelloSearch( final OthelloEvaluator evaluator ) {
+		this( evaluator, new OthelloTranspositionTable( DEFAULT_BITS ) );
+	}
+
+	/**
+	 * Creates a new search engine
+	 * @param evaluator the given {@link OthelloEvaluator evaluator}
+	 * @param table the given {@link OthelloTranspositionTable transposition table}
+	 */
+	public OthelloSearch( final OthelloEvaluator evaluator, final OthelloTranspositionTable table ) {
+		this.evaluator		= evaluator;
+		this.table			= table;
+		this.solver			= new OthelloEndgameSolver();
+		this.maxDepth		= MAX_DEPTH;
+		this.endgameEmpties	= OthelloEndgameSolver.DEFAULT_EMPTIES;
+	}
+
+	/**
+	 * Returns the transposition table
+	 * @return the {@link OthelloTranspositionTable transposition table}
+	 */
+	public OthelloTranspositionTable getTranspositionTable() {
+		return table;
+	}
+
+	/**
+	 * Sets the depth (in plies) beyond which the search does not go
+	 * @param maxDepth the maximum depth
+	 */
+	public void setMaxDepth( final int maxDepth ) {
+		this.maxDepth = maxDepth;
+	}
+
+	/**
+	 * Sets the number of empty squares at (or below) which the endgame solver takes over
+	 * @param endgameEmpties the number of empty squares (zero to never solve)
+	 */
+	public void setEndgameEmpties( final int endgameEmpties ) {
+		this.endgameEmpties = endgameEmpties;
+	}
+
+	/**
+	 * Indicates whether the given position is left to the endgame solver
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @return true, if the position will be solved (rather than searched)
+	 */
+	boolean isEndgame( final long own, final long opponent ) {
+		return SQUARES - count( own | opponent ) <= endgameEmpties;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.othello.OthelloEngine#findBestMove(long, long, long)
+	 */
+	public int findBestMove( final long own, final long opponent, final long budgetMillis ) {
+		final long startTime	= System.nanoTime();
+		final long probes0		= table.getProbes();
+		final long hits0		= table.getHits();
+
+		// search the position
+		reset();
+		table.newSearch();
+		telemetry = null;
+		final int move = search( own, opponent, budgetMillis, 0 );
+
+		// report the search
+		final long elapsed	= Math.max( System.nanoTime() - startTime, 1 );
+		final long probes	= table.getProbes() - probes0;
+		final long hits		= table.getHits() - hits0;
+		if( move != -1 ) {
+			telemetry = new OthelloSearchTelemetry( "alphabeta", SIZE, move, completedDepth, bestScore, nodes, elapsed,
+					probes, hits, table.getFill(), getPrincipalVariation( table, own, opponent, move ) );
+		}
+		Logger.info( "AI: depth %d, score %d, %d nodes in %d ms (%.0f nodes/sec), TT hits %.1f%%, fill %.1f%%\n",
+				completedDepth, bestScore, nodes, elapsed / 1000000L, nodes * 1e9 / elapsed,
+				( probes > 0 ) ? hits * 100.0 / probes : 0.0, table.getFill() * 100 );
+		return move;
+	}
+
+	/**
+	 * Searches the given position, deepening the search until the time
+	 * runs out, the game is solved or the search is {@link #stop() stopped}
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @param budgetMillis the time available for the move (in milliseconds)
+	 * @param startDepth the depth of the first iteration (in plies, less one)
+	 * @return the index of the best move's square, or -1 if there is no legal move
+	 */
+	int search( final long own, final long opponent, final long budgetMillis, final int startDepth ) {
+		final long startTime = System.nanoTime();
+		this.deadline		= startTime + Math.min( budgetMillis, Long.MAX_VALUE / 4000000L ) * 1000000L;
+		this.nodes			= 0;
+		this.aborted		= false;
+		this.completedDepth	= 0;
+		this.bestScore		= 0;
+
+		// gather the legal moves
+		final long moves = legalMoves( own, opponent );
+		if( moves == 0 ) {
+			return -1;
+		}
+
+		// near the end of the game, solve the position outright (within half
+		// the time, so a search can still be made if the solver runs out)
+		final long key			= OthelloZobrist.key( own, opponent );
+		final long opponentKey	= OthelloZobrist.key( opponent, own );
+		if( isEndgame( own, opponent ) ) {
+			final int move = solver.solve( own, opponent, startTime + ( deadline - startTime ) / 2 );
+			nodes += solver.getNodeCount();
+			if( move != -1 ) {
+				final int score = solver.getScore();
+				completedDepth	= SQUARES - count( own | opponent );
+				bestScore		= ( score > 0 ) ? WIN + score : ( ( score < 0 ) ? -WIN + score : 0 );
+				table.store( key, completedDepth, solver.isExact() ? EXACT : ( ( score > 0 ) ? LOWER : UPPER ), move, bestScore );
+				return move;
+			}
+		}
+
+		// a move remembered from an earlier turn is searched first
+		final int[] rootMoves = new int[ count( moves ) ];
+		int count = 0;
+		final int rememberedMove = getMove( table.probe( key ) );
+		final long first = ( rememberedMove >= 0 ) ? ( moves & ( 1L << rememberedMove ) ) : 0;
+		if( first != 0 ) {
+			rootMoves[count++] = rememberedMove;
+		}
+		for( final long mask : MOVE_ORDER ) {
+			for( long bits = moves & mask & ~first; bits != 0; bits &= bits - 1 ) {
+				rootMoves[count++] = Long.numberOfTrailingZeros( bits );
+			}
+		}
+
+		// deepen the search until the time runs out (or the game is solved)
+		final int limit = Math.min( maxDepth, SQUARES - count( own | opponent ) );
+		int bestMove = rootMoves[0];
+		int depth = Math.min( startDepth, limit - 1 );
+		while( ( depth < limit ) && ( rootMoves.length > 1 ) ) {
+			// search each move to the next depth
+			int alpha = -INFINITY;
+			int best = 0;
+			for( int n = 0; n < rootMoves.length && !aborted; n++ ) {
+				final int move		= rootMoves[n];
+				final long flipped	= flips( own, opponent, move );
+				final long flipKey	= OthelloZobrist.flipKey( flipped );
+				final int score		= -negamax( opponent & ~flipped, own | flipped | ( 1L << move ),
+						opponentKey ^ flipKey ^ OthelloZobrist.OPPONENT[move], key ^ flipKey ^ OthelloZobrist.OWN[move],
+						depth, -INFINITY, -alpha );
+				if( !aborted && ( score > alpha ) ) {
+					alpha	= score;
+					best	= n;
+				}
+			}
+
+			// an unfinished iteration is discarded
+			if( aborted ) {
+				break;
+			}
+			depth++;
+			bestMove		= rootMoves[best];
+			bestScore		= alpha;
+			completedDepth	= depth;
+			table.store( key, depth, EXACT, bestMove, bestScore );
+
+			// search the best move first next time
+			System.arraycopy( rootMoves, 0, rootMoves, 1, best );
+			rootMoves[0] = bestMove;
+
+			// stop if the outcome is known, or the next iteration won't finish in time
+			final long now = System.nanoTime();
+			if( ( Math.abs( bestScore ) >= WIN - SQUARES ) || ( now - startTime > ( deadline - startTime ) / 2 ) ) {
+				break;
+			}
+		}
+		return bestMove;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.othello.OthelloEngine#stop()
+	 */
+	public void stop() {
+		stopped = true;
+		solver.stop();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.othello.OthelloEngine#getRememberedMove(long, long)
+	 */
+	public int getRememberedMove( final long own, final long opponent ) {
+		return getRememberedMove( table, own, opponent );
+	}
+
+	/**
+	 * Returns the best move stored in the given table for the given position
+	 * @param table the given {@link OthelloTranspositionTable transposition table}
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @return the index of the move's square, or -1 if none is stored (or it's not legal)
+	 */
+	static int getRememberedMove( final OthelloTranspositionTable table, final long own, final long opponent ) {
+		final int move = getMove( table.probe( OthelloZobrist.key( own, opponent ) ) );
+		return ( ( move >= 0 ) && ( ( legalMoves( own, opponent ) & ( 1L << move ) ) != 0 ) ) ? move : -1;
+	}
+
+	/**
+	 * Returns the principal variation: the given move, followed by the best
+	 * moves stored in the given table (for as long as they are legal)
+	 * @param table the given {@link OthelloTranspositionTable transposition table}
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @param move the index of the move played
+	 * @return the expected line of play
+	 */
+	static int[] getPrincipalVariation( final OthelloTranspositionTable table, final long own, final long opponent, final int move ) {
+		// at most a move (and a pass) per square
+		final int[] line = new int[ 2 * SQUARES ];
+		long mover = own;
+		long other = opponent;
+		int next = move;
+		int length = 0;
+		while( next != -1 ) {
+			// play the move (discs are only ever added, so the line can't repeat)
+			final long flipped = flips( mover, other, next );
+			line[length++] = next;
+			final long placed = mover | flipped | ( 1L << next );
+			mover = other & ~flipped;
+			other = placed;
+
+			// follow the stored reply (passing, if the side to move has no moves)
+			if( legalMoves( mover, other ) == 0 ) {
+				if( legalMoves( other, mover ) == 0 ) {
+					break;
+				}
+				line[length++] = OthelloSearchTelemetry.PASS;
+				final long swap = mover;
+				mover = other;
+				other = swap;
+			}
+			next = getRememberedMove( table, mover, other );
+		}
+		return Arrays.copyOf( line, length );
+	}
+
+	/**
+	 * Clears the stop request left over from an earlier search
+	 */
+	void reset() {
+		stopped = false;
+		solver.reset();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.othello.OthelloEngine#shutdown()
+	 */
+	public void shutdown() {
+		// nothing to release
+	}
+
+	/**
+	 * Returns the depth of the deepest iteration completed by the most recent search
+	 * @return the depth (in plies)
+	 */
+	public int getCompletedDepth() {
+		return completedDepth;
+	}
+
+	/**
+	 * Returns the score of the best move found by the most recent search
+	 * @return the score
+	 */
+	public int getBestScore() {
+		return bestScore;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.othello.OthelloEngine#getNodeCount()
+	 */
+	public long getNodeCount() {
+		return nodes;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see com.ldaniels528.woozle.othello.OthelloEngine#getTelemetry()
+	 */
+	public OthelloSearchTelemetry getTelemetry() {
+		return telemetry;
+	}
+
+	/**
+	 * Searches the given position
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @param key the key of the position (from the point of view of the side to move)
+	 * @param opponentKey the key of the position from the opponent's point of view
+	 * @param depth the remaining depth (in plies)
+	 * @param alpha the score the side to move is already assured of
+	 * @param beta the score the opponent is already assured of
+	 * @return the score of the position, from the point of view of the side to move
+	 */
+	private int negamax( final long own, final long opponent, final long key, final long opponentKey,
+						 final int depth, int alpha, int beta ) {
+		// check the clock (and for requests to stop) every so often
+		if( ( ( ++nodes & CHECK_INTERVAL ) == 0 ) &&
+			( stopped || ( System.nanoTime() > deadline ) || Thread.currentThread().isInterrupted() ) ) {
+			aborted = true;
+		}
+		if( aborted ) {
+			return 0;
+		}
+
+		// evaluate the leaves (a full board is scored by its outcome)
+		if( depth == 0 ) {
+			return ( ( own | opponent ) == -1L ) ? getFinalScore( own, opponent ) : evaluator.evaluate( own, opponent );
+		}
+
+		// has the position already been searched?
+		final int alphaOriginal = alpha;
+		final long entry = ( depth >= MIN_TABLE_DEPTH ) ? table.probe( key ) : 0;
+		if( ( entry != 0 ) && ( getDepth( entry ) >= depth ) ) {
+			final int score = getScore( entry );
+			switch( getBound( entry ) ) {
+				case EXACT: return score;
+				case LOWER: alpha = Math.max( alpha, score ); break;
+				case UPPER: beta = Math.min( beta, score ); break;
+			}
+			if( alpha >= beta ) {
+				return score;
+			}
+		}
+
+		// if there are no legal moves, pass (or the game is over)
+		final long moves = legalMoves( own, opponent );
+		if( moves == 0 ) {
+			if( legalMoves( opponent, own ) == 0 ) {
+				return getFinalScore( own, opponent );
+			}
+			return -negamax( opponent, own, opponentKey, key, depth, -beta, -alpha );
+		}
+
+		// search the stored best move first, then the rest in order
+		final int storedMove = ( entry != 0 ) ? getMove( entry ) : -1;
+		final long first = ( storedMove >= 0 ) ? ( moves & ( 1L << storedMove ) ) : 0;
+		int best = -INFINITY;
+		int bestMove = -1;
+		for( int n = -1; n < MOVE_ORDER.length; n++ ) {
+			final long candidates = ( n < 0 ) ? first : ( moves & MOVE_ORDER[n] & ~first );
+			for( long bits = candidates; bits != 0; bits &= bits - 1 ) {
+				final int move		= Long.numberOfTrailingZeros( bits );
+				final long flipped	= flips( own, opponent, move );
+				final long flipKey	= OthelloZobrist.flipKey( flipped );
+				final int score		= -negamax( opponent & ~flipped, own | flipped | ( 1L << move ),
+						opponentKey ^ flipKey ^ OthelloZobrist.OPPONENT[move], key ^ flipKey ^ OthelloZobrist.OWN[move],
+						depth - 1, -beta, -alpha );
+				if( score > best ) {
+					best		= score;
+					bestMove	= move;
+					if( best > alpha ) {
+						alpha = best;
+						if( alpha >= beta ) {
+							if( !aborted && ( depth >= MIN_TABLE_DEPTH ) ) {
+								table.store( key, depth, LOWER, bestMove, best );
+							}
+							return best;
+						}
+					}
+				}
+			}
+		}
+
+		// remember the result
+		if( !aborted && ( depth >= MIN_TABLE_DEPTH ) ) {
+			table.store( key, depth, ( best > alphaOriginal ) ? EXACT : UPPER, bestMove, best );
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the score of a finished game
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @return the score of the game
+	 */
+	static int getFinalScore( final long own, final long opponent ) {
+		final int differential = count( own ) - count( opponent );
+		if( differential > 0 ) {
+			return WIN + differential;
+		}
+		else if( differential < 0 ) {
+			return -WIN + differential;
+		}
+		else {
+			return 0;
+		}
+	}
+
+}
@@ -0,0 +1,232 @@
+package com.ldaniels528.woozle.othello;
+
+import com.ldaniels528.woozle.MetricsRegistry;
+
+import static java.lang.String.format;
+
+/**
+ * Telemetry of one of the AI's moves: which engine chose it, how deep it
+ * searched, how many positions it visited (and how fast), how well the
+ * transposition table served it, and the principal variation (the line of
+ * play it expects). The engines fill in their counters as they search, and
+ * build the telemetry once the search is over, so collecting it costs the
+ * search nothing.
+ * <p>Telemetry is immutable; the AI {@link #publish(MetricsRegistry) publishes}
+ * the telemetry of each move to the {@link MetricsRegistry metrics registry},
+ * under <tt>othello.ai.*</tt>.</p>
+ * @author lawrence.daniels@gmail.com
+ */
+class OthelloSearchTelemetry {
+	// the move of a pass, in a principal variation
+	public static final int PASS = -1;
+
+	// the prefix of the published metrics
+	private static final String PREFIX = "othello.ai.";
+
+	// internal fields
+	private final String engine;
+	private final int size;
+	private final int move;
+	private final int depth;
+	private final int score;
+	private final long nodes;
+	private final long elapsedNanos;
+	private final long tableProbes;
+	private final long tableHits;
+	private final double tableFill;
+	private final int[] principalVariation;
+
+	/**
+	 * Creates the telemetry of a move
+	 * @param engine the name of the engine (e.g. "alphabeta", "mcts" or "book")
+	 * @param size the number of columns (and rows) of the board
+	 * @param move the index of the square moved on
+	 * @param depth the depth searched (in plies)
+	 * @param score the score of the move (in the engine's own units)
+	 * @param nodes the number of positions visited
+	 * @param elapsedNanos the time taken (in nanoseconds)
+	 * @param tableProbes the number of transposition table lookups
+	 * @param tableHits the number of successful transposition table lookups
+	 * @param tableFill the fraction of the transposition table in use (0 to 1)
+	 * @param principalVariation the expected line of play, starting with the move
+	 * ({@link #PASS} for a pass)
+	 */
+	public OthelloSearchTelemetry( final String engine,
+								   final int size,
+								   final int move,
+								   final int depth,
+								   final int score,
+								   final long nodes,
+								   final long elapsedNanos,
+								   final long tableProbes,
+								   final long tableHits,
+								   final double tableFill,
+								   final int[] principalVariation ) {
+		this.engine				= engine;
+		this.size				= size;
+		this.move				= move;
+		this.depth				= depth;
+		this.score				= score;
+		this.nodes				= nodes;
+		this.elapsedNanos		= elapsedNanos;
+		this.tableProbes		= tableProbes;
+		this.tableHits			= tableHits;
+		this.tableFill			= tableFill;
+		this.principalVariation	= principalVariation;
+	}
+
+	/**
+	 * Creates the telemetry of a move played from the opening book
+	 * @param move the index of the square moved on
+	 * @param score the score stored in the book
+	 * @return the {@link OthelloSearchTelemetry telemetry}
+	 */
+	public static OthelloSearchTelemetry forBookMove( final int move, final int score ) {
+		return new OthelloSearchTelemetry( "book", OthelloBitboard.SIZE, move, 0, score, 0, 0, 0, 0, 0, new int[] { move } );
+	}
+
+	/**
+	 * Publishes the telemetry to the given registry: the latest values as
+	 * gauges, and the moves and nodes as running totals
+	 * @param registry the given {@link MetricsRegistry metrics registry}
+	 */
+	public void publish( final MetricsRegistry registry ) {
+		registry.setGauge( PREFIX + "engine", engine );
+		registry.setGauge( PREFIX + "move", formatMove( move ) );
+		registry.setGauge( PREFIX + "depth", depth );
+		registry.setGauge( PREFIX + "score", score );
+		registry.setGauge( PREFIX + "nodes", nodes );
+		registry.setGauge( PREFIX + "nodesPerSecond", getNodesPerSecond() );
+		registry.setGauge( PREFIX + "elapsedMillis", getElapsedMillis() );
+		registry.setGauge( PREFIX + "tt.hitRate", getTableHitRate() );
+		registry.setGauge( PREFIX + "tt.fill", tableFill );
+		registry.setGauge( PREFIX + "pv", formatPrincipalVariation( principalVariation.length ) );
+		registry.increment( PREFIX + "moves", 1 );
+		registry.increment( PREFIX + "totalNodes", nodes );
+	}
+
+	/**
+	 * Returns the name of the engine that chose the move
+	 * @return the name of the engine
+	 */
+	public String getEngine() {
+		return engine;
+	}
+
+	/**
+	 * Returns the move
+	 * @return the index of the square moved on
+	 */
+	public int getMove() {
+		return move;
+	}
+
+	/**
+	 * Returns the depth searched
+	 * @return the depth (in plies)
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Returns the score of the move
+	 * @return the score (in the engine's own units)
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * Returns the number of positions visited
+	 * @return the number of nodes
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Returns the time taken
+	 * @return the time taken (in milliseconds)
+	 */
+	public long getElapsedMillis() {
+		return elapsedNanos / 1000000L;
+	}
+
+	/**
+	 * Returns the rate at which positions were visited
+	 * @return the number of nodes per second
+	 */
+	public double getNodesPerSecond() {
+		return ( elapsedNanos > 0 ) ? nodes * 1e9 / elapsedNanos : 0;
+	}
+
+	/**
+	 * Returns the fraction of transposition table lookups that were successful
+	 * @return the hit rate (0 to 1)
+	 */
+	public double getTableHitRate() {
+		return ( tableProbes > 0 ) ? (double)tableHits / tableProbes : 0;
+	}
+
+	/**
+	 * Returns the fraction of the transposition table in use
+	 * @return the fill (0 to 1)
+	 */
+	public double getTableFill() {
+		return tableFill;
+	}
+
+	/**
+	 * Returns the principal variation
+	 * @return the expected line of play, starting with the move ({@link #PASS} for a pass)
+	 */
+	public int[] getPrincipalVariation() {
+		return principalVariation.clone();
+	}
+
+	/**
+	 * Formats the start of the principal variation, e.g. "d3 c5 f6"
+	 * @param maxMoves the maximum number of moves to include
+	 * @return the moves, separated by spaces
+	 */
+	public String formatPrincipalVariation( final int maxMoves ) {
+		final StringBuilder sb = new StringBuilder();
+		final int length = Math.min( maxMoves, principalVariation.length );
+		for( int n = 0; n < length; n++ ) {
+			if( n > 0 ) {
+				sb.append( ' ' );
+			}
+			sb.append( formatMove( principalVariation[n] ) );
+		}
+		if( length < principalVariation.length ) {
+			sb.append( " ..." );
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Formats the given move in the usual notation (column letter, then row number)
+	 * @param square the index of the move's square, or {@link #PASS}
+	 * @return the move, e.g. "d3" or "pass"
+	 */
+	private String formatMove( final int square ) {
+		if( square == PASS ) {
+			return "pass";
+		}
+		final int column = square % size;
+		final int row = square / size;
+		return ( column < 26 ) ? format( "%c%d", (char)( 'a' + column ), row + 1 ) : format( "{%d,%d}", column, row );
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	public String toString() {
+		return format( "%s: %s, depth %d, score %d, %d nodes in %d ms (%.0f nodes/sec), TT hits %.1f%%, fill %.1f%%, pv %s",
+				engine, formatMove( move ), depth, score, nodes, getElapsedMillis(), getNodesPerSecond(),
+				getTableHitRate() * 100, tableFill * 100, formatPrincipalVariation( principalVariation.length ) );
+	}
+
+}
@@ -0,0 +1,206 @@
+package com.ldaniels528.woozle.othello;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size transposition table for the Othello search. Each entry is
+ * a pair of longs (the position's {@link OthelloZobrist Zobrist key}, and
+ * the packed depth, bound type, best move, score and search generation)
+ * held in primitive arrays; the entry of a key is chosen by its low bits.
+ * <p>Replacement is depth-preferred: an entry is only overwritten by a
+ * deeper (or equally deep) result, unless it is left over from an earlier
+ * search, or belongs to the same position.</p>
+ * <p>The table may be shared by several search threads without locking:
+ * the key is stored XOR-ed with the data, so an entry torn by two threads
+ * writing at once no longer matches its key, and simply reads as a miss.
+ * (The probe and hit counters are not synchronized, so under sharing they
+ * are approximate.)</p>
+ * @author lawrence.daniels@gmail.com
+ */
+class OthelloTranspositionTable {
+	// the bound types
+	public static final int LOWER = 1;
+	public static final int UPPER = 2;
+	public static final int EXACT = 3;
+
+	// the default size of the table (in entries, as a power of two)
+	public static final int DEFAULT_BITS = Integer.getInteger( "woozle.othello.tt.bits", 20 );
+
+	// the number of entries sampled to estimate the fill
+	private static final int FILL_SAMPLE = 1000;
+
+	// the layout of the packed data
+	private static final int DEPTH_SHIFT		= 32;
+	private static final int BOUND_SHIFT		= 40;
+	private static final int MOVE_SHIFT			= 42;
+	private static final int GENERATION_SHIFT	= 56;
+
+	// internal fields
+	private final long[] keys;
+	private final long[] data;
+	private final int mask;
+	private int generation;
+	private long probes;
+	private long hits;
+
+	/**
+	 * Creates a new transposition table
+	 * @param bits the size of the table (2^bits entries)
+	 */
+	public OthelloTranspositionTable( final int bits ) {
+		this.keys		= new long[ 1 << bits ];
+		this.data		= new long[ 1 << bits ];
+		this.mask		= ( 1 << bits ) - 1;
+		this.generation	= 1;
+	}
+
+	/**
+	 * Returns the number of entries in the table
+	 * @return the number of entries
+	 */
+	public int getCapacity() {
+		return keys.length;
+	}
+
+	/**
+	 * Removes all entries from the table
+	 */
+	public void clear() {
+		Arrays.fill( keys, 0 );
+		Arrays.fill( data, 0 );
+		probes	= 0;
+		hits	= 0;
+	}
+
+	/**
+	 * Marks the start of a new search; entries from earlier
+	 * searches may still be read, but are replaced first
+	 */
+	public void newSearch() {
+		generation = ( generation % 255 ) + 1;
+	}
+
+	/**
+	 * Looks up the given position
+	 * @param key the given position's key
+	 * @return the packed entry, or zero if the position is not in the table
+	 */
+	public long probe( final long key ) {
+		probes++;
+		final int index = (int)key & mask;
+		final long entry = data[index];
+		if( ( entry != 0 ) && ( ( keys[index] ^ entry ) == key ) ) {
+			hits++;
+			return entry;
+		}
+		return 0;
+	}
+
+	/**
+	 * Stores the result of searching the given position
+	 * @param key the given position's key
+	 * @param depth the depth searched
+	 * @param bound the bound type ({@link #LOWER}, {@link #UPPER} or {@link #EXACT})
+	 * @param move the best move found, or -1 if none
+	 * @param score the score found
+	 */
+	public void store( final long key, final int depth, final int bound, final int move, final int score ) {
+		final int index = (int)key & mask;
+		final long entry = data[index];
+		if( ( entry == 0 ) || ( ( keys[index] ^ entry ) == key ) ||
+			( getGeneration( entry ) != generation ) || ( depth >= getDepth( entry ) ) ) {
+			final long packed = ( score & 0xFFFFFFFFL ) |
+								( (long)depth << DEPTH_SHIFT ) |
+								( (long)bound << BOUND_SHIFT ) |
+								( (long)( move + 1 ) << MOVE_SHIFT ) |
+								( (long)generation << GENERATION_SHIFT );
+			keys[index] = key ^ packed;
+			data[index] = packed;
+		}
+	}
+
+	/**
+	 * Returns the number of lookups since the table was cleared
+	 * @return the number of lookups
+	 */
+	public long getProbes() {
+		return probes;
+	}
+
+	/**
+	 * Returns the number of successful lookups since the table was cleared
+	 * @return the number of successful lookups
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Returns the fraction of lookups that were successful
+	 * @return the hit rate (0 to 1)
+	 */
+	public double getHitRate() {
+		return ( probes > 0 ) ? (double)hits / probes : 0;
+	}
+
+	/**
+	 * Estimates the fraction of the table used by the current search
+	 * @return the fill (0 to 1)
+	 */
+	public double getFill() {
+		final int sample = Math.min( FILL_SAMPLE, data.length );
+		int used = 0;
+		for( int n = 0; n < sample; n++ ) {
+			if( ( data[n] != 0 ) && ( getGeneration( data[n] ) == generation ) ) {
+				used++;
+			}
+		}
+		return (double)used / sample;
+	}
+
+	/**
+	 * Returns the score of the given entry
+	 * @param entry the given packed entry
+	 * @return the score
+	 */
+	public static int getScore( final long entry ) {
+		return (int)entry;
+	}
+
+	/**
+	 * Returns the depth of the given entry
+	 * @param entry the given packed entry
+	 * @return the depth
+	 */
+	public static int getDepth( final long entry ) {
+		return (int)( entry >>> DEPTH_SHIFT ) & 0xFF;
+	}
+
+	/**
+	 * Returns the bound type of the given entry
+	 * @param entry the given packed entry
+	 * @return the bound type ({@link #LOWER}, {@link #UPPER} or {@link #EXACT})
+	 */
+	public static int getBound( final long entry ) {
+		return (int)( entry >>> BOUND_SHIFT ) & 0x3;
+	}
+
+	/**
+	 * Returns the best move of the given entry
+	 * @param entry the given packed entry
+	 * @return the index of the best move's square, or -1 if none
+	 */
+	public static int getMove( final long entry ) {
+		return ( (int)( entry >>> MOVE_SHIFT ) & 0x7F ) - 1;
+	}
+
+	/**
+	 * Returns the search generation of the given entry
+	 * @param entry the given packed entry
+	 * @return the generation
+	 */
+	private static int getGeneration( final long entry ) {
+		return (int)( entry >>> GENERATION_SHIFT ) & 0xFF;
+	}
+
+}
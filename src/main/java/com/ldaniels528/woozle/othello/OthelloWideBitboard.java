@@ -0,0 +1,311 @@
+package com.ldaniels528.woozle.othello;
+
+/**
+ * Othello bitboard operations for square boards of any (even) size. Each
+ * colour's discs are held in an array of 64-bit words, where the square at
+ * (column, row) is bit <tt>row * size + column</tt>, counted across the words.
+ * Legal moves are found a whole direction at a time, with shift-and-mask
+ * fills (dumb7 fill: one step per square of the longest possible run, or
+ * fewer once a run stops growing), so the cost grows with the number of
+ * words rather than the number of squares.
+ * <p>An instance holds the masks for one board size, and scratch words for
+ * the fills; it is not thread-safe, so each thread uses its own.</p>
+ * @author lawrence.daniels@gmail.com
+ */
+final class OthelloWideBitboard {
+	// internal fields
+	private final int size;
+	private final int squares;
+	private final int words;
+	private final long[] valid;
+	private final int[] shifts;
+	private final long[][] leftMasks;
+	private final long[][] rightMasks;
+	private final long[] empty;
+	private final long[] run;
+	private final long[] step;
+	private final long[] line;
+
+	/**
+	 * Creates the bitboard operations for the given board size
+	 * @param size the number of columns (and rows) of the board
+	 */
+	public OthelloWideBitboard( final int size ) {
+		this.size		= size;
+		this.squares	= size * size;
+		this.words		= ( squares + 63 ) / 64;
+		this.valid		= new long[ words ];
+		this.empty		= new long[ words ];
+		this.run		= new long[ words ];
+		this.step		= new long[ words ];
+		this.line		= new long[ words ];
+
+		// the squares of the board, and the first and last columns
+		final long[] firstColumn = new long[ words ];
+		final long[] lastColumn = new long[ words ];
+		for( int square = 0; square < squares; square++ ) {
+			set( valid, square );
+			if( square % size == 0 ) {
+				set( firstColumn, square );
+			}
+			if( square % size == size - 1 ) {
+				set( lastColumn, square );
+			}
+		}
+
+		// the four directions in which squares increase (E, S, SE and SW), and the
+		// squares that can be reached by shifting left/right (without wrapping)
+		this.shifts		= new int[] { 1, size, size + 1, size - 1 };
+		this.leftMasks	= new long[][] { without( firstColumn ), valid.clone(), without( firstColumn ), without( lastColumn ) };
+		this.rightMasks	= new long[][] { without( lastColumn ), valid.clone(), without( lastColumn ), without( firstColumn ) };
+	}
+
+	/**
+	 * Returns the number of columns (and rows) of the board
+	 * @return the size of the board
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of squares of the board
+	 * @return the number of squares
+	 */
+	public int getSquares() {
+		return squares;
+	}
+
+	/**
+	 * Returns the number of words in each bitboard
+	 * @return the number of words
+	 */
+	public int getWords() {
+		return words;
+	}
+
+	/**
+	 * Creates an (empty) bitboard
+	 * @return the bitboard
+	 */
+	public long[] create() {
+		return new long[ words ];
+	}
+
+	/**
+	 * Sets the discs of the starting position (in the four centre squares)
+	 * @param ying the bitboard of the first side's discs
+	 * @param yang the bitboard of the second side's discs
+	 */
+	public void setInitial( final long[] ying, final long[] yang ) {
+		final int centre = size / 2 - 1;
+		clear( ying );
+		clear( yang );
+		set( ying, index( centre, centre ) );
+		set( ying, index( centre + 1, centre + 1 ) );
+		set( yang, index( centre + 1, centre ) );
+		set( yang, index( centre, centre + 1 ) );
+	}
+
+	/**
+	 * Returns the index of the given square
+	 * @param column the given column
+	 * @param row the given row
+	 * @return the index
+	 */
+	public int index( final int column, final int row ) {
+		return row * size + column;
+	}
+
+	/**
+	 * Finds the squares on which the given side may legally move
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @param moves the bitboard to fill with the legal moves
+	 * @return true, if there is at least one legal move
+	 */
+	public boolean legalMoves( final long[] own, final long[] opponent, final long[] moves ) {
+		for( int n = 0; n < words; n++ ) {
+			empty[n] = ~( own[n] | opponent[n] ) & valid[n];
+			moves[n] = 0;
+		}
+		for( int d = 0; d < shifts.length; d++ ) {
+			fill( own, opponent, moves, shifts[d], leftMasks[d], true );
+			fill( own, opponent, moves, shifts[d], rightMasks[d], false );
+		}
+
+		// anything found?
+		long any = 0;
+		for( int n = 0; n < words; n++ ) {
+			any |= moves[n];
+		}
+		return any != 0;
+	}
+
+	/**
+	 * Returns the number of legal moves of the given side (its mobility)
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @param moves the bitboard to fill with the legal moves
+	 * @return the number of legal moves
+	 */
+	public int mobility( final long[] own, final long[] opponent, final long[] moves ) {
+		legalMoves( own, opponent, moves );
+		return count( moves );
+	}
+
+	/**
+	 * Finds the discs that would be flipped by moving on the given square
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @param square the index of the given (empty) square
+	 * @param flipped the bitboard to fill with the flipped discs
+	 * @return the number of flipped discs (zero if the move is illegal)
+	 */
+	public int flips( final long[] own, final long[] opponent, final int square, final long[] flipped ) {
+		clear( flipped );
+		int total = 0;
+		final int column = square % size;
+		final int row = square / size;
+		for( int dc = -1; dc <= 1; dc++ ) {
+			for( int dr = -1; dr <= 1; dr++ ) {
+				if( ( dc == 0 ) && ( dr == 0 ) ) {
+					continue;
+				}
+
+				// follow the run of opponent discs; it's captured if one of our own ends it
+				int c = column + dc;
+				int r = row + dr;
+				int length = 0;
+				while( ( c >= 0 ) && ( c < size ) && ( r >= 0 ) && ( r < size ) && get( opponent, r * size + c ) ) {
+					c += dc;
+					r += dr;
+					length++;
+				}
+				if( ( length > 0 ) && ( c >= 0 ) && ( c < size ) && ( r >= 0 ) && ( r < size ) && get( own, r * size + c ) ) {
+					for( int n = 1; n <= length; n++ ) {
+						set( flipped, ( row + dr * n ) * size + column + dc * n );
+					}
+					total += length;
+				}
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * Extends the given discs along the opponent's, in one direction, and adds
+	 * the empty squares at the ends of the runs to the moves
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @param moves the legal moves found so far
+	 * @param shift the distance between neighbouring squares in this direction
+	 * @param mask the squares that can be reached by a shift (without wrapping)
+	 * @param left true, if the squares increase in this direction
+	 */
+	private void fill( final long[] own, final long[] opponent, final long[] moves, final int shift, final long[] mask, final boolean left ) {
+		// the opponent's discs next to our own
+		shift( own, shift, mask, left, run );
+		long any = 0;
+		for( int n = 0; n < words; n++ ) {
+			run[n] &= opponent[n];
+			any |= run[n];
+		}
+
+		// extend the runs until they stop growing
+		while( any != 0 ) {
+			shift( run, shift, mask, left, step );
+			any = 0;
+			for( int n = 0; n < words; n++ ) {
+				final long grown = step[n] & opponent[n] & ~run[n];
+				run[n] |= grown;
+				any |= grown;
+			}
+		}
+
+		// the empty squares just beyond the runs
+		shift( run, shift, mask, left, line );
+		for( int n = 0; n < words; n++ ) {
+			moves[n] |= line[n] & empty[n];
+		}
+	}
+
+	/**
+	 * Shifts the given bitboard across the words
+	 * @param source the given bitboard
+	 * @param shift the number of bits to shift by (less than 64)
+	 * @param mask the squares that can be reached by the shift
+	 * @param left true to shift towards higher squares, false for lower ones
+	 * @param target the bitboard to hold the result
+	 */
+	private void shift( final long[] source, final int shift, final long[] mask, final boolean left, final long[] target ) {
+		if( left ) {
+			for( int n = words - 1; n >= 0; n-- ) {
+				final long carry = ( n > 0 ) ? source[n - 1] >>> ( 64 - shift ) : 0;
+				target[n] = ( ( source[n] << shift ) | carry ) & mask[n];
+			}
+		}
+		else {
+			for( int n = 0; n < words; n++ ) {
+				final long carry = ( n < words - 1 ) ? source[n + 1] << ( 64 - shift ) : 0;
+				target[n] = ( ( source[n] >>> shift ) | carry ) & mask[n];
+			}
+		}
+	}
+
+	/**
+	 * Returns the board's squares, less the given ones
+	 * @param squares the given bitboard
+	 * @return the bitboard of the other squares
+	 */
+	private long[] without( final long[] squares ) {
+		final long[] result = new long[ words ];
+		for( int n = 0; n < words; n++ ) {
+			result[n] = valid[n] & ~squares[n];
+		}
+		return result;
+	}
+
+	/**
+	 * Indicates whether the given square is set
+	 * @param discs the given bitboard
+	 * @param square the index of the given square
+	 * @return true, if the square is set
+	 */
+	public static boolean get( final long[] discs, final int square ) {
+		return ( discs[square >>> 6] & ( 1L << square ) ) != 0;
+	}
+
+	/**
+	 * Sets the given square
+	 * @param discs the given bitboard
+	 * @param square the index of the given square
+	 */
+	public static void set( final long[] discs, final int square ) {
+		discs[square >>> 6] |= 1L << square;
+	}
+
+	/**
+	 * Clears the given bitboard
+	 * @param discs the given bitboard
+	 */
+	public static void clear( final long[] discs ) {
+		for( int n = 0; n < discs.length; n++ ) {
+			discs[n] = 0;
+		}
+	}
+
+	/**
+	 * Returns the number of discs in the given bitboard
+	 * @param discs the given bitboard
+	 * @return the number of discs
+	 */
+	public static int count( final long[] discs ) {
+		int count = 0;
+		for( final long word : discs ) {
+			count += Long.bitCount( word );
+		}
+		return count;
+	}
+
+}
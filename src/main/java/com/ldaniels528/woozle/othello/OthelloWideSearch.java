@@ -0,0 +1,391 @@
+package com.ldaniels528.woozle.othello;
+
+import static com.ldaniels528.woozle.othello.OthelloWideBitboard.count;
+import static com.ldaniels528.woozle.othello.OthelloWideBitboard.set;
+
+import com.ldaniels528.woozle.Logger;
+
+/**
+ * Othello search engine for boards of any size (see {@link OthelloWideBitboard}):
+ * an iterative-deepening negamax (alpha-beta) search, which answers within
+ * a time budget with the best move of the deepest completed iteration.
+ * <p>Positions are evaluated by square (corners are worth the most, the
+ * squares next to an empty corner the least) and by mobility. The child
+ * positions and move lists are kept in per-ply arrays allocated up front,
+ * so the search allocates nothing; moves are tried in order of the value
+ * of their squares, with the best move of the previous iteration first.</p>
+ * @author lawrence.daniels@gmail.com
+ */
+class OthelloWideSearch {
+	public static final int WIN			= 100000;
+	private static final int INFINITY	= Integer.MAX_VALUE;
+
+	// the clock is checked once every 1024 nodes
+	private static final int CHECK_INTERVAL = 1023;
+
+	// the square values, and the weight of each legal move
+	private static final int CORNER_WEIGHT		= 100;
+	private static final int X_SQUARE_WEIGHT	= -40;
+	private static final int C_SQUARE_WEIGHT	= -15;
+	private static final int EDGE_WEIGHT		= 8;
+	private static final int INNER_WEIGHT		= 1;
+	private static final int MOBILITY_WEIGHT	= 6;
+
+	// internal fields
+	private final OthelloWideBitboard bitboard;
+	private final int size;
+	private final int squares;
+	private final int[] weights;
+	private final int[] corners;
+	private final int[][] cornerNeighbours;
+	private final long[][] ownStack;
+	private final long[][] opponentStack;
+	private final long[][] moveStack;
+	private final long[] flipped;
+	private final int[][] moveLists;
+	private final int[][] moveScores;
+	private final int maxDepth;
+	private volatile boolean stopped;
+	private boolean aborted;
+	private long deadline;
+	private long nodes;
+	private int completedDepth;
+	private int bestScore;
+	private OthelloSearchTelemetry telemetry;
+
+	/**
+	 * Creates a new search engine for the given board size
+	 * @param size the number of columns (and rows) of the board
+	 */
+	public OthelloWideSearch( final int size ) {
+		this.bitboard	= new OthelloWideBitboard( size );
+		this.size		= size;
+		this.squares	= size * size;
+		this.maxDepth	= squares;
+		this.weights	= createWeights( size );
+		this.corners	= new int[] { 0, size - 1, squares - size, squares - 1 };
+
+		// the three squares next to each corner
+		this.cornerNeighbours = new int[ corners.length ][];
+		for( int n = 0; n < corners.length; n++ ) {
+			final int corner = corners[n];
+			final int dc = ( corner % size == 0 ) ? 1 : -1;
+			final int dr = ( corner / size == 0 ) ? 1 : -1;
+			cornerNeighbours[n] = new int[] { corner + dc, corner + dr * size, corner + dc + dr * size };
+		}
+
+		// one position (and move list) per ply, and one more for the leaves
+		final int words	= bitboard.getWords();
+		this.ownStack		= new long[ maxDepth + 2 ][ words ];
+		this.opponentStack	= new long[ maxDepth + 2 ][ words ];
+		this.moveStack		= new long[ maxDepth + 2 ][ words ];
+		this.flipped		= new long[ words ];
+		this.moveLists		= new int[ maxDepth + 2 ][ squares ];
+		this.moveScores		= new int[ maxDepth + 2 ][ squares ];
+	}
+
+	/**
+	 * Finds the best move for the side to move
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @param budgetMillis the time available for the move (in milliseconds)
+	 * @return the index of the square to move on, or -1 if there is no legal move
+	 */
+	public int findBestMove( final long[] own, final long[] opponent, final long budgetMillis ) {
+		final long startTime = System.nanoTime();
+		this.deadline		= startTime + Math.min( budgetMillis, Long.MAX_VALUE / 4000000L ) * 1000000L;
+		this.stopped		= false;
+		this.aborted		= false;
+		this.nodes			= 0;
+		this.completedDepth	= 0;
+		this.bestScore		= 0;
+		this.telemetry		= null;
+
+		// gather the legal moves
+		System.arraycopy( own, 0, ownStack[0], 0, own.length );
+		System.arraycopy( opponent, 0, opponentStack[0], 0, opponent.length );
+		final int count = orderMoves( 0 );
+		if( count == 0 ) {
+			return -1;
+		}
+		final int[] rootMoves = moveLists[0];
+
+		// deepen the search until the time runs out (or the game is solved)
+		final int limit = Math.min( maxDepth, squares - count( own ) - count( opponent ) );
+		int bestMove = rootMoves[0];
+		int depth = 0;
+		while( ( depth < limit ) && ( count > 1 ) ) {
+			// search each move to the next depth
+			int alpha = -INFINITY;
+			int best = 0;
+			for( int n = 0; n < count && !aborted; n++ ) {
+				play( 0, rootMoves[n] );
+				final int score = -negamax( 1, depth, -INFINITY, -alpha );
+				if( !aborted && ( score > alpha ) ) {
+					alpha	= score;
+					best	= n;
+				}
+			}
+
+			// an unfinished iteration is discarded
+			if( aborted ) {
+				break;
+			}
+			depth++;
+			bestMove		= rootMoves[best];
+			bestScore		= alpha;
+			completedDepth	= depth;
+
+			// search the best move first next time
+			System.arraycopy( rootMoves, 0, rootMoves, 1, best );
+			rootMoves[0] = bestMove;
+
+			// stop if the outcome is known, or the next iteration won't finish in time
+			if( ( Math.abs( bestScore ) >= WIN - squares ) || ( System.nanoTime() - startTime > ( deadline - startTime ) / 2 ) ) {
+				break;
+			}
+		}
+
+		// report the search (there's no table to follow the variation in)
+		final long elapsed = Math.max( System.nanoTime() - startTime, 1 );
+		telemetry = new OthelloSearchTelemetry( "wide", size, bestMove, completedDepth, bestScore, nodes, elapsed, 0, 0, 0, new int[] { bestMove } );
+		Logger.info( "AI: %dx%d, depth %d, score %d, %d nodes in %d ms (%.0f nodes/sec)\n",
+				size, size, completedDepth, bestScore, nodes, elapsed / 1000000L, nodes * 1e9 / elapsed );
+		return bestMove;
+	}
+
+	/**
+	 * Requests that the search in progress return as soon as possible; may be called from any thread
+	 */
+	public void stop() {
+		stopped = true;
+	}
+
+	/**
+	 * Returns the number of positions visited by the most recent search
+	 * @return the number of nodes
+	 */
+	public long getNodeCount() {
+		return nodes;
+	}
+
+	/**
+	 * Returns the depth of the last iteration completed by the most recent search
+	 * @return the depth (in plies)
+	 */
+	public int getCompletedDepth() {
+		return completedDepth;
+	}
+
+	/**
+	 * Returns the telemetry of the most recent search
+	 * @return the {@link OthelloSearchTelemetry telemetry}, or <tt>null</tt>
+	 * if there has been no search (or it found no move)
+	 */
+	public OthelloSearchTelemetry getTelemetry() {
+		return telemetry;
+	}
+
+	/**
+	 * Searches the position at the given ply
+	 * @param ply the ply (the index of the position on the stack)
+	 * @param depth the remaining depth (in plies)
+	 * @param alpha the score the side to move is already assured of
+	 * @param beta the score the opponent is already assured of
+	 * @return the score, from the point of view of the side to move
+	 */
+	private int negamax( final int ply, final int depth, int alpha, final int beta ) {
+		// check the clock (and for requests to stop) every so often
+		if( ( ( ++nodes & CHECK_INTERVAL ) == 0 ) &&
+			( stopped || ( System.nanoTime() > deadline ) || Thread.currentThread().isInterrupted() ) ) {
+			aborted = true;
+		}
+		if( aborted ) {
+			return 0;
+		}
+
+		// if there are no legal moves, pass (or the game is over)
+		final int count = orderMoves( ply );
+		if( count == 0 ) {
+			if( !bitboard.legalMoves( opponentStack[ply], ownStack[ply], moveStack[ply + 1] ) ) {
+				return getFinalScore( ownStack[ply], opponentStack[ply] );
+			}
+			if( depth == 0 ) {
+				return evaluate( ply );
+			}
+			System.arraycopy( opponentStack[ply], 0, ownStack[ply + 1], 0, flipped.length );
+			System.arraycopy( ownStack[ply], 0, opponentStack[ply + 1], 0, flipped.length );
+			return -negamax( ply + 1, depth - 1, -beta, -alpha );
+		}
+		if( depth == 0 ) {
+			return evaluate( ply );
+		}
+
+		// search the moves in order
+		final int[] moves = moveLists[ply];
+		int best = -INFINITY;
+		for( int n = 0; n < count; n++ ) {
+			play( ply, moves[n] );
+			final int score = -negamax( ply + 1, depth - 1, -beta, -alpha );
+			if( score > best ) {
+				best = score;
+				if( best > alpha ) {
+					alpha = best;
+					if( alpha >= beta ) {
+						break;
+					}
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Plays the given move, leaving the resulting position at the next ply
+	 * @param ply the ply of the position to move in
+	 * @param move the index of the move's square
+	 */
+	private void play( final int ply, final int move ) {
+		final long[] own		= ownStack[ply];
+		final long[] opponent	= opponentStack[ply];
+		final long[] nextOwn	= ownStack[ply + 1];
+		final long[] nextOpp	= opponentStack[ply + 1];
+		bitboard.flips( own, opponent, move, flipped );
+		for( int n = 0; n < flipped.length; n++ ) {
+			nextOwn[n] = opponent[n] & ~flipped[n];
+			nextOpp[n] = own[n] | flipped[n];
+		}
+		set( nextOpp, move );
+	}
+
+	/**
+	 * Gathers the legal moves of the position at the given ply, ordered by the value of their squares
+	 * @param ply the given ply
+	 * @return the number of legal moves
+	 */
+	private int orderMoves( final int ply ) {
+		final long[] legal = moveStack[ply];
+		if( !bitboard.legalMoves( ownStack[ply], opponentStack[ply], legal ) ) {
+			return 0;
+		}
+		final int[] moves = moveLists[ply];
+		final int[] scores = moveScores[ply];
+		int count = 0;
+		for( int word = 0; word < legal.length; word++ ) {
+			for( long bits = legal[word]; bits != 0; bits &= bits - 1 ) {
+				final int move = ( word << 6 ) + Long.numberOfTrailingZeros( bits );
+				final int value = weights[move];
+
+				// insert the move in order
+				int n = count++;
+				while( ( n > 0 ) && ( scores[n - 1] < value ) ) {
+					moves[n]	= moves[n - 1];
+					scores[n]	= scores[n - 1];
+					n--;
+				}
+				moves[n]	= move;
+				scores[n]	= value;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Evaluates the position at the given ply (whose legal moves have been gathered)
+	 * @param ply the given ply
+	 * @return the score, from the point of view of the side to move
+	 */
+	private int evaluate( final int ply ) {
+		final long[] own		= ownStack[ply];
+		final long[] opponent	= opponentStack[ply];
+
+		// score the squares held by each side
+		int score = 0;
+		for( int word = 0; word < own.length; word++ ) {
+			for( long bits = own[word]; bits != 0; bits &= bits - 1 ) {
+				score += weights[( word << 6 ) + Long.numberOfTrailingZeros( bits )];
+			}
+			for( long bits = opponent[word]; bits != 0; bits &= bits - 1 ) {
+				score -= weights[( word << 6 ) + Long.numberOfTrailingZeros( bits )];
+			}
+		}
+
+		// the squares next to a corner only count against their owner while the corner is empty
+		for( int n = 0; n < corners.length; n++ ) {
+			if( OthelloWideBitboard.get( own, corners[n] ) || OthelloWideBitboard.get( opponent, corners[n] ) ) {
+				score += getCornerCorrection( own, opponent, cornerNeighbours[n] );
+			}
+		}
+
+		// score the mobility of each side
+		final int mobility = count( moveStack[ply] ) - bitboard.mobility( opponent, own, moveStack[ply + 1] );
+		return score + MOBILITY_WEIGHT * mobility;
+	}
+
+	/**
+	 * Returns the correction to the score of the squares next to an occupied corner
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @param neighbours the squares next to the (occupied) corner
+	 * @return the correction (taking back the penalty of those squares)
+	 */
+	private int getCornerCorrection( final long[] own, final long[] opponent, final int[] neighbours ) {
+		int correction = 0;
+		for( final int square : neighbours ) {
+			if( OthelloWideBitboard.get( own, square ) ) {
+				correction += EDGE_WEIGHT - weights[square];
+			}
+			else if( OthelloWideBitboard.get( opponent, square ) ) {
+				correction -= EDGE_WEIGHT - weights[square];
+			}
+		}
+		return correction;
+	}
+
+	/**
+	 * Scores a finished game
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @return the score (a win beats any evaluation)
+	 */
+	private int getFinalScore( final long[] own, final long[] opponent ) {
+		final int discs = count( own ) - count( opponent );
+		return ( discs > 0 ) ? WIN + discs : ( ( discs < 0 ) ? -WIN + discs : 0 );
+	}
+
+	/**
+	 * Creates the square values for the given board size
+	 * @param size the number of columns (and rows) of the board
+	 * @return the value of each square
+	 */
+	private static int[] createWeights( final int size ) {
+		final int[] weights = new int[ size * size ];
+		final int last = size - 1;
+		for( int row = 0; row < size; row++ ) {
+			for( int column = 0; column < size; column++ ) {
+				// the distance to the nearest edge, in each direction
+				final int x = Math.min( column, last - column );
+				final int y = Math.min( row, last - row );
+				final int weight;
+				if( ( x == 0 ) && ( y == 0 ) ) {
+					weight = CORNER_WEIGHT;
+				}
+				else if( ( x == 1 ) && ( y == 1 ) ) {
+					weight = X_SQUARE_WEIGHT;
+				}
+				else if( ( ( x == 0 ) && ( y == 1 ) ) || ( ( x == 1 ) && ( y == 0 ) ) ) {
+					weight = C_SQUARE_WEIGHT;
+				}
+				else if( ( x == 0 ) || ( y == 0 ) ) {
+					weight = EDGE_WEIGHT;
+				}
+				else {
+					weight = INNER_WEIGHT;
+				}
+				weights[row * size + column] = weight;
+			}
+		}
+		return weights;
+	}
+
+}
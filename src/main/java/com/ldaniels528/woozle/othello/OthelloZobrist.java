@@ -0,0 +1,79 @@
+package com.ldaniels528.woozle.othello;
+
+import java.util.Random;
+
+import static com.ldaniels528.woozle.othello.OthelloBitboard.SQUARES;
+
+/**
+ * Zobrist hashing of Othello positions. A position is keyed from the
+ * point of view of the side to move (its own discs and its opponent's
+ * discs use different random numbers), so no side-to-move term is needed;
+ * the key from the opponent's point of view is kept alongside, and both
+ * are updated incrementally as moves are made:
+ * <ul>
+ * <li>a flipped disc changes both keys by the same amount ({@link #flipKey(long)})</li>
+ * <li>the placed disc changes the mover's key by {@link #OWN}, the other by {@link #OPPONENT}</li>
+ * <li>the keys then trade places, since the opponent is next to move</li>
+ * </ul>
+ * The random numbers come from a fixed seed, so keys are the same from
+ * run to run (and may be stored in files).
+ * @author lawrence.daniels@gmail.com
+ */
+final class OthelloZobrist {
+	public static final long[] OWN		= new long[ SQUARES ];
+	public static final long[] OPPONENT	= new long[ SQUARES ];
+	private static final long[] FLIP	= new long[ SQUARES ];
+
+	// a digest of all the random numbers (files of stored keys are stamped with it)
+	public static final long SIGNATURE;
+
+	static {
+		final Random random = new Random( 0x0DE11051L );
+		long signature = 0;
+		for( int square = 0; square < SQUARES; square++ ) {
+			OWN[square]			= random.nextLong();
+			OPPONENT[square]	= random.nextLong();
+			FLIP[square]		= OWN[square] ^ OPPONENT[square];
+			signature = Long.rotateLeft( signature, 7 ) ^ OWN[square] ^ Long.rotateLeft( OPPONENT[square], 31 );
+		}
+		SIGNATURE = signature;
+	}
+
+	/**
+	 * Private Constructor
+	 */
+	private OthelloZobrist() {
+		super();
+	}
+
+	/**
+	 * Computes the key of the given position from scratch
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @return the key of the position
+	 */
+	public static long key( final long own, final long opponent ) {
+		long key = 0;
+		for( long bits = own; bits != 0; bits &= bits - 1 ) {
+			key ^= OWN[ Long.numberOfTrailingZeros( bits ) ];
+		}
+		for( long bits = opponent; bits != 0; bits &= bits - 1 ) {
+			key ^= OPPONENT[ Long.numberOfTrailingZeros( bits ) ];
+		}
+		return key;
+	}
+
+	/**
+	 * Returns the amount by which both keys change when the given discs are flipped
+	 * @param flipped the given flipped discs
+	 * @return the change to the keys
+	 */
+	public static long flipKey( final long flipped ) {
+		long key = 0;
+		for( long bits = flipped; bits != 0; bits &= bits - 1 ) {
+			key ^= FLIP[ Long.numberOfTrailingZeros( bits ) ];
+		}
+		return key;
+	}
+
+}
@@ -0,0 +1,119 @@
+package com.ldaniels528.woozle;
+
+import java.awt.*;
+import java.util.Random;
+
+/**
+ * Compares the throughput of the {@link AabbKernel batch AABB kernel}
+ * against testing the same boxes one {@link Entity entity} at a time.
+ * <p>Usage: AabbKernelBenchmark [boxes] [rounds]</p>
+ * @author lawrence.daniels@gmail.com
+ */
+public class AabbKernelBenchmark {
+
+	/**
+	 * For stand alone operation
+	 * @param args the given command line arguments
+	 */
+	public static void main( final String[] args ) {
+		final int boxes		= ( args.length > 0 ) ? Integer.parseInt( args[0] ) : 4096;
+		final int rounds	= ( args.length > 1 ) ? Integer.parseInt( args[1] ) : 20;
+
+		// create the boxes
+		final Random random			= new Random( 528 );
+		final Entity[] entities		= new Entity[ boxes ];
+		final double[] minX			= new double[ boxes ];
+		final double[] minY			= new double[ boxes ];
+		final double[] maxX			= new double[ boxes ];
+		final double[] maxY			= new double[ boxes ];
+		final int[] hits			= new int[ boxes ];
+		for( int n = 0; n < boxes; n++ ) {
+			final double width	= 4 + random.nextInt( 30 );
+			final double height	= 4 + random.nextInt( 30 );
+			entities[n]	= new Box( random.nextInt( 1024 ), random.nextInt( 768 ), width, height );
+			minX[n]		= entities[n].getX() - width / 2;
+			minY[n]		= entities[n].getY() - height / 2;
+			maxX[n]		= minX[n] + width;
+			maxY[n]		= minY[n] + height;
+		}
+
+		// run each approach several times (the first rounds warm up the JIT)
+		for( int round = 0; round < rounds; round++ ) {
+			// one entity at a time
+			long start = System.nanoTime();
+			long found1 = 0;
+			for( int a = 0; a < boxes; a++ ) {
+				for( int b = a + 1; b < boxes; b++ ) {
+					if( entities[a].intersects( entities[b] ) ) {
+						found1++;
+					}
+				}
+			}
+			final long elapsed1 = System.nanoTime() - start;
+
+			// batches of struct-of-arrays bounds
+			start = System.nanoTime();
+			long found2 = 0;
+			for( int a = 0; a < boxes; a++ ) {
+				found2 += AabbKernel.overlaps( minX[a], minY[a], maxX[a], maxY[a],
+						minX, minY, maxX, maxY, a + 1, boxes, hits );
+			}
+			final long elapsed2 = System.nanoTime() - start;
+
+			// report
+			final double tests = (double)boxes * ( boxes - 1 ) / 2;
+			System.out.printf( "round %2d: entity %7.1f M tests/sec, kernel %7.1f M tests/sec (%.1fx) - %d/%d overlaps\n",
+					round, tests * 1e3 / elapsed1, tests * 1e3 / elapsed2, (double)elapsed1 / elapsed2, found1, found2 );
+		}
+	}
+
+	/**
+	 * A static box
+	 */
+	private static class Box extends Entity {
+
+		/**
+		 * Creates a new box
+		 * @param x the given x-axis coordinate
+		 * @param y the given y-axis coordinate
+		 * @param width the width of the box
+		 * @param height the height of the box
+		 */
+		public Box( final double x, final double y, final double width, final double height ) {
+			super( x, y, width, height );
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.ldaniels528.woozle.Entity#handleCollsion(com.ldaniels528.woozle.Entity)
+		 */
+		public void handleCollsion( final Entity entity ) {
+			// do nothing
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.ldaniels528.woozle.Entity#render(java.awt.Graphics2D)
+		 */
+		public void render( final Graphics2D g ) {
+			// not rendered
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.ldaniels528.woozle.Entity#reset()
+		 */
+		public void reset() {
+			// do nothing
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.ldaniels528.woozle.Entity#update(double)
+		 */
+		public void update( final double ct ) {
+			// do nothing
+		}
+	}
+
+}
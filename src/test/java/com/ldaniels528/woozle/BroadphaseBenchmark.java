@@ -0,0 +1,152 @@
+package com.ldaniels528.woozle;
+
+import java.awt.*;
+import java.util.Random;
+
+/**
+ * Compares the {@link Broadphase broadphase} strategies on an Invasion-like
+ * scene: rows of aliens marching sideways, and many small, fast projectiles
+ * moving vertically through them.
+ * <p>Usage: BroadphaseBenchmark [aliens] [projectiles] [ticks]</p>
+ * @author lawrence.daniels@gmail.com
+ */
+public class BroadphaseBenchmark {
+	private static final int BOARD_WIDTH	= 1024;
+	private static final int BOARD_HEIGHT	= 768;
+	private static final int WARM_UP_TICKS	= 200;
+
+	/**
+	 * For stand alone operation
+	 * @param args the given command line arguments
+	 */
+	public static void main( final String[] args ) {
+		final int aliens		= ( args.length > 0 ) ? Integer.parseInt( args[0] ) : 1000;
+		final int projectiles	= ( args.length > 1 ) ? Integer.parseInt( args[1] ) : 500;
+		final int ticks			= ( args.length > 2 ) ? Integer.parseInt( args[2] ) : 1000;
+
+		System.out.printf( "%d aliens, %d projectiles, %d ticks\n", aliens, projectiles, ticks );
+		run( "all-pairs", new AllPairsBroadphase(), aliens, projectiles, ticks );
+		run( "sweep", new SweepAndPruneBroadphase(), aliens, projectiles, ticks );
+		run( "grid", new UniformGridBroadphase(), aliens, projectiles, ticks );
+	}
+
+	/**
+	 * Runs the scenario using the given broadphase
+	 * @param name the name of the broadphase
+	 * @param broadphase the given {@link Broadphase broadphase}
+	 * @param aliens the number of aliens
+	 * @param projectiles the number of projectiles
+	 * @param ticks the number of ticks to measure
+	 */
+	private static void run( final String name,
+							 final Broadphase broadphase,
+							 final int aliens,
+							 final int projectiles,
+							 final int ticks ) {
+		// create the world (the same seed yields the same scene for each strategy)
+		final EntityWorld world = createWorld( aliens, projectiles, new Random( 528 ) );
+		world.setBroadphase( broadphase );
+
+		// warm up
+		for( int n = 0; n < WARM_UP_TICKS; n++ ) {
+			world.update( 1 );
+		}
+
+		// measure
+		final long checks0	= world.getCollisionChecks();
+		final long start	= System.nanoTime();
+		for( int n = 0; n < ticks; n++ ) {
+			world.update( 1 );
+		}
+		final long elapsed	= System.nanoTime() - start;
+		final long checks	= world.getCollisionChecks() - checks0;
+
+		System.out.printf( "%-10s %10.1f ticks/sec %8.3f ms/tick %10.1f pairs/tick\n",
+				name, ticks * 1e9 / elapsed, elapsed / 1e6 / ticks, (double)checks / ticks );
+	}
+
+	/**
+	 * Creates a world containing rows of aliens and randomly placed projectiles
+	 * @param aliens the number of aliens
+	 * @param projectiles the number of projectiles
+	 * @param random the given {@link Random random number generator}
+	 * @return the {@link EntityWorld world}
+	 */
+	private static EntityWorld createWorld( final int aliens, final int projectiles, final Random random ) {
+		final EntityWorld world = new EntityWorld( aliens + projectiles );
+
+		// lay out the aliens in rows
+		final int columns = Math.max( 1, ( BOARD_WIDTH - 100 ) / 20 );
+		for( int n = 0; n < aliens; n++ ) {
+			world.add( new Body( 50 + ( n % columns ) * 20, 40 + ( n / columns ) * 12, 14, 8, 1, 0 ) );
+		}
+
+		// scatter the projectiles
+		for( int n = 0; n < projectiles; n++ ) {
+			world.add( new Body( random.nextInt( BOARD_WIDTH ), random.nextInt( BOARD_HEIGHT ), 3, 10, 0, -12 ) );
+		}
+		return world;
+	}
+
+	/**
+	 * A body moving at a constant velocity, wrapping around the board
+	 */
+	private static class Body extends Entity {
+		private final double dx;
+		private final double dy;
+
+		/**
+		 * Creates a new body
+		 * @param x the given x-axis coordinate
+		 * @param y the given y-axis coordinate
+		 * @param width the width of the body
+		 * @param height the height of the body
+		 * @param dx the given x-axis velocity
+		 * @param dy the given y-axis velocity
+		 */
+		public Body( final double x,
+					 final double y,
+					 final double width,
+					 final double height,
+					 final double dx,
+					 final double dy ) {
+			super( x, y, width, height );
+			this.dx	= dx;
+			this.dy	= dy;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.ldaniels528.woozle.Entity#handleCollsion(com.ldaniels528.woozle.Entity)
+		 */
+		public void handleCollsion( final Entity entity ) {
+			// bodies pass through each other
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.ldaniels528.woozle.Entity#render(java.awt.Graphics2D)
+		 */
+		public void render( final Graphics2D g ) {
+			// not rendered
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.ldaniels528.woozle.Entity#reset()
+		 */
+		public void reset() {
+			// nothing to reset
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see com.ldaniels528.woozle.Entity#update(double)
+		 */
+		public void update( final double ct ) {
+			x = ( x + dx * ct + BOARD_WIDTH ) % BOARD_WIDTH;
+			y = ( y + dy * ct + BOARD_HEIGHT ) % BOARD_HEIGHT;
+		}
+	}
+
+}
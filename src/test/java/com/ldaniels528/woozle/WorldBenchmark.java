@@ -0,0 +1,80 @@
+package com.ldaniels528.woozle;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the throughput of an {@link EntityWorld entity world}: ticks per
+ * second, collision checks per tick and heap allocation per tick. Allocation
+ * is summed across all live threads, so work done by the update system's
+ * worker threads is included.
+ * @author lawrence.daniels@gmail.com
+ */
+public class WorldBenchmark {
+	/**
+	 * Private Constructor
+	 */
+	private WorldBenchmark() {
+		super();
+	}
+
+	/**
+	 * Warms up (for a fifth of the given number of ticks),
+	 * then measures the given world; the given action runs
+	 * between ticks (e.g. to keep the scenario going) and is included
+	 * in the measurement
+	 * @param name the name of the scenario
+	 * @param world the given {@link EntityWorld world}
+	 * @param ticks the number of ticks to measure
+	 * @param betweenTicks the action performed after each tick
+	 */
+	public static void run( final String name,
+							final EntityWorld world,
+							final int ticks,
+							final Runnable betweenTicks ) {
+		// warm up
+		for( int n = 0; n < ticks / 5; n++ ) {
+			world.update( 1 );
+			betweenTicks.run();
+		}
+
+		// measure
+		final int entities	= world.getEntityCount();
+		final long checks0	= world.getCollisionChecks();
+		final long bytes0	= getAllocatedBytes();
+		final long start	= System.nanoTime();
+		for( int n = 0; n < ticks; n++ ) {
+			world.update( 1 );
+			betweenTicks.run();
+		}
+		final long elapsed	= System.nanoTime() - start;
+		final long bytes	= getAllocatedBytes() - bytes0;
+		final long checks	= world.getCollisionChecks() - checks0;
+
+		System.out.printf( "%-24s %6d entities %9.1f ticks/sec %8.3f ms/tick %10.1f checks/tick %10.1f bytes/tick\n",
+				name, entities, ticks * 1e9 / elapsed, elapsed / 1e6 / ticks, (double)checks / ticks,
+				( bytes0 >= 0 ) ? (double)bytes / ticks : Double.NaN );
+	}
+
+	/**
+	 * Returns the number of bytes allocated by all live threads
+	 * @return the number of bytes, or -1 if the JVM cannot measure it
+	 */
+	private static long getAllocatedBytes() {
+		final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if( !( bean instanceof com.sun.management.ThreadMXBean ) ) {
+			return -1;
+		}
+
+		// sum the allocations of each thread
+		final long[] bytes = ( (com.sun.management.ThreadMXBean)bean ).getThreadAllocatedBytes( bean.getAllThreadIds() );
+		long total = 0;
+		for( final long count : bytes ) {
+			if( count > 0 ) {
+				total += count;
+			}
+		}
+		return total;
+	}
+
+}
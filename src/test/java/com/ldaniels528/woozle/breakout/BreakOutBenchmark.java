@@ -0,0 +1,113 @@
+package com.ldaniels528.woozle.breakout;
+
+import com.ldaniels528.woozle.AllPairsBroadphase;
+import com.ldaniels528.woozle.Broadphase;
+import com.ldaniels528.woozle.GameState;
+import com.ldaniels528.woozle.SweepAndPruneBroadphase;
+import com.ldaniels528.woozle.UniformGridBroadphase;
+import com.ldaniels528.woozle.WorldBenchmark;
+
+/**
+ * Headless throughput benchmark for the Break-Out {@link BreakOutPlayingField playing field}.
+ * Generates stress scenarios (walls of thousands of small blocks, several
+ * balls in play) and reports ticks per second, collision checks per tick
+ * and allocation per tick for each, using each of the broadphase strategies.
+ * <p>Usage: BreakOutBenchmark [blocks] [balls] [ticks]</p>
+ * @author lawrence.daniels@gmail.com
+ */
+public class BreakOutBenchmark {
+	private static final int BLOCK_WIDTH	= 8;
+	private static final int BLOCK_HEIGHT	= 5;
+	private static final int TOP			= 25;
+
+	/**
+	 * For stand alone operation
+	 * @param args the given command line arguments
+	 */
+	public static void main( final String[] args ) {
+		final int blocks	= ( args.length > 0 ) ? Integer.parseInt( args[0] ) : 10000;
+		final int balls		= ( args.length > 1 ) ? Integer.parseInt( args[1] ) : 8;
+		final int ticks		= ( args.length > 2 ) ? Integer.parseInt( args[2] ) : 300;
+
+		// the game manager is never initialized, so nothing is displayed
+		final BreakOutGameManager gameManager = new BreakOutGameManager( null );
+		try {
+			final BreakOutLevel level = BreakOutLevel.createDefaultLevels()[0];
+			final BreakOutLevel stress = createLayout( blocks );
+			run( gameManager, "all-pairs", new AllPairsBroadphase(), level, 1, ticks );
+			run( gameManager, "all-pairs", new AllPairsBroadphase(), stress, balls, ticks );
+			run( gameManager, "sweep", new SweepAndPruneBroadphase(), stress, balls, ticks );
+			run( gameManager, "grid", new UniformGridBroadphase(), stress, balls, ticks );
+		}
+		finally {
+			gameManager.shutdown();
+		}
+		System.exit( 0 );
+	}
+
+	/**
+	 * Creates a layout containing (at least) the given number of blocks
+	 * @param blocks the given number of blocks
+	 * @return the {@link BreakOutLevel level layout}
+	 */
+	public static BreakOutLevel createLayout( final int blocks ) {
+		final BreakOutLevel row = BreakOutLevel.createGrid( 1, BLOCK_WIDTH, BLOCK_HEIGHT, TOP, 5 );
+		final int rows = ( blocks + row.getBlockCount() - 1 ) / row.getBlockCount();
+		return BreakOutLevel.createGrid( rows, BLOCK_WIDTH, BLOCK_HEIGHT, TOP, 5 );
+	}
+
+	/**
+	 * Measures a scenario
+	 * @param gameManager the given {@link BreakOutGameManager game manager}
+	 * @param name the name of the broadphase
+	 * @param broadphase the given {@link Broadphase broadphase}
+	 * @param layout the given {@link BreakOutLevel level layout}
+	 * @param balls the number of balls in play
+	 * @param ticks the number of ticks to measure
+	 */
+	private static void run( final BreakOutGameManager gameManager,
+							 final String name,
+							 final Broadphase broadphase,
+							 final BreakOutLevel layout,
+							 final int balls,
+							 final int ticks ) {
+		// generate the scenario
+		final BreakOutPlayingField playingField = new BreakOutPlayingField( gameManager );
+		playingField.setBroadphase( broadphase );
+		playingField.setupLevel( layout, balls );
+		gameManager.changeGameState( GameState.PLAYING );
+
+		// measure it
+		WorldBenchmark.run( format( name, layout.getBlockCount(), balls ), playingField, ticks, new Runnable() {
+			public void run() {
+				switch( gameManager.getGameState() ) {
+					// a ball was lost: put the balls back into play
+					case OUT_OF_BOUNDS:
+					case GAME_OVER:
+						playingField.setSpareBalls( 3 );
+						playingField.resetEntities();
+						gameManager.changeGameState( GameState.PLAYING );
+						break;
+
+					// the wall was cleared: rebuild the scenario
+					case LEVEL_CHANGE:
+						playingField.setupLevel( layout, balls );
+						gameManager.changeGameState( GameState.PLAYING );
+						break;
+				}
+			}
+		} );
+	}
+
+	/**
+	 * Formats the name of a scenario
+	 * @param name the name of the broadphase
+	 * @param blocks the number of blocks
+	 * @param balls the number of balls
+	 * @return the formatted name
+	 */
+	private static String format( final String name, final int blocks, final int balls ) {
+		return String.format( "%s (%d/%d)", name, blocks, balls );
+	}
+
+}
@@ -0,0 +1,103 @@
+package com.ldaniels528.woozle.invasion;
+
+import com.ldaniels528.woozle.GameState;
+import com.ldaniels528.woozle.WorldBenchmark;
+
+import java.util.Random;
+
+import static com.ldaniels528.woozle.GameDisplayPane.BOARD_HEIGHT;
+import static com.ldaniels528.woozle.GameDisplayPane.BOARD_WIDTH;
+
+/**
+ * Headless throughput benchmark for the Invasion {@link InvasionVirtualWorld virtual world}.
+ * Generates stress scenarios (formations of thousands of aliens, with a
+ * constant stream of missiles fired up through them) and reports ticks per
+ * second, collision checks per tick and allocation per tick for each.
+ * <p>Usage: InvasionBenchmark [aliens] [projectiles] [ticks]</p>
+ * @author lawrence.daniels@gmail.com
+ */
+public class InvasionBenchmark {
+	private static final int COLUMNS	= 100;
+	private static final int SPACING_X	= 34;
+	private static final int SPACING_Y	= 20;
+
+	/**
+	 * For stand alone operation
+	 * @param args the given command line arguments
+	 */
+	public static void main( final String[] args ) {
+		final int aliens		= ( args.length > 0 ) ? Integer.parseInt( args[0] ) : 5000;
+		final int projectiles	= ( args.length > 1 ) ? Integer.parseInt( args[1] ) : 2000;
+		final int ticks			= ( args.length > 2 ) ? Integer.parseInt( args[2] ) : 1000;
+
+		// the game manager is never initialized, so nothing is displayed
+		final InvasionGameManager gameManager = new InvasionGameManager( null );
+		try {
+			for( final String broadphase : new String[] { "sweep", "grid" } ) {
+				run( gameManager, broadphase, true, 0, 10, ticks );
+				run( gameManager, broadphase, false, aliens, 0, ticks );
+				run( gameManager, broadphase, false, 0, projectiles, ticks );
+				run( gameManager, broadphase, false, aliens, projectiles, ticks );
+			}
+		}
+		finally {
+			gameManager.shutdown();
+		}
+		System.exit( 0 );
+	}
+
+	/**
+	 * Measures a scenario
+	 * @param gameManager the given {@link InvasionGameManager game manager}
+	 * @param broadphase the name of the broadphase
+	 * @param regular indicates whether the aliens of a regular level are used
+	 * @param aliens the number of aliens (when not a regular level)
+	 * @param projectiles the number of missiles kept in flight
+	 * @param ticks the number of ticks to measure
+	 */
+	private static void run( final InvasionGameManager gameManager,
+							 final String broadphase,
+							 final boolean regular,
+							 final int aliens,
+							 final int projectiles,
+							 final int ticks ) {
+		// generate the scenario
+		final InvasionVirtualWorld world = new InvasionVirtualWorld( gameManager );
+		world.setBroadphase( InvasionVirtualWorld.createBroadphase( broadphase ) );
+		final Runnable setup = new Runnable() {
+			public void run() {
+				world.removeAllEntities();
+				if( regular ) {
+					world.setupLevel();
+				}
+				else if( aliens > 0 ) {
+					world.setupAliens( COLUMNS, ( aliens + COLUMNS - 1 ) / COLUMNS, SPACING_X, SPACING_Y );
+				}
+				gameManager.changeGameState( GameState.PLAYING );
+			}
+		};
+		setup.run();
+
+		// the missiles are fired from across the width of the formation
+		final int width = regular ? 450 : COLUMNS * SPACING_X;
+		final Random random = new Random( 528 );
+		final String name = String.format( "%s (%s/%d)", broadphase, regular ? "level" : String.valueOf( aliens ), projectiles );
+
+		// measure it
+		WorldBenchmark.run( name, world, ticks, new Runnable() {
+			public void run() {
+				// the formation was destroyed: rebuild the scenario
+				if( gameManager.getGameState() == GameState.LEVEL_CHANGE ) {
+					setup.run();
+				}
+
+				// keep the missiles in flight
+				for( int n = world.getMissilesInFlight(); n < projectiles; n++ ) {
+					world.launchMissile( ( BOARD_WIDTH - width ) / 2 + random.nextInt( width ),
+							random.nextInt( BOARD_HEIGHT ) );
+				}
+			}
+		} );
+	}
+
+}
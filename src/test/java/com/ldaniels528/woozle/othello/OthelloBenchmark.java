@@ -0,0 +1,472 @@
+package com.ldaniels528.woozle.othello;
+
+import static com.ldaniels528.woozle.othello.OthelloBitboard.*;
+
+import com.ldaniels528.woozle.othello.OthelloBoard.GridStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless benchmark (and regression gate) for the Othello move generator
+ * and AI. First counts the leaf positions of the game tree to each depth
+ * (perft), checking the counts against the known values, both with the
+ * bitboard move generator, the wide-board move generator (on an 8x8 board,
+ * and for timing on 10x10 and 16x16 boards) and with the board's
+ * make/unmake; then plays a
+ * self-play tournament between two engines on several threads, and reports
+ * games/sec, nodes/sec and the candidate's Elo difference from the baseline.
+ * <p>Each engine is given as evaluator[:depth], where the evaluator is
+ * either <tt>pattern</tt> or <tt>positional</tt>. The games start from
+ * (reproducible) random openings, each played once with either colour, and
+ * are searched to a fixed depth, so results are repeatable. The process
+ * exits with status 1 if a perft count is wrong.</p>
+ * <p>Usage: OthelloBenchmark [perft depth] [games] [depth] [threads] [candidate] [baseline]</p>
+ * @author lawrence.daniels@gmail.com
+ */
+public class OthelloBenchmark {
+	private static final long UNLIMITED			= Long.MAX_VALUE;
+	private static final int OPENING_PLIES		= 6;
+	private static final int ENDGAME_EMPTIES	= 12;
+	private static final int TABLE_BITS			= 16;
+
+	// the known perft counts (passes count as a ply), from depth 1
+	private static final long[] PERFT = {
+		4L, 12L, 56L, 244L, 1396L, 8200L, 55092L, 390216L, 3005288L, 24571284L, 212258800L
+	};
+
+	/**
+	 * For stand alone operation
+	 * @param args the given command line arguments
+	 */
+	public static void main( final String[] args ) {
+		final int perftDepth	= ( args.length > 0 ) ? Integer.parseInt( args[0] ) : 9;
+		final int games			= ( args.length > 1 ) ? Integer.parseInt( args[1] ) : 1000;
+		final int depth			= ( args.length > 2 ) ? Integer.parseInt( args[2] ) : 3;
+		final int threads		= ( args.length > 3 ) ? Integer.parseInt( args[3] ) : Runtime.getRuntime().availableProcessors();
+		final String candidate	= ( args.length > 4 ) ? args[4] : "pattern";
+		final String baseline	= ( args.length > 5 ) ? args[5] : "positional";
+
+		// check the move generator
+		final boolean passed = runPerft( perftDepth );
+
+		// play the tournament
+		if( games > 0 ) {
+			runTournament( games, depth, threads, candidate, baseline );
+		}
+		System.exit( passed ? 0 : 1 );
+	}
+
+	/**
+	 * Counts the leaf positions to each depth, and checks them against the known counts
+	 * @param maxDepth the maximum depth
+	 * @return true, if every count was correct
+	 */
+	private static boolean runPerft( final int maxDepth ) {
+		boolean passed = true;
+		for( int depth = 1; depth <= maxDepth; depth++ ) {
+			final long startTime = System.nanoTime();
+			final long leaves = perft( INITIAL_YING, INITIAL_YANG, depth, false );
+			final long elapsed = Math.max( System.nanoTime() - startTime, 1 );
+
+			// compare against the known count (if there is one)
+			final String check;
+			if( depth > PERFT.length ) {
+				check = "unchecked";
+			}
+			else if( leaves == PERFT[depth - 1] ) {
+				check = "ok";
+			}
+			else {
+				check = String.format( "FAILED (expected %d)", PERFT[depth - 1] );
+				passed = false;
+			}
+			System.out.printf( "perft %2d: %12d leaves in %6d ms (%.0f leaves/sec) %s\n",
+					depth, leaves, elapsed / 1000000L, leaves * 1e9 / elapsed, check );
+		}
+		passed &= runWidePerft( OthelloBitboard.SIZE, maxDepth );
+		runWidePerft( 10, Math.min( maxDepth, 7 ) );
+		runWidePerft( 16, Math.min( maxDepth, 6 ) );
+		return runBoardPerft( maxDepth ) && passed;
+	}
+
+	/**
+	 * Counts the leaf positions to the given depth with the wide-board move
+	 * generator, and checks the count (on an 8x8 board) against the known one
+	 * @param size the number of columns (and rows) of the board
+	 * @param depth the given depth
+	 * @return true, if the count was correct (or there is no known count)
+	 */
+	private static boolean runWidePerft( final int size, final int depth ) {
+		final OthelloWideBitboard bitboard = new OthelloWideBitboard( size );
+		final long[][] own		= new long[ depth + 1 ][ bitboard.getWords() ];
+		final long[][] opponent	= new long[ depth + 1 ][ bitboard.getWords() ];
+		final long[][] moves	= new long[ depth + 1 ][ bitboard.getWords() ];
+		bitboard.setInitial( own[0], opponent[0] );
+
+		// count the leaves
+		final long startTime = System.nanoTime();
+		final long leaves = perft( bitboard, own, opponent, moves, 0, depth, false );
+		final long elapsed = Math.max( System.nanoTime() - startTime, 1 );
+
+		// only the 8x8 counts are known
+		final boolean known = ( size == OthelloBitboard.SIZE ) && ( depth <= PERFT.length );
+		final boolean correct = !known || ( leaves == PERFT[depth - 1] );
+		System.out.printf( "perft %2d: %12d leaves in %6d ms (%.0f leaves/sec) on %dx%d %s\n",
+				depth, leaves, elapsed / 1000000L, leaves * 1e9 / elapsed, size, size,
+				known ? ( correct ? "ok" : "FAILED" ) : "unchecked" );
+		return correct;
+	}
+
+	/**
+	 * Counts the leaf positions to the given depth by making and unmaking
+	 * moves on a board, and checks that the board is restored
+	 * @param depth the given depth
+	 * @return true, if the count was correct, and the board was restored
+	 */
+	private static boolean runBoardPerft( final int depth ) {
+		// the game manager is never initialized, so nothing is displayed
+		final OthelloBoard board = new OthelloBoard( null );
+		try {
+			board.setup();
+			final long[][] moves = new long[ depth + 1 ][ board.getBitboard().getWords() ];
+			final long startTime = System.nanoTime();
+			final long leaves = perft( board, OthelloPiece.YING, moves, depth, false );
+			final long elapsed = Math.max( System.nanoTime() - startTime, 1 );
+
+			// the board (and its statistics) must be back at the initial position
+			final GridStatistics statistics = board.getStatistics();
+			final boolean restored = ( board.getDiscs( OthelloPiece.YING )[0] == INITIAL_YING ) &&
+									 ( board.getDiscs( OthelloPiece.YANG )[0] == INITIAL_YANG ) &&
+									 ( board.getMoveCount() == 0 ) &&
+									 ( statistics.getPlayerCount() == 2 ) &&
+									 ( statistics.getComputerCount() == 2 );
+			final boolean correct = ( depth > PERFT.length ) || ( leaves == PERFT[depth - 1] );
+			System.out.printf( "perft %2d: %12d leaves in %6d ms (%.0f leaves/sec) with make/unmake %s\n",
+					depth, leaves, elapsed / 1000000L, leaves * 1e9 / elapsed,
+					!correct ? "FAILED" : ( restored ? "ok" : "FAILED (board not restored)" ) );
+			return correct && restored;
+		}
+		finally {
+			board.shutdown();
+		}
+	}
+
+	/**
+	 * Counts the leaf positions of the game tree below the given position
+	 * @param own the discs of the side to move
+	 * @param opponent the discs of the opponent
+	 * @param depth the remaining depth (in plies)
+	 * @param passed whether the previous ply was a pass
+	 * @return the number of leaves (a finished game counts as one)
+	 */
+	private static long perft( final long own, final long opponent, final int depth, final boolean passed ) {
+		final long moves = legalMoves( own, opponent );
+
+		// no moves: pass (or the game is over)
+		if( moves == 0 ) {
+			if( passed ) {
+				return 1;
+			}
+			return ( depth == 1 ) ? 1 : perft( opponent, own, depth - 1, true );
+		}
+
+		// at the last ply, the moves are the leaves
+		if( depth == 1 ) {
+			return count( moves );
+		}
+		long leaves = 0;
+		for( long bits = moves; bits != 0; bits &= bits - 1 ) {
+			final int move		= Long.numberOfTrailingZeros( bits );
+			final long flipped	= flips( own, opponent, move );
+			leaves += perft( opponent & ~flipped, own | flipped | ( 1L << move ), depth - 1, false );
+		}
+		return leaves;
+	}
+
+	/**
+	 * Counts the leaf positions of the game tree below the given position, with the wide-board move generator
+	 * @param bitboard the {@link OthelloWideBitboard wide-board operations}
+	 * @param own the discs of the side to move (one bitboard per ply)
+	 * @param opponent the discs of the opponent (one bitboard per ply)
+	 * @param moves the legal moves (one bitboard per ply)
+	 * @param ply the current ply
+	 * @param depth the remaining depth (in plies)
+	 * @param passed whether the previous ply was a pass
+	 * @return the number of leaves (a finished game counts as one)
+	 */
+	private static long perft( final OthelloWideBitboard bitboard,
+							   final long[][] own,
+							   final long[][] opponent,
+							   final long[][] moves,
+							   final int ply,
+							   final int depth,
+							   final boolean passed ) {
+		// no moves: pass (or the game is over)
+		if( !bitboard.legalMoves( own[ply], opponent[ply], moves[ply] ) ) {
+			if( passed || ( depth == 1 ) ) {
+				return 1;
+			}
+			System.arraycopy( opponent[ply], 0, own[ply + 1], 0, own[ply].length );
+			System.arraycopy( own[ply], 0, opponent[ply + 1], 0, own[ply].length );
+			return perft( bitboard, own, opponent, moves, ply + 1, depth - 1, true );
+		}
+
+		// at the last ply, the moves are the leaves
+		if( depth == 1 ) {
+			return OthelloWideBitboard.count( moves[ply] );
+		}
+		final long[] flipped = moves[ply + 1];
+		long leaves = 0;
+		for( int word = 0; word < moves[ply].length; word++ ) {
+			for( long bits = moves[ply][word]; bits != 0; bits &= bits - 1 ) {
+				final int move = ( word << 6 ) + Long.numberOfTrailingZeros( bits );
+				bitboard.flips( own[ply], opponent[ply], move, flipped );
+				for( int n = 0; n < flipped.length; n++ ) {
+					own[ply + 1][n]			= opponent[ply][n] & ~flipped[n];
+					opponent[ply + 1][n]	= own[ply][n] | flipped[n];
+				}
+				OthelloWideBitboard.set( opponent[ply + 1], move );
+				leaves += perft( bitboard, own, opponent, moves, ply + 1, depth - 1, false );
+			}
+		}
+		return leaves;
+	}
+
+	/**
+	 * Counts the leaf positions of the game tree below the board's position
+	 * @param board the given {@link OthelloBoard board}
+	 * @param piece the {@link OthelloPiece piece} to move
+	 * @param moves the legal moves (one bitboard per ply)
+	 * @param depth the remaining depth (in plies)
+	 * @param passed whether the previous ply was a pass
+	 * @return the number of leaves (a finished game counts as one)
+	 */
+	private static long perft( final OthelloBoard board, final OthelloPiece piece, final long[][] moves, final int depth, final boolean passed ) {
+		// no moves: pass (or the game is over)
+		final long[] legal = moves[depth];
+		if( !board.getLegalMoves( piece, legal ) ) {
+			if( passed || ( depth == 1 ) ) {
+				return 1;
+			}
+			return perft( board, OthelloBoard.opposite( piece ), moves, depth - 1, true );
+		}
+
+		// at the last ply, the moves are the leaves
+		if( depth == 1 ) {
+			return OthelloWideBitboard.count( legal );
+		}
+		long leaves = 0;
+		for( int word = 0; word < legal.length; word++ ) {
+			for( long bits = legal[word]; bits != 0; bits &= bits - 1 ) {
+				board.makeMove( ( word << 6 ) + Long.numberOfTrailingZeros( bits ), piece );
+				leaves += perft( board, OthelloBoard.opposite( piece ), moves, depth - 1, false );
+				board.unmakeMove();
+			}
+		}
+		return leaves;
+	}
+
+	/**
+	 * Plays the self-play tournament, and reports the results
+	 * @param games the number of games
+	 * @param depth the default search depth
+	 * @param threads the number of threads
+	 * @param candidate the candidate engine (evaluator[:depth])
+	 * @param baseline the baseline engine (evaluator[:depth])
+	 */
+	private static void runTournament( final int games,
+									   final int depth,
+									   final int threads,
+									   final String candidate,
+									   final String baseline ) {
+		// generate the openings (each is played twice)
+		final int openingCount = ( games + 1 ) / 2;
+		final long[][] openings = new long[ openingCount ][];
+		final Random random = new Random( 0x5EED );
+		for( int n = 0; n < openingCount; n++ ) {
+			openings[n] = createOpening( random );
+		}
+
+		// play the games on the worker threads
+		System.out.printf( "%d games, %s vs %s (depth %d), %d threads:\n", openingCount * 2, candidate, baseline, depth, threads );
+		final AtomicInteger next = new AtomicInteger();
+		final ExecutorService executor = Executors.newFixedThreadPool( threads );
+		final List<Future<long[]>> results = new ArrayList<Future<long[]>>( threads );
+		final long startTime = System.nanoTime();
+		for( int n = 0; n < threads; n++ ) {
+			results.add( executor.submit( new Callable<long[]>() {
+				public long[] call() {
+					return play( openings, next, depth, candidate, baseline );
+				}
+			} ) );
+		}
+
+		// total the results
+		final long[] totals = new long[ 4 ];
+		try {
+			for( final Future<long[]> result : results ) {
+				final long[] counts = result.get();
+				for( int n = 0; n < totals.length; n++ ) {
+					totals[n] += counts[n];
+				}
+			}
+		}
+		catch( final InterruptedException e ) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		catch( final ExecutionException e ) {
+			throw new IllegalStateException( e.getCause() );
+		}
+		finally {
+			executor.shutdown();
+		}
+		final double seconds = Math.max( System.nanoTime() - startTime, 1 ) / 1e9;
+
+		// report the throughput and the strength
+		final long wins = totals[0], losses = totals[1], draws = totals[2], nodes = totals[3];
+		final long played = wins + losses + draws;
+		final double score = ( wins + draws / 2.0 ) / played;
+		final double variance = ( wins * squared( 1 - score ) + draws * squared( 0.5 - score ) + losses * squared( score ) ) / played;
+		final double margin = 1.96 * Math.sqrt( variance / played );
+		System.out.printf( "%d games in %.1f sec (%.1f games/sec), %d nodes (%.0f nodes/sec)\n",
+				played, seconds, played / seconds, nodes, nodes / seconds );
+		System.out.printf( "%s: +%d -%d =%d, score %.1f%%, Elo %+.0f (95%%: %+.0f to %+.0f)\n",
+				candidate, wins, losses, draws, score * 100, elo( score ), elo( score - margin ), elo( score + margin ) );
+	}
+
+	/**
+	 * Plays games until the openings run out
+	 * @param openings the given openings
+	 * @param next the index of the next game to play
+	 * @param depth the default search depth
+	 * @param candidate the candidate engine (evaluator[:depth])
+	 * @param baseline the baseline engine (evaluator[:depth])
+	 * @return the candidate's wins, losses and draws, and the number of nodes searched
+	 */
+	private static long[] play( final long[][] openings,
+								final AtomicInteger next,
+								final int depth,
+								final String candidate,
+								final String baseline ) {
+		final OthelloSearch[] engines = { createEngine( candidate, depth ), createEngine( baseline, depth ) };
+		final long[] counts = new long[ 4 ];
+		int game;
+		while( ( game = next.getAndIncrement() ) < openings.length * 2 ) {
+			// the candidate moves first in even games
+			final long[] opening = openings[game / 2];
+			final int first = game % 2;
+			long own = opening[0];
+			long opponent = opening[1];
+			int turn = first;
+			boolean passed = false;
+			while( true ) {
+				final long moves = legalMoves( own, opponent );
+				if( moves == 0 ) {
+					if( passed ) {
+						break;
+					}
+					passed = true;
+				}
+				else {
+					passed = false;
+					final OthelloSearch engine = engines[turn];
+					engine.reset();
+					engine.getTranspositionTable().newSearch();
+					final int move = engine.search( own, opponent, UNLIMITED, 0 );
+					counts[3] += engine.getNodeCount();
+					final long flipped = flips( own, opponent, move );
+					own |= flipped | ( 1L << move );
+					opponent &= ~flipped;
+				}
+
+				// it's the other side's turn
+				final long swap = own;
+				own			= opponent;
+				opponent	= swap;
+				turn		^= 1;
+			}
+
+			// score the game for the candidate (own belongs to the side whose turn it is)
+			final int discs = ( turn == 0 ) ? count( own ) - count( opponent ) : count( opponent ) - count( own );
+			counts[ ( discs > 0 ) ? 0 : ( ( discs < 0 ) ? 1 : 2 ) ]++;
+		}
+		return counts;
+	}
+
+	/**
+	 * Creates an engine from its description
+	 * @param description the engine's description (evaluator[:depth])
+	 * @param depth the default search depth
+	 * @return the {@link OthelloSearch search}
+	 */
+	private static OthelloSearch createEngine( final String description, final int depth ) {
+		final String[] parts = description.split( ":" );
+		final OthelloEvaluator evaluator;
+		if( "pattern".equals( parts[0] ) ) {
+			evaluator = new OthelloPatternEvaluator();
+		}
+		else if( "positional".equals( parts[0] ) ) {
+			evaluator = new OthelloPositionalEvaluator();
+		}
+		else {
+			throw new IllegalArgumentException( String.format( "Unknown evaluator '%s'", parts[0] ) );
+		}
+		final OthelloSearch search = new OthelloSearch( evaluator, new OthelloTranspositionTable( TABLE_BITS ) );
+		search.setMaxDepth( ( parts.length > 1 ) ? Integer.parseInt( parts[1] ) : depth );
+		search.setEndgameEmpties( ENDGAME_EMPTIES );
+		return search;
+	}
+
+	/**
+	 * Plays random moves from the starting position
+	 * @param random the given random number generator
+	 * @return the discs of the side to move (the player's colour, after an even number of plies), and of its opponent
+	 */
+	private static long[] createOpening( final Random random ) {
+		long own = INITIAL_YING;
+		long opponent = INITIAL_YANG;
+		for( int ply = 0; ply < OPENING_PLIES; ply++ ) {
+			// play one of the legal moves (at random)
+			final long moves = legalMoves( own, opponent );
+			long bits = moves;
+			for( int skip = random.nextInt( count( moves ) ); skip > 0; skip-- ) {
+				bits &= bits - 1;
+			}
+			final int move = Long.numberOfTrailingZeros( bits );
+			final long flipped = flips( own, opponent, move );
+			final long swap = opponent & ~flipped;
+			opponent	= own | flipped | ( 1L << move );
+			own			= swap;
+		}
+		return new long[] { own, opponent };
+	}
+
+	/**
+	 * Converts a score into an Elo difference
+	 * @param score the given score (the fraction of points won)
+	 * @return the Elo difference
+	 */
+	private static double elo( final double score ) {
+		final double clamped = Math.max( 0.001, Math.min( 0.999, score ) );
+		return -400 * Math.log10( 1 / clamped - 1 );
+	}
+
+	/**
+	 * Squares the given value
+	 * @param value the given value
+	 * @return the square of the value
+	 */
+	private static double squared( final double value ) {
+		return value * value;
+	}
+
+}
@@ -0,0 +1,141 @@
+package com.ldaniels528.woozle.othello;
+
+import static com.ldaniels528.woozle.othello.OthelloBitboard.*;
+
+import java.util.Random;
+
+/**
+ * Benchmark for the {@link OthelloMctsSearch Monte Carlo tree search}.
+ * Searches a set of (reproducible) middle-game positions for a fixed time
+ * with 1, 2, 4 ... threads, and reports the playouts per second (in all,
+ * and per thread); then plays a match against the alpha-beta search, both
+ * sides given the same time per move.
+ * <p>Usage: OthelloMctsBenchmark [positions] [millis] [games] [threads]</p>
+ * @author lawrence.daniels@gmail.com
+ */
+public class OthelloMctsBenchmark {
+	private static final int PLY = 20;
+
+	/**
+	 * For stand alone operation
+	 * @param args the given command line arguments
+	 */
+	public static void main( final String[] args ) {
+		final int positions	= ( args.length > 0 ) ? Integer.parseInt( args[0] ) : 8;
+		final long millis	= ( args.length > 1 ) ? Long.parseLong( args[1] ) : 500;
+		final int games		= ( args.length > 2 ) ? Integer.parseInt( args[2] ) : 10;
+		final int threads	= ( args.length > 3 ) ? Integer.parseInt( args[3] ) : Runtime.getRuntime().availableProcessors();
+
+		// measure the playout throughput (1, 2, 4 ... threads)
+		final Random random = new Random( 0x5EED );
+		final long[][] boards = new long[ positions ][];
+		for( int n = 0; n < positions; n++ ) {
+			boards[n] = createPosition( random, PLY );
+		}
+		System.out.printf( "%d positions at ply %d, %d ms each:\n", positions, PLY, millis );
+		for( int count = 1; count <= threads; count = ( count < threads ) ? Math.min( count * 2, threads ) : count + 1 ) {
+			final OthelloMctsSearch engine = new OthelloMctsSearch( count );
+			long playouts = 0;
+			long elapsed = 0;
+			for( final long[] board : boards ) {
+				final long startTime = System.nanoTime();
+				engine.findBestMove( board[0], board[1], millis );
+				elapsed += System.nanoTime() - startTime;
+				playouts += engine.getPlayoutCount();
+			}
+			engine.shutdown();
+			final double seconds = elapsed / 1e9;
+			System.out.printf( "%2d threads: %10d playouts (%.0f playouts/sec, %.0f per thread)\n",
+					count, playouts, playouts / seconds, playouts / seconds / count );
+		}
+
+		// play against the alpha-beta search (each opening with either colour)
+		final OthelloMctsSearch mcts = new OthelloMctsSearch( threads );
+		final OthelloParallelSearch alphaBeta = new OthelloParallelSearch( new OthelloPatternEvaluator(), threads );
+		final OthelloEngine[] engines = { mcts, alphaBeta };
+		int wins = 0, losses = 0, draws = 0;
+		for( int game = 0; game < games; game++ ) {
+			final long[] opening = createPosition( new Random( game / 2 ), 4 );
+			final int discs = play( engines, game % 2, opening, millis );
+			if( discs > 0 ) wins++;
+			else if( discs < 0 ) losses++;
+			else draws++;
+		}
+		mcts.shutdown();
+		alphaBeta.shutdown();
+		System.out.printf( "MCTS vs alpha-beta (%d ms per move): +%d -%d =%d\n", millis, wins, losses, draws );
+		System.exit( 0 );
+	}
+
+	/**
+	 * Plays a game between the given engines
+	 * @param engines the given {@link OthelloEngine engines} (MCTS first)
+	 * @param first the index of the engine that moves first
+	 * @param opening the opening position (the discs of the side to move, and of its opponent)
+	 * @param millis the time per move
+	 * @return the final disc differential, for the MCTS engine
+	 */
+	private static int play( final OthelloEngine[] engines, final int first, final long[] opening, final long millis ) {
+		long own = opening[0];
+		long opponent = opening[1];
+		int turn = first;
+		while( !isGameOver( own, opponent ) ) {
+			final int move = engines[turn].findBestMove( own, opponent, millis );
+			if( move != -1 ) {
+				final long flipped = flips( own, opponent, move );
+				own |= flipped | ( 1L << move );
+				opponent &= ~flipped;
+			}
+
+			// it's the other side's turn
+			final long swap = own;
+			own			= opponent;
+			opponent	= swap;
+			turn		^= 1;
+		}
+		return ( turn == 0 ) ? count( own ) - count( opponent ) : count( opponent ) - count( own );
+	}
+
+	/**
+	 * Plays random moves from the starting position
+	 * @param random the given random number generator
+	 * @param ply the number of moves to play
+	 * @return the discs of the side to move, and of its opponent
+	 */
+	private static long[] createPosition( final Random random, final int ply ) {
+		long own = INITIAL_YING;
+		long opponent = INITIAL_YANG;
+		int played = 0;
+		while( played < ply ) {
+			final long moves = legalMoves( own, opponent );
+			if( moves == 0 ) {
+				// the game is over; start again
+				if( legalMoves( opponent, own ) == 0 ) {
+					own			= INITIAL_YING;
+					opponent	= INITIAL_YANG;
+					played		= 0;
+					continue;
+				}
+			}
+			else {
+				// play one of the legal moves (at random)
+				long bits = moves;
+				for( int skip = random.nextInt( count( moves ) ); skip > 0; skip-- ) {
+					bits &= bits - 1;
+				}
+				final int move = Long.numberOfTrailingZeros( bits );
+				final long flipped = flips( own, opponent, move );
+				own |= flipped | ( 1L << move );
+				opponent &= ~flipped;
+				played++;
+			}
+
+			// it's the other side's turn
+			final long swap = own;
+			own			= opponent;
+			opponent	= swap;
+		}
+		return new long[] { own, opponent };
+	}
+
+}
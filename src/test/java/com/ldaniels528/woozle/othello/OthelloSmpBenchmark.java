@@ -0,0 +1,152 @@
+package com.ldaniels528.woozle.othello;
+
+import static com.ldaniels528.woozle.othello.OthelloBitboard.*;
+
+import java.util.Random;
+
+/**
+ * Benchmark for the {@link OthelloParallelSearch parallel search}. Searches
+ * a set of (reproducible) middle-game positions to a fixed depth with 1, 2,
+ * 4 ... threads, and reports the speedup over the single-threaded search
+ * (T1 / Tn) and the search overhead (the extra nodes visited, Nn / N1 - 1);
+ * then reports the depth reached within the AI's one second budget.
+ * <p>The positions are first searched once, untimed, so the JIT has
+ * compiled the search before any thread count is timed; each thread count
+ * is then timed several times, and its best run is kept.</p>
+ * <p>Usage: OthelloSmpBenchmark [positions] [depth] [ply] [threads]</p>
+ * @author lawrence.daniels@gmail.com
+ */
+public class OthelloSmpBenchmark {
+	private static final long UNLIMITED		= Long.MAX_VALUE;
+	private static final long MOVE_TIME		= 1000;
+	private static final int RUNS			= 3;
+
+	/**
+	 * For stand alone operation
+	 * @param args the given command line arguments
+	 */
+	public static void main( final String[] args ) {
+		final int positions	= ( args.length > 0 ) ? Integer.parseInt( args[0] ) : 8;
+		final int depth		= ( args.length > 1 ) ? Integer.parseInt( args[1] ) : 10;
+		final int ply		= ( args.length > 2 ) ? Integer.parseInt( args[2] ) : 20;
+		final int threads	= ( args.length > 3 ) ? Integer.parseInt( args[3] ) : Runtime.getRuntime().availableProcessors();
+
+		// generate the positions
+		final long[][] boards = new long[ positions ][];
+		final Random random = new Random( 0x5EED );
+		for( int n = 0; n < positions; n++ ) {
+			boards[n] = createPosition( random, ply );
+		}
+
+		// warm up (untimed), so the single-threaded search isn't timed on a cold JIT
+		final OthelloParallelSearch warmup = new OthelloParallelSearch( OthelloAIProcessor.createEvaluator(), threads );
+		warmup.setMaxDepth( depth );
+		search( warmup, boards );
+		warmup.shutdown();
+
+		// search them to a fixed depth (1, 2, 4 ... threads), keeping the best of several runs
+		System.out.printf( "%d positions at ply %d, depth %d (best of %d runs):\n", positions, ply, depth, RUNS );
+		double time1 = 0;
+		long nodes1 = 0;
+		for( int count = 1; count <= threads; count = ( count < threads ) ? Math.min( count * 2, threads ) : count + 1 ) {
+			final OthelloParallelSearch engine = new OthelloParallelSearch( OthelloAIProcessor.createEvaluator(), count );
+			engine.setMaxDepth( depth );
+			long elapsed = Long.MAX_VALUE;
+			long nodes = 0;
+			for( int run = 0; run < RUNS; run++ ) {
+				final long[] result = search( engine, boards );
+				if( result[0] < elapsed ) {
+					elapsed	= result[0];
+					nodes	= result[1];
+				}
+			}
+			engine.shutdown();
+
+			// report the speedup and overhead against the single-threaded search
+			final double time = elapsed / 1e6;
+			if( count == 1 ) {
+				time1	= time;
+				nodes1	= nodes;
+			}
+			System.out.printf( "%2d threads: %8.0f ms, %12d nodes (%.0f nodes/sec), speedup %.2fx, overhead %+.1f%%\n",
+					count, time, nodes, nodes * 1e3 / time, time1 / time, ( (double)nodes / nodes1 - 1 ) * 100 );
+		}
+
+		// search them within the AI's time budget
+		System.out.printf( "%d positions at ply %d, %d ms per move:\n", positions, ply, MOVE_TIME );
+		for( final int count : ( threads > 1 ) ? new int[] { 1, threads } : new int[] { 1 } ) {
+			final OthelloParallelSearch engine = new OthelloParallelSearch( OthelloAIProcessor.createEvaluator(), count );
+			int depths = 0;
+			for( final long[] board : boards ) {
+				engine.getTranspositionTable().clear();
+				engine.findBestMove( board[0], board[1], MOVE_TIME );
+				depths += engine.getCompletedDepth();
+			}
+			engine.shutdown();
+			System.out.printf( "%2d threads: average depth %.1f\n", count, (double)depths / positions );
+		}
+		System.exit( 0 );
+	}
+
+	/**
+	 * Searches each of the given positions (from an empty transposition table)
+	 * @param engine the given {@link OthelloParallelSearch engine}
+	 * @param boards the given positions
+	 * @return the time taken (in nanoseconds), and the number of nodes visited
+	 */
+	private static long[] search( final OthelloParallelSearch engine, final long[][] boards ) {
+		long elapsed = 0;
+		long nodes = 0;
+		for( final long[] board : boards ) {
+			engine.getTranspositionTable().clear();
+			final long startTime = System.nanoTime();
+			engine.findBestMove( board[0], board[1], UNLIMITED );
+			elapsed += System.nanoTime() - startTime;
+			nodes += engine.getNodeCount();
+		}
+		return new long[] { elapsed, nodes };
+	}
+
+	/**
+	 * Plays random moves from the starting position
+	 * @param random the given random number generator
+	 * @param ply the number of moves to play
+	 * @return the discs of the side to move, and of its opponent
+	 */
+	private static long[] createPosition( final Random random, final int ply ) {
+		long own = INITIAL_YANG;
+		long opponent = INITIAL_YING;
+		int played = 0;
+		while( played < ply ) {
+			final long moves = legalMoves( own, opponent );
+			if( moves == 0 ) {
+				// the game is over; start again
+				if( legalMoves( opponent, own ) == 0 ) {
+					own			= INITIAL_YANG;
+					opponent	= INITIAL_YING;
+					played		= 0;
+					continue;
+				}
+			}
+			else {
+				// play one of the legal moves (at random)
+				long bits = moves;
+				for( int skip = random.nextInt( count( moves ) ); skip > 0; skip-- ) {
+					bits &= bits - 1;
+				}
+				final int move = Long.numberOfTrailingZeros( bits );
+				final long flipped = flips( own, opponent, move );
+				own |= flipped | ( 1L << move );
+				opponent &= ~flipped;
+				played++;
+			}
+
+			// it's the other side's turn
+			final long swap = own;
+			own			= opponent;
+			opponent	= swap;
+		}
+		return new long[] { own, opponent };
+	}
+
+}